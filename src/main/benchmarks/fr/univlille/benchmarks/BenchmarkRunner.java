@@ -0,0 +1,26 @@
+package fr.univlille.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks of this package with the GC profiler,
+ * which reports the allocation rate (`gc.alloc.rate.norm`, in bytes per operation)
+ * next to the throughput (operations per second).
+ *
+ * An optional argument filters the benchmarks with a regular expression,
+ * for example `MazeBenchmark` or `HunterBenchmark.grenade`.
+ */
+public class BenchmarkRunner {
+    public static void main(String[] args) throws RunnerException {
+        String include = args.length > 0 ? args[0] : BenchmarkRunner.class.getPackage().getName() + ".*";
+        Options options = new OptionsBuilder()
+            .include(include)
+            .addProfiler(GCProfiler.class)
+            .build();
+        new Runner(options).run();
+    }
+}
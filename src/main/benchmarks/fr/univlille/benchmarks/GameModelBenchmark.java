@@ -0,0 +1,56 @@
+package fr.univlille.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import fr.univlille.iutinfo.cam.player.perception.ICoordinate;
+import fr.univlille.models.GameModel;
+
+/**
+ * The random positions (see `GameModel.randomPosition()`).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameModelBenchmark {
+    @Param({ "7", "19", "101", "501" })
+    public int size;
+
+    @Param({ "0.5", "0.8", "1.0" })
+    public double wallsPercentage;
+
+    private GameModel game;
+    private ICoordinate monster;
+    private int minDist;
+
+    @Setup
+    public void setup() {
+        game = Games.create(size, wallsPercentage);
+        monster = game.getMonster().getPosition();
+        minDist = (size + size) / 3;
+    }
+
+    @Benchmark
+    public ICoordinate randomPosition() {
+        return game.randomPosition();
+    }
+
+    @Benchmark
+    public ICoordinate randomPositionFarFromTarget() {
+        return game.randomPosition(monster, minDist);
+    }
+}
@@ -0,0 +1,42 @@
+package fr.univlille.benchmarks;
+
+import fr.univlille.GameMode;
+import fr.univlille.GameParameters;
+import fr.univlille.models.GameModel;
+
+/**
+ * Creates the games used by the benchmarks.
+ */
+final class Games {
+    /**
+     * The seed of every game, so that each run measures the same mazes.
+     */
+    static final long SEED = 42;
+
+    private Games() {}
+
+    static GameParameters parameters(int size, double wallsPercentage) {
+        GameParameters parameters = new GameParameters();
+        parameters.setSeed(SEED);
+        parameters.setMazeWidth(size);
+        parameters.setMazeHeight(size);
+        parameters.setWallsPercentage(wallsPercentage);
+        parameters.setHunterShoots(1);
+        parameters.setHunterGrenades(1);
+        parameters.setGameMode(GameMode.BOT);
+        return parameters;
+    }
+
+    /**
+     * Creates a square maze with its monster and its exit.
+     * @param size            The width and the height of the maze.
+     * @param wallsPercentage See `GameParameters.getWallsPercentage()`.
+     */
+    static GameModel create(int size, double wallsPercentage) {
+        GameParameters parameters = parameters(size, wallsPercentage);
+        GameModel game = new GameModel();
+        game.setParameters(parameters);
+        game.generateMaze(parameters);
+        return game;
+    }
+}
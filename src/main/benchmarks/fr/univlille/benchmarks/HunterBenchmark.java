@@ -0,0 +1,73 @@
+package fr.univlille.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import fr.univlille.iutinfo.cam.player.perception.ICoordinate;
+import fr.univlille.models.GameModel;
+import fr.univlille.models.HunterModel;
+
+/**
+ * The shots of the hunter (see `HunterModel.shoot()`), on every cell of the maze in turn,
+ * after the monster has walked through the maze so that the history isn't empty.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HunterBenchmark {
+    @Param({ "7", "19", "101", "501" })
+    public int size;
+
+    @Param({ "0.5", "0.8", "1.0" })
+    public double wallsPercentage;
+
+    private HunterModel hunter;
+    private ICoordinate[] targets;
+    private int next;
+
+    @Setup
+    public void setup() {
+        GameModel game = Games.create(size, wallsPercentage);
+        for (int i = 0; i < size * 4; i++) {
+            game.getMonster().play(game.randomPosition());
+        }
+        hunter = game.getHunter();
+        hunter.setGrenadesLeft(Integer.MAX_VALUE);
+        targets = new ICoordinate[size * size];
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                targets[y * size + x] = game.getCoordinate(x, y);
+            }
+        }
+    }
+
+    private ICoordinate nextTarget() {
+        ICoordinate target = targets[next];
+        next = (next + 1) % targets.length;
+        return target;
+    }
+
+    @Benchmark
+    public void shoot() {
+        hunter.shoot(nextTarget());
+    }
+
+    @Benchmark
+    public boolean grenade() {
+        return hunter.playHunterGrenade(nextTarget());
+    }
+}
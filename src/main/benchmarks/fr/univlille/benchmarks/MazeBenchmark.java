@@ -0,0 +1,48 @@
+package fr.univlille.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import fr.univlille.Maze;
+import fr.univlille.MazeGrid;
+
+/**
+ * The generation of a maze (see `Maze.createMaze()`).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MazeBenchmark {
+    @Param({ "7", "19", "101", "501" })
+    public int size;
+
+    @Param({ "0.5", "0.8", "1.0" })
+    public double wallsPercentage;
+
+    private Random random;
+
+    @Setup
+    public void setup() {
+        random = new Random(Games.SEED);
+    }
+
+    @Benchmark
+    public MazeGrid createMaze() {
+        return new Maze(size, size).createMaze(wallsPercentage, random);
+    }
+}
@@ -0,0 +1,69 @@
+package fr.univlille.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import fr.univlille.MonsterStrategy;
+import fr.univlille.iutinfo.cam.player.perception.ICoordinate;
+import fr.univlille.models.GameModel;
+import fr.univlille.pathfinding.Pathfinder;
+
+/**
+ * A move of the monster's bot.
+ * `play` uses the distance field of the exit, computed once per game,
+ * `search` is the BFS used when the distances to the exit aren't known.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MonsterStrategyBenchmark {
+    @Param({ "7", "19", "101", "501" })
+    public int size;
+
+    @Param({ "0.5", "0.8", "1.0" })
+    public double wallsPercentage;
+
+    private MonsterStrategy strategy;
+    private Pathfinder pathfinder;
+    private int monsterX;
+    private int monsterY;
+    private int exitX;
+    private int exitY;
+
+    @Setup
+    public void setup() {
+        GameModel game = Games.create(size, wallsPercentage);
+        strategy = new MonsterStrategy();
+        strategy.initialize(game.getMaze());
+        strategy.setMonsterVariables(game);
+        pathfinder = new Pathfinder(game.getGrid());
+        monsterX = game.getMonster().getPosition().getCol();
+        monsterY = game.getMonster().getPosition().getRow();
+        exitX = game.getExit().getCol();
+        exitY = game.getExit().getRow();
+    }
+
+    @Benchmark
+    public ICoordinate play() {
+        return strategy.play();
+    }
+
+    @Benchmark
+    public int search() {
+        return pathfinder.nextStep(monsterX, monsterY, exitX, exitY);
+    }
+}
@@ -0,0 +1,66 @@
+package fr.univlille.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import fr.univlille.GameParameters;
+import fr.univlille.InvalidGameDataException;
+import fr.univlille.multiplayer.InvalidCommunicationException;
+import fr.univlille.multiplayer.MultiplayerCommand;
+import fr.univlille.multiplayer.MultiplayerCommunication;
+
+/**
+ * The text formats sent between the host and the client:
+ * the parameters of the game (see `GameParameters.toString()`)
+ * and the communications (see `MultiplayerCommunication`).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+    private GameParameters parameters;
+    private String serializedParameters;
+    private MultiplayerCommunication communication;
+    private String serializedCommunication;
+
+    @Setup
+    public void setup() {
+        parameters = Games.parameters(19, 0.8);
+        serializedParameters = parameters.toString();
+        communication = new MultiplayerCommunication(MultiplayerCommand.HUNTER_PLAYED, "12-7;false");
+        serializedCommunication = communication.toString();
+    }
+
+    @Benchmark
+    public String writeParameters() {
+        return parameters.toString();
+    }
+
+    @Benchmark
+    public GameParameters readParameters() throws InvalidGameDataException {
+        return GameParameters.readParameters(serializedParameters);
+    }
+
+    @Benchmark
+    public String writeCommunication() {
+        return communication.toString();
+    }
+
+    @Benchmark
+    public MultiplayerCommunication readCommunication() throws InvalidCommunicationException {
+        return new MultiplayerCommunication(serializedCommunication);
+    }
+}
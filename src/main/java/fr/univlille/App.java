@@ -67,6 +67,7 @@ public class App extends Application {
         super.stop();
         // making sure the server and the client are properly closed when exiting the app
         MultiplayerUtils.getMultiplayerInstance().kill();
+        MultiplayerUtils.getMultiplayerInstance().awaitTermination();
     }
 
     public void showParameters(GameMode gameMode) throws IOException {
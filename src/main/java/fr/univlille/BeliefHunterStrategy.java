@@ -0,0 +1,380 @@
+package fr.univlille;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import fr.univlille.iutinfo.cam.player.hunter.IHunterStrategy;
+import fr.univlille.iutinfo.cam.player.perception.ICellEvent;
+import fr.univlille.iutinfo.cam.player.perception.ICellEvent.CellInfo;
+import fr.univlille.iutinfo.cam.player.perception.ICoordinate;
+
+/**
+ * A hunter that keeps track of every cell where the monster could be, and only shoots there.
+ *
+ * The hunter doesn't know the maze: at first, any cell could be empty and could hold the monster.
+ * Each shot teaches it something (see `update()`):
+ * - a wall is never a possible position anymore, and the monster cannot go through it,
+ * - an empty cell doesn't hold the monster now,
+ * - a cell where the monster went at turn `t` means that the monster is now at most `turn - t` moves away from it.
+ * At each turn of the monster, the possible positions grow by one move (see `expand()`).
+ *
+ * The cells are stored as bits, row by row, with the same layout as `MazeGrid`:
+ * each row starts on a new word, so the cells above and below a word are also a whole word,
+ * and a move of the monster on 64 cells is a few shifts and masks.
+ * A turn takes a few microseconds, even on a 1000×1000 maze.
+ *
+ * The super jump of the monster isn't taken into account.
+ * If the monster is found where it couldn't be, the hunter starts again from what it knows about the maze.
+ */
+public class BeliefHunterStrategy implements IHunterStrategy, GameAwareStrategy {
+    private int mazeWidth;
+    private int mazeHeight;
+    private int wordsPerRow;
+
+    /**
+     * The bits after the end of each row are always `0`.
+     */
+    private long lastWordMask;
+
+    /**
+     * The cells that may be empty: `0` for the walls found by the shots.
+     */
+    private long[] open;
+
+    /**
+     * The cells where the monster may be at the turn `beliefTurn`.
+     */
+    private long[] possible;
+
+    /**
+     * The rows of `possible` that changed since the last move of the monster, one bit per row,
+     * and the first and the last of them.
+     * A row can only change if itself or one of its neighbours did, so `expand()` skips the others:
+     * once the possible positions fill an area of the maze, a turn only goes through a few rows.
+     */
+    private long[] dirtyRows;
+    private int dirtyFrom;
+    private int dirtyTo;
+
+    /**
+     * The rows changed by `expand()`, which become the dirty rows once it's done.
+     */
+    private long[] changedRows;
+
+    /**
+     * The previous and the current row of `possible` as they were before `expand()` changed them.
+     */
+    private long[] rowAbove;
+    private long[] rowCurrent;
+
+    /**
+     * A copy of `possible`, while `keepReachableFrom()` computes where the monster can be.
+     */
+    private long[] saved;
+
+    private int possibleCount;
+
+    /**
+     * The turn described by `possible`.
+     */
+    private int beliefTurn;
+
+    /**
+     * The turn of the most recent position of the monster known by the hunter, `-1` if it has never been found.
+     */
+    private int lastSightingTurn = -1;
+
+    /**
+     * The generator used to choose among the possible positions.
+     * Giving a seeded one makes the shots reproducible (see `Tournament`).
+     */
+    private final Random random;
+
+    public BeliefHunterStrategy() {
+        this(new Random());
+    }
+
+    public BeliefHunterStrategy(Random random) {
+        this.random = random;
+    }
+
+    @Override
+    public void initialize(int arg0, int arg1) {
+        this.mazeWidth = arg0;
+        this.mazeHeight = arg1;
+        this.wordsPerRow = (mazeWidth + 63) >>> 6;
+        this.lastWordMask = (mazeWidth & 63) == 0 ? -1L : (1L << mazeWidth) - 1;
+        this.open = new long[wordsPerRow * mazeHeight];
+        this.possible = new long[open.length];
+        this.dirtyRows = new long[(mazeHeight + 63) >>> 6];
+        this.changedRows = new long[dirtyRows.length];
+        this.dirtyFrom = mazeHeight;
+        this.dirtyTo = -1;
+        this.rowAbove = new long[wordsPerRow];
+        this.rowCurrent = new long[wordsPerRow];
+        this.saved = new long[open.length];
+        for (int y = 0; y < mazeHeight; y++) {
+            int start = y * wordsPerRow;
+            Arrays.fill(open, start, start + wordsPerRow, -1L);
+            open[start + wordsPerRow - 1] = lastWordMask;
+        }
+        this.beliefTurn = 0;
+        this.lastSightingTurn = -1;
+        resetToOpenCells();
+    }
+
+    /**
+     * Tells the hunter which turn it is, so that the possible positions follow the moves of the monster
+     * before the first shot of the turn (`GameEngine` does it, as the interface doesn't).
+     * Without it, the moves are only taken into account once the result of a shot gives the turn.
+     * @param turn The current turn of the game.
+     */
+    @Override
+    public void turnBegin(int turn) {
+        advanceTo(turn);
+    }
+
+    /**
+     * Shoots one of the cells where the monster may be, at random.
+     * @return The target of the shot.
+     */
+    @Override
+    public ICoordinate play() {
+        if (possibleCount == 0) {
+            resetToOpenCells();
+        }
+        int index = nthPossibleCell(random.nextInt(possibleCount));
+        return new Coordinate(index % (wordsPerRow << 6), index / (wordsPerRow << 6));
+    }
+
+    /**
+     * Learns from the result of a shot.
+     * @param arg0 The last event that happened on the cell that was shot.
+     */
+    @Override
+    public void update(ICellEvent arg0) {
+        ICoordinate coord = arg0.getCoord();
+        int x = coord.getCol();
+        int y = coord.getRow();
+        if (x < 0 || x >= mazeWidth || y < 0 || y >= mazeHeight) {
+            return;
+        }
+        int word = y * wordsPerRow + (x >>> 6);
+        long bit = 1L << x;
+        int turn = arg0.getTurn();
+        if (arg0.getState() == CellInfo.MONSTER) {
+            if (turn >= beliefTurn) {
+                advanceTo(turn);
+                keepOnly(word, bit);
+            } else if (turn > lastSightingTurn) {
+                // the monster left this cell since then (staying in place is a new visit)
+                keepReachableFrom(word, bit, beliefTurn - turn);
+            }
+            lastSightingTurn = Math.max(lastSightingTurn, turn);
+            return;
+        }
+        advanceTo(turn);
+        if (arg0.getState() == CellInfo.WALL) {
+            open[word] &= ~bit;
+        }
+        if ((possible[word] & bit) != 0) {
+            possible[word] &= ~bit;
+            possibleCount--;
+        }
+        markDirty(y, y);
+    }
+
+    /**
+     * Moves the possible positions forward to the given turn, one move of the monster per turn.
+     * It stops as soon as they don't change anymore.
+     */
+    private void advanceTo(int turn) {
+        while (beliefTurn < turn) {
+            beliefTurn++;
+            if (!expand()) {
+                beliefTurn = turn;
+            }
+        }
+    }
+
+    /**
+     * Adds to the possible positions the cells next to them that may be empty:
+     * the monster moves by one cell, up, down, left or right, or stays in place if it cannot move.
+     * It's done in place, row by row, on the dirty rows and their neighbours.
+     * @return `true` if the possible positions changed.
+     */
+    private boolean expand() {
+        if (dirtyFrom > dirtyTo) {
+            return false;
+        }
+        int from = Math.max(0, dirtyFrom - 1);
+        int to = Math.min(mazeHeight - 1, dirtyTo + 1);
+        int changedFrom = mazeHeight;
+        int changedTo = -1;
+        boolean aboveSaved = false;
+        for (int y = from; y <= to; y++) {
+            if (!isDirty(y - 1) && !isDirty(y) && !isDirty(y + 1)) {
+                aboveSaved = false;
+                continue;
+            }
+            int start = y * wordsPerRow;
+            if (!aboveSaved && y > 0) {
+                // the row above was skipped, so it hasn't changed
+                System.arraycopy(possible, start - wordsPerRow, rowAbove, 0, wordsPerRow);
+            }
+            System.arraycopy(possible, start, rowCurrent, 0, wordsPerRow);
+            boolean rowChanged = false;
+            for (int w = 0; w < wordsPerRow; w++) {
+                long cells = rowCurrent[w];
+                long moved = cells | (cells << 1) | (cells >>> 1);
+                if (w > 0) {
+                    moved |= rowCurrent[w - 1] >>> 63;
+                }
+                if (w < wordsPerRow - 1) {
+                    moved |= rowCurrent[w + 1] << 63;
+                }
+                if (y > 0) {
+                    moved |= rowAbove[w];
+                }
+                if (y < mazeHeight - 1) {
+                    // the row below hasn't been changed yet
+                    moved |= possible[start + wordsPerRow + w];
+                }
+                moved &= open[start + w];
+                if (moved != cells) {
+                    possible[start + w] = moved;
+                    possibleCount += Long.bitCount(moved) - Long.bitCount(cells);
+                    rowChanged = true;
+                }
+            }
+            if (rowChanged) {
+                changedRows[y >>> 6] |= 1L << y;
+                changedFrom = Math.min(changedFrom, y);
+                changedTo = y;
+            }
+            long[] row = rowAbove;
+            rowAbove = rowCurrent;
+            rowCurrent = row;
+            aboveSaved = true;
+        }
+        Arrays.fill(dirtyRows, dirtyFrom >>> 6, (dirtyTo >>> 6) + 1, 0L);
+        long[] rows = dirtyRows;
+        dirtyRows = changedRows;
+        changedRows = rows;
+        dirtyFrom = changedFrom;
+        dirtyTo = changedTo;
+        return changedTo >= 0;
+    }
+
+    private boolean isDirty(int y) {
+        return y >= 0 && y < mazeHeight && (dirtyRows[y >>> 6] & (1L << y)) != 0;
+    }
+
+    private void markDirty(int from, int to) {
+        for (int y = from; y <= to; y++) {
+            dirtyRows[y >>> 6] |= 1L << y;
+        }
+        dirtyFrom = Math.min(dirtyFrom, from);
+        dirtyTo = Math.max(dirtyTo, to);
+    }
+
+    /**
+     * The monster was found on a cell at the current turn.
+     */
+    private void keepOnly(int word, long bit) {
+        Arrays.fill(possible, 0L);
+        possible[word] = bit;
+        possibleCount = 1;
+        markDirty(word / wordsPerRow, word / wordsPerRow);
+    }
+
+    /**
+     * The monster was on a cell some turns ago: it's now within the given number of moves from there,
+     * but not on the cell itself. The possible positions are restricted to these cells.
+     * @param moves The number of moves since the monster was on the cell.
+     */
+    private void keepReachableFrom(int word, long bit, int moves) {
+        System.arraycopy(possible, 0, saved, 0, possible.length);
+        keepOnly(word, bit);
+        int turn = beliefTurn;
+        for (int i = 0; i < moves; i++) {
+            if (!expand()) {
+                break;
+            }
+        }
+        beliefTurn = turn;
+        possible[word] &= ~bit;
+
+        int count = 0;
+        for (int i = 0; i < possible.length; i++) {
+            count += Long.bitCount(possible[i] & saved[i]);
+        }
+        if (count > 0) {
+            for (int i = 0; i < possible.length; i++) {
+                possible[i] &= saved[i];
+            }
+            possibleCount = count;
+        } else {
+            // the monster moved in a way the hunter cannot follow (a super jump):
+            // the cells reachable from where it was are all it knows
+            possibleCount = 0;
+            for (long cells : possible) {
+                possibleCount += Long.bitCount(cells);
+            }
+        }
+        markDirty(0, mazeHeight - 1);
+    }
+
+    /**
+     * Starts again from every cell that may be empty.
+     */
+    private void resetToOpenCells() {
+        System.arraycopy(open, 0, possible, 0, open.length);
+        possibleCount = 0;
+        for (long cells : possible) {
+            possibleCount += Long.bitCount(cells);
+        }
+        if (possibleCount == 0) {
+            // every shot hit a wall, which cannot happen in a valid maze
+            Arrays.fill(possible, 0, wordsPerRow, -1L);
+            possible[wordsPerRow - 1] = lastWordMask;
+            possibleCount = mazeWidth;
+        }
+        markDirty(0, mazeHeight - 1);
+    }
+
+    /**
+     * Finds the position of the n-th bit set in `possible`.
+     * @param n The rank of the cell, starting from `0`.
+     * @return The index of the bit: `y * wordsPerRow * 64 + x`.
+     */
+    private int nthPossibleCell(int n) {
+        for (int i = 0; i < possible.length; i++) {
+            long cells = possible[i];
+            int count = Long.bitCount(cells);
+            if (n < count) {
+                for (; n > 0; n--) {
+                    cells &= cells - 1;
+                }
+                return (i << 6) + Long.numberOfTrailingZeros(cells);
+            }
+            n -= count;
+        }
+        throw new IllegalStateException("There are only " + possibleCount + " possible positions.");
+    }
+
+    /**
+     * Gets the number of cells where the monster may be.
+     */
+    public int getPossibleCount() {
+        return possibleCount;
+    }
+
+    /**
+     * Checks if the monster may be on the given cell.
+     */
+    public boolean isPossible(int x, int y) {
+        return x >= 0 && x < mazeWidth && y >= 0 && y < mazeHeight
+            && (possible[y * wordsPerRow + (x >>> 6)] & (1L << x)) != 0;
+    }
+}
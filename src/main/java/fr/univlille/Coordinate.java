@@ -12,29 +12,53 @@ public class Coordinate implements ICoordinate {
     private int x;
     private int y;
 
+    /**
+     * The instances shared by `CoordinateTable` cannot be modified.
+     */
+    private final boolean immutable;
+
     public Coordinate(int x, int y) {
+        this(x, y, false);
+    }
+
+    Coordinate(int x, int y, boolean immutable) {
         this.x = x;
         this.y = y;
+        this.immutable = immutable;
     }
 
     public Coordinate(double x, double y) {
-        this.x = (int) x;
-        this.y = (int) y;
+        this((int) x, (int) y);
     }
 
     public Coordinate(int[] coordinates) {
-        this.x = coordinates[0];
-        this.y = coordinates[1];
+        this(coordinates[0], coordinates[1]);
     }
 
     public void setCol(int x) {
+        checkMutable();
         this.x = x;
     }
 
     public void setRow(int y) {
+        checkMutable();
         this.y = y;
     }
 
+    /**
+     * Is this instance shared (see `CoordinateTable`)?
+     * @return `true` if the setters cannot be used.
+     */
+    public boolean isImmutable() {
+        return immutable;
+    }
+
+    private void checkMutable() {
+        if (immutable) {
+            throw new UnsupportedOperationException("Cette coordonnée est partagée et ne peut pas être modifiée : " + this);
+        }
+    }
+
     @Override
     public int getCol() {
         return this.x;
@@ -46,18 +70,33 @@ public class Coordinate implements ICoordinate {
     }
 
     public static double distance(ICoordinate c1, ICoordinate c2) {
-        return Math.sqrt(Math.pow((c1.getCol() - c2.getCol()), 2) + Math.pow((c1.getRow() - c2.getRow()), 2));
+        return Math.sqrt(squaredDistance(c1, c2));
+    }
+
+    /**
+     * Gets the square of the distance between two positions.
+     * Prefer it over `distance()` to compare distances, as it doesn't need a square root.
+     */
+    public static int squaredDistance(ICoordinate c1, ICoordinate c2) {
+        int dx = c1.getCol() - c2.getCol();
+        int dy = c1.getRow() - c2.getRow();
+        return dx * dx + dy * dy;
     }
 
     @Override
     public boolean equals(Object obj) {
-        if (obj == null) {
+        if (!(obj instanceof ICoordinate)) {
             return false;
         }
-        Coordinate other = (Coordinate) obj;
+        ICoordinate other = (ICoordinate) obj;
         return other.getCol() == getCol() && other.getRow() == getRow();
     }
 
+    @Override
+    public int hashCode() {
+        return PackedCoordinate.pack(x, y);
+    }
+
     @Override
     public String toString() {
         return "(" + getCol() + ", " + getRow() + ")";
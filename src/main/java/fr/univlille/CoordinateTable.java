@@ -0,0 +1,68 @@
+package fr.univlille;
+
+/**
+ * A cache of immutable instances of `Coordinate` for every cell of a maze (flyweight),
+ * so that the positions given through the `ICoordinate` API don't need to be allocated each time.
+ * 
+ * The rows are only allocated when one of their cells is requested for the first time,
+ * so that a very large maze doesn't cost an object per cell.
+ * A position outside of the maze isn't cached, a new immutable instance is created instead.
+ */
+public class CoordinateTable {
+    private final int width;
+    private final int height;
+    private final Coordinate[][] rows;
+
+    public CoordinateTable(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.rows = new Coordinate[height][];
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Gets the immutable instance of `Coordinate` for the given position.
+     * @param x The X coordinate (the column).
+     * @param y The Y coordinate (the row).
+     * @return The same instance for the same position if it's within the maze.
+     */
+    public Coordinate get(int x, int y) {
+        if (x < 0 || x >= width || y < 0 || y >= height) {
+            return new Coordinate(x, y, true);
+        }
+        Coordinate[] row = rows[y];
+        if (row == null) {
+            row = new Coordinate[width];
+            rows[y] = row;
+        }
+        Coordinate coordinate = row[x];
+        if (coordinate == null) {
+            coordinate = new Coordinate(x, y, true);
+            row[x] = coordinate;
+        }
+        return coordinate;
+    }
+
+    /**
+     * Gets the immutable instance of `Coordinate` for a packed position.
+     * @param packed A position packed with `PackedCoordinate.pack()`.
+     */
+    public Coordinate get(int packed) {
+        return get(PackedCoordinate.x(packed), PackedCoordinate.y(packed));
+    }
+
+    /**
+     * Gets the immutable instance of `Coordinate` for the row-major index of a cell.
+     * @param index The index of the cell, `y * width + x`.
+     */
+    public Coordinate fromIndex(int index) {
+        return get(index % width, index / width);
+    }
+}
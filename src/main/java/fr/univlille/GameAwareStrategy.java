@@ -0,0 +1,23 @@
+package fr.univlille;
+
+import fr.univlille.models.GameModel;
+
+/**
+ * A bot that needs to know more about the game than what `IMonsterStrategy` and `IHunterStrategy` give.
+ * The interfaces of the strategies don't give the exit, nor tell a bot when the other player has played,
+ * so `GameEngine` calls these methods on any strategy that implements this interface, whatever its class.
+ * Both do nothing by default.
+ */
+public interface GameAwareStrategy {
+    /**
+     * Tells the bot about the game, after it was initialized with the maze.
+     * @param game The game the bot plays.
+     */
+    default void setGame(GameModel game) {}
+
+    /**
+     * Tells the bot that its turn begins, before it plays.
+     * @param turn The current turn of the game.
+     */
+    default void turnBegin(int turn) {}
+}
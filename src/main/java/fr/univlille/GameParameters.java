@@ -1,7 +1,5 @@
 package fr.univlille;
 
-import java.util.Arrays;
-
 public class GameParameters {
     /**
      * The delimiter used in `toString()`.
@@ -35,6 +33,15 @@ public class GameParameters {
 
     private boolean predefined;
 
+    /**
+     * Should the random positions (the monster and the exit) be drawn
+     * exactly like the former versions of the game did?
+     * It consumes the random generator in the same way,
+     * so that a game created with the same seed is the same on an older instance.
+     * It's the default, and it's not transmitted in `toString()` so that older instances can read it.
+     */
+    private boolean legacyPlacement = true;
+
     public GameMode getGameMode() {
         return gameMode;
     }
@@ -132,6 +139,14 @@ public class GameParameters {
         return this.predefined;
     }
 
+    public boolean hasLegacyPlacement() {
+        return legacyPlacement;
+    }
+
+    public void setLegacyPlacement(boolean legacyPlacement) {
+        this.legacyPlacement = legacyPlacement;
+    }
+
     /**
      * Gets the value of a string following this format: "name=value".
      * This function would return "value".
@@ -170,7 +185,6 @@ public class GameParameters {
         if (attributes.length == 0) {
             throw new InvalidGameDataException("Aucun paramètre n'a pu être lu dans '" + input + "'.");
         }
-        System.out.println(Arrays.toString(attributes));
         for (String parameter : attributes) {
             String name = getStringParameterName(parameter);
             String plainValue = getStringParameterValue(parameter);
@@ -226,6 +240,9 @@ public class GameParameters {
                         throw new InvalidGameDataException("Impossible de parser le rayon du brouillard : '" + parameter + "'.", input);
                     }
                     break;
+                case "legacyPlacement":
+                    params.setLegacyPlacement(plainValue.equals("1"));
+                    break;
                 case "gameMode":
                     try {
                         params.setGameMode(GameMode.values()[Integer.parseInt(plainValue)]);
@@ -242,6 +259,29 @@ public class GameParameters {
         return params;
     }
 
+    /**
+     * Creates a new instance of `GameParameters` with the same values.
+     * Useful when several games are created from the same parameters,
+     * each one with its own seed.
+     * @return A copy of these parameters.
+     */
+    public GameParameters copy() {
+        GameParameters params = new GameParameters();
+        params.seed = seed;
+        params.mazeWidth = mazeWidth;
+        params.mazeHeight = mazeHeight;
+        params.hunterShoots = hunterShoots;
+        params.hunterGrenades = hunterGrenades;
+        params.wallsPercentage = wallsPercentage;
+        params.fogOfWar = fogOfWar;
+        params.fogOfWarRadius = fogOfWarRadius;
+        params.gameMode = gameMode;
+        params.predefined = predefined;
+        params.legacyPlacement = legacyPlacement;
+        params.aiPlayerIsHunter = aiPlayerIsHunter;
+        return params;
+    }
+
     /**
      * Generates a string that can be used to transfer
      * the parameters to the client in case of a multiplayer game.
@@ -257,6 +297,9 @@ public class GameParameters {
         str.append("includeFog=" + (fogOfWar ? 1 : 0) + STRING_DELIMITER);
         str.append("fogRadius=" + fogOfWarRadius + STRING_DELIMITER);
         str.append("gameMode=" + gameMode.ordinal());
+        if (!legacyPlacement) {
+            str.append(STRING_DELIMITER + "legacyPlacement=0");
+        }
         return str.toString();
     }
 }
@@ -0,0 +1,545 @@
+package fr.univlille;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import fr.univlille.iutinfo.cam.player.hunter.IHunterStrategy;
+import fr.univlille.iutinfo.cam.player.perception.ICellEvent;
+import fr.univlille.iutinfo.cam.player.perception.ICellEvent.CellInfo;
+import fr.univlille.iutinfo.cam.player.perception.ICoordinate;
+import fr.univlille.models.GameModel;
+import fr.univlille.pathfinding.DistanceField;
+
+/**
+ * A hunter that keeps the probability of the monster being on each cell, and shoots the most likely one.
+ *
+ * At each move of the monster, the probabilities flow to the neighbouring cells (see `diffuse()`),
+ * more towards the cells that are closer to the exit, as the monster is trying to reach it.
+ * Each shot updates them with Bayes' rule (see `update()`):
+ * an empty cell or a wall doesn't hold the monster, and a cell where the monster went some turns ago
+ * makes the cells it could have reached since then more likely.
+ *
+ * The hunter is told the distances to the exit by `GameEngine` (see `setGame()`), like `MonsterStrategy`.
+ * Without them, it only knows the walls it found, and the monster is expected to go anywhere.
+ *
+ * The probabilities are stored in a flat `float[]` (row-major, `y * width + x`).
+ * The diffusion is written as a few simple loops over the arrays, that the JIT can vectorise,
+ * and the rows are split across a fork-join pool when the maze is big.
+ */
+public class HeatmapHunterStrategy implements IHunterStrategy, GameAwareStrategy {
+    /**
+     * How much more likely the monster is to go to a neighbour that is closer to the exit.
+     */
+    private static final float TOWARDS_EXIT_WEIGHT = 8f;
+
+    /**
+     * How likely the monster is to stay in place, compared to going to a neighbour.
+     * The monster never stays when it can move, but the hunter cannot be sure of it.
+     */
+    private static final float STAY_WEIGHT = 0.05f;
+
+    /**
+     * The number of cells from which the diffusion is split across the pool.
+     */
+    private static final int PARALLEL_THRESHOLD = 1 << 16;
+
+    /**
+     * The number of cells diffused by a single task of the pool.
+     */
+    private static final int CELLS_PER_TASK = 1 << 14;
+
+    /**
+     * The number of moves after which a sighting of the monster is only used to know that it left the cell.
+     */
+    private static final int MAX_SIGHTING_MOVES = 64;
+
+    /**
+     * The sum of the probabilities under which they are divided by it again (see `mass`).
+     */
+    private static final float RENORMALIZE_BELOW = 1e-3f;
+
+    private int mazeWidth;
+    private int mazeHeight;
+    private int size;
+
+    /**
+     * The walls found by the shots, or given by the distances to the exit.
+     */
+    private MazeGrid walls;
+
+    private DistanceField exitDistances;
+
+    /**
+     * The probability of the monster being on each cell at the turn `beliefTurn`, multiplied by `mass`.
+     */
+    private float[] probabilities;
+
+    /**
+     * The sum of `probabilities`. They're only divided by it when it becomes too small,
+     * so that a shot doesn't have to go through the whole maze.
+     */
+    private float mass;
+
+    /**
+     * The probabilities after a move of the monster, then swapped with `probabilities`.
+     */
+    private float[] next;
+
+    /**
+     * The likelihood of each cell after a sighting of the monster (see `observeSighting()`).
+     */
+    private float[] sighting;
+
+    /**
+     * The probability that the monster stays on each cell, or goes up, down, left or right from it.
+     * They are `0` towards the walls and the outside of the maze.
+     */
+    private float[] stay;
+    private float[] up;
+    private float[] down;
+    private float[] left;
+    private float[] right;
+
+    /**
+     * The turn described by `probabilities`.
+     */
+    private int beliefTurn;
+
+    /**
+     * The turn of the most recent position of the monster known by the hunter, `-1` if it has never been found.
+     */
+    private int lastSightingTurn = -1;
+
+    private CoordinateTable coordinates;
+
+    /**
+     * The generator used to choose between equally likely cells.
+     * Giving a seeded one makes the shots reproducible (see `Tournament`).
+     */
+    private final Random random;
+
+    /**
+     * The pool across which a big maze is split, or `null` to always diffuse on the current thread.
+     */
+    private final ForkJoinPool pool;
+
+    public HeatmapHunterStrategy() {
+        this(new Random());
+    }
+
+    public HeatmapHunterStrategy(Random random) {
+        this(random, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param random The generator used to choose between equally likely cells.
+     * @param pool   The pool across which the rows of a big maze are split, or `null`.
+     */
+    public HeatmapHunterStrategy(Random random, ForkJoinPool pool) {
+        this.random = random;
+        this.pool = pool;
+    }
+
+    @Override
+    public void initialize(int arg0, int arg1) {
+        this.mazeWidth = arg0;
+        this.mazeHeight = arg1;
+        this.size = mazeWidth * mazeHeight;
+        this.walls = new MazeGrid(mazeWidth, mazeHeight);
+        this.exitDistances = null;
+        this.probabilities = new float[size];
+        this.next = new float[size];
+        this.sighting = new float[size];
+        this.stay = new float[size];
+        this.up = new float[size];
+        this.down = new float[size];
+        this.left = new float[size];
+        this.right = new float[size];
+        this.coordinates = new CoordinateTable(mazeWidth, mazeHeight);
+        this.beliefTurn = 0;
+        this.lastSightingTurn = -1;
+        for (int y = 0; y < mazeHeight; y++) {
+            for (int x = 0; x < mazeWidth; x++) {
+                computeMoves(x, y);
+            }
+        }
+        resetToOpenCells();
+    }
+
+    /**
+     * Gives the distance of every cell to the exit, so that the moves of the monster towards the exit are more likely.
+     * The cells from which the exit cannot be reached are considered as walls.
+     * @param exitDistances The distances of the maze the hunter was initialized with.
+     */
+    public void setExitDistances(DistanceField exitDistances) {
+        this.exitDistances = exitDistances;
+        for (int y = 0; y < mazeHeight; y++) {
+            for (int x = 0; x < mazeWidth; x++) {
+                if (!exitDistances.isReachable(x, y)) {
+                    walls.setWall(x, y, true);
+                }
+            }
+        }
+        for (int y = 0; y < mazeHeight; y++) {
+            for (int x = 0; x < mazeWidth; x++) {
+                computeMoves(x, y);
+            }
+        }
+        resetToOpenCells();
+    }
+
+    /**
+     * Gives the distances to the exit of the game (see `setExitDistances()`).
+     */
+    @Override
+    public void setGame(GameModel game) {
+        setExitDistances(game.getExitDistances());
+    }
+
+    /**
+     * Tells the hunter which turn it is, so that the probabilities follow the moves of the monster
+     * before the first shot of the turn (`GameEngine` does it, as the interface doesn't).
+     * Without it, the moves are only taken into account once the result of a shot gives the turn.
+     * @param turn The current turn of the game.
+     */
+    @Override
+    public void turnBegin(int turn) {
+        advanceTo(turn);
+    }
+
+    /**
+     * Shoots the cell where the monster is the most likely to be.
+     * @return The target of the shot.
+     */
+    @Override
+    public ICoordinate play() {
+        int best = mostLikelyCell();
+        if (best < 0) {
+            resetToOpenCells();
+            best = Math.max(0, mostLikelyCell());
+        }
+        return coordinates.fromIndex(best);
+    }
+
+    /**
+     * Updates the probabilities with the result of a shot.
+     * @param arg0 The last event that happened on the cell that was shot.
+     */
+    @Override
+    public void update(ICellEvent arg0) {
+        ICoordinate coord = arg0.getCoord();
+        int x = coord.getCol();
+        int y = coord.getRow();
+        if (x < 0 || x >= mazeWidth || y < 0 || y >= mazeHeight) {
+            return;
+        }
+        int cell = y * mazeWidth + x;
+        int turn = arg0.getTurn();
+        if (arg0.getState() == CellInfo.MONSTER) {
+            if (turn >= beliefTurn) {
+                advanceTo(turn);
+                Arrays.fill(probabilities, 0f);
+                probabilities[cell] = 1f;
+                mass = 1f;
+            } else if (turn > lastSightingTurn) {
+                // the monster left this cell since then (staying in place is a new visit)
+                observeSighting(cell, beliefTurn - turn);
+            }
+            lastSightingTurn = Math.max(lastSightingTurn, turn);
+            return;
+        }
+        advanceTo(turn);
+        if (arg0.getState() == CellInfo.WALL && !walls.isWall(x, y)) {
+            walls.setWall(x, y, true);
+            computeMoves(x, y);
+            computeMoves(x, y - 1);
+            computeMoves(x + 1, y);
+            computeMoves(x, y + 1);
+            computeMoves(x - 1, y);
+        }
+        observeEmpty(cell);
+    }
+
+    /**
+     * Computes the probabilities of the moves of the monster from a cell, given the walls known by the hunter.
+     */
+    private void computeMoves(int x, int y) {
+        if (x < 0 || x >= mazeWidth || y < 0 || y >= mazeHeight) {
+            return;
+        }
+        int cell = y * mazeWidth + x;
+        if (walls.isWall(x, y)) {
+            stay[cell] = up[cell] = down[cell] = left[cell] = right[cell] = 0f;
+            return;
+        }
+        float towardsUp = moveWeight(x, y, x, y - 1);
+        float towardsDown = moveWeight(x, y, x, y + 1);
+        float towardsLeft = moveWeight(x, y, x - 1, y);
+        float towardsRight = moveWeight(x, y, x + 1, y);
+        float moves = towardsUp + towardsDown + towardsLeft + towardsRight;
+        float total = moves + (moves == 0f ? 1f : STAY_WEIGHT * moves);
+        stay[cell] = (total - moves) / total;
+        up[cell] = towardsUp / total;
+        down[cell] = towardsDown / total;
+        left[cell] = towardsLeft / total;
+        right[cell] = towardsRight / total;
+    }
+
+    /**
+     * How likely the monster is to go from a cell to one of its neighbours, before normalization.
+     */
+    private float moveWeight(int fromX, int fromY, int toX, int toY) {
+        if (!walls.isOpen(toX, toY)) {
+            return 0f;
+        }
+        if (exitDistances != null && exitDistances.getDistance(toX, toY) < exitDistances.getDistance(fromX, fromY)) {
+            return TOWARDS_EXIT_WEIGHT;
+        }
+        return 1f;
+    }
+
+    /**
+     * Moves the probabilities forward to the given turn, one move of the monster per turn.
+     */
+    private void advanceTo(int turn) {
+        while (beliefTurn < turn) {
+            beliefTurn++;
+            diffuse();
+        }
+    }
+
+    /**
+     * Makes the probabilities flow to the neighbouring cells, for one move of the monster.
+     */
+    private void diffuse() {
+        diffuse(probabilities, next);
+        float[] previous = probabilities;
+        probabilities = next;
+        next = previous;
+    }
+
+    /**
+     * Computes the probabilities after a move of the monster, on the current thread or across the pool.
+     * @param from The probabilities before the move.
+     * @param to   Where the probabilities after the move are written.
+     */
+    private void diffuse(float[] from, float[] to) {
+        if (pool == null || size < PARALLEL_THRESHOLD) {
+            diffuseRange(from, to, 0, size);
+        } else {
+            int rowsPerTask = Math.max(1, CELLS_PER_TASK / mazeWidth);
+            pool.invoke(new Diffusion(from, to, 0, mazeHeight, rowsPerTask));
+        }
+    }
+
+    /**
+     * The diffusion of a range of cells: each cell receives what stays on it,
+     * and what comes from the cell below (going up), above (going down), on its right (going left) and on its left.
+     * Apart from the first and the last rows, it's a single loop over the arrays, without any condition,
+     * so that it's vectorised. A move from the last cell of a row to the first cell of the next one is always `0`.
+     * @param start The first cell of the range.
+     * @param end   The cell after the last one of the range.
+     */
+    private void diffuseRange(float[] from, float[] to, int start, int end) {
+        int innerStart = Math.min(end, Math.max(start, mazeWidth));
+        int innerEnd = Math.max(innerStart, Math.min(end, size - mazeWidth));
+        for (int i = start; i < innerStart; i++) {
+            diffuseEdgeCell(from, to, i);
+        }
+        for (int i = innerStart; i < innerEnd; i++) {
+            to[i] = from[i] * stay[i]
+                + from[i + mazeWidth] * up[i + mazeWidth]
+                + from[i - mazeWidth] * down[i - mazeWidth]
+                + from[i + 1] * left[i + 1]
+                + from[i - 1] * right[i - 1];
+        }
+        for (int i = innerEnd; i < end; i++) {
+            diffuseEdgeCell(from, to, i);
+        }
+    }
+
+    /**
+     * The diffusion of a cell of the first or the last row, whose neighbours may be outside of the maze.
+     */
+    private void diffuseEdgeCell(float[] from, float[] to, int i) {
+        float received = from[i] * stay[i];
+        if (i + mazeWidth < size) {
+            received += from[i + mazeWidth] * up[i + mazeWidth];
+        }
+        if (i - mazeWidth >= 0) {
+            received += from[i - mazeWidth] * down[i - mazeWidth];
+        }
+        if (i + 1 < size) {
+            received += from[i + 1] * left[i + 1];
+        }
+        if (i - 1 >= 0) {
+            received += from[i - 1] * right[i - 1];
+        }
+        to[i] = received;
+    }
+
+    /**
+     * A range of rows, split in two until it's small enough to be diffused by a single worker.
+     */
+    private class Diffusion extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final float[] from;
+        private final float[] to;
+        private final int fromRow;
+        private final int toRow;
+        private final int rowsPerTask;
+
+        Diffusion(float[] from, float[] to, int fromRow, int toRow, int rowsPerTask) {
+            this.from = from;
+            this.to = to;
+            this.fromRow = fromRow;
+            this.toRow = toRow;
+            this.rowsPerTask = rowsPerTask;
+        }
+
+        @Override
+        protected void compute() {
+            if (toRow - fromRow <= rowsPerTask) {
+                diffuseRange(from, to, fromRow * mazeWidth, toRow * mazeWidth);
+                return;
+            }
+            int middle = (fromRow + toRow) >>> 1;
+            invokeAll(new Diffusion(from, to, fromRow, middle, rowsPerTask), new Diffusion(from, to, middle, toRow, rowsPerTask));
+        }
+    }
+
+    /**
+     * The monster was on a cell some turns ago, and isn't there anymore.
+     * The likelihood of each cell is the probability of going there from the cell in the given number of moves,
+     * by which the probabilities are multiplied (Bayes' rule).
+     * After `MAX_SIGHTING_MOVES`, the likelihood is spread too thin to be worth it,
+     * and the cell is only known to be empty.
+     * @param cell  The cell where the monster was.
+     * @param moves The number of moves since the monster was on the cell.
+     */
+    private void observeSighting(int cell, int moves) {
+        if (moves > MAX_SIGHTING_MOVES) {
+            observeEmpty(cell);
+            return;
+        }
+        float[] likelihood = sighting;
+        float[] scratch = next;
+        Arrays.fill(likelihood, 0f);
+        likelihood[cell] = 1f;
+        for (int i = 0; i < moves; i++) {
+            diffuse(likelihood, scratch);
+            float[] swap = likelihood;
+            likelihood = scratch;
+            scratch = swap;
+        }
+        likelihood[cell] = 0f;
+        sighting = likelihood;
+        next = scratch;
+
+        float total = 0f;
+        for (int i = 0; i < size; i++) {
+            total += probabilities[i] * likelihood[i];
+        }
+        if (total > 0f) {
+            for (int i = 0; i < size; i++) {
+                probabilities[i] *= likelihood[i];
+            }
+            mass = total;
+            if (mass < RENORMALIZE_BELOW) {
+                normalize();
+            }
+        } else {
+            // the monster moved in a way the hunter doesn't expect (a super jump):
+            // where it could have gone from the cell is all it knows
+            System.arraycopy(likelihood, 0, probabilities, 0, size);
+            normalize();
+        }
+    }
+
+    /**
+     * The monster isn't on a cell: its probability becomes `0`,
+     * and the others are divided by `1 - P(monster on the cell)` (Bayes' rule), through `mass`.
+     */
+    private void observeEmpty(int cell) {
+        mass -= probabilities[cell];
+        probabilities[cell] = 0f;
+        if (mass < RENORMALIZE_BELOW) {
+            normalize();
+            if (mass == 0f) {
+                resetToOpenCells();
+            }
+        }
+    }
+
+    /**
+     * Starts again from the same probability on every cell that may be empty.
+     */
+    private void resetToOpenCells() {
+        for (int y = 0; y < mazeHeight; y++) {
+            for (int x = 0; x < mazeWidth; x++) {
+                probabilities[y * mazeWidth + x] = walls.isWall(x, y) ? 0f : 1f;
+            }
+        }
+        normalize();
+    }
+
+    /**
+     * Divides the probabilities by their sum, computed again, so that `mass` becomes `1`.
+     * If they are all `0`, `mass` becomes `0`.
+     */
+    private void normalize() {
+        float total = 0f;
+        for (int i = 0; i < size; i++) {
+            total += probabilities[i];
+        }
+        if (total > 0f) {
+            float factor = 1f / total;
+            for (int i = 0; i < size; i++) {
+                probabilities[i] *= factor;
+            }
+            mass = 1f;
+        } else {
+            mass = 0f;
+        }
+    }
+
+    /**
+     * Finds the cell with the highest probability.
+     * The search starts from a random cell, so that the first of equally likely cells is chosen at random.
+     * @return The row-major index of the cell, or `-1` if every cell has a probability of `0`.
+     */
+    private int mostLikelyCell() {
+        int start = random.nextInt(size);
+        int best = mostLikelyCell(start, size, -1);
+        return mostLikelyCell(0, start, best);
+    }
+
+    /**
+     * Finds a cell more likely than the given one within a range.
+     * @param best The most likely cell found so far, or `-1`.
+     * @return The most likely cell, or `best` if there is none more likely in the range.
+     */
+    private int mostLikelyCell(int from, int to, int best) {
+        float bestProbability = best < 0 ? 0f : probabilities[best];
+        for (int i = from; i < to; i++) {
+            if (probabilities[i] > bestProbability) {
+                best = i;
+                bestProbability = probabilities[i];
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Gets the probability of the monster being on the given cell.
+     */
+    public float getProbability(int x, int y) {
+        if (x < 0 || x >= mazeWidth || y < 0 || y >= mazeHeight) {
+            return 0f;
+        }
+        return mass > 0f ? probabilities[y * mazeWidth + x] / mass : 0f;
+    }
+}
@@ -11,16 +11,31 @@ public class HunterStrategy implements IHunterStrategy {
     private int mazeWidth;
     private int mazeHeight;
 
+    /**
+     * The generator used for each shot.
+     * Giving a seeded one makes the shots reproducible (see `Tournament`).
+     */
+    private final Random random;
+
+    public HunterStrategy() {
+        this(new Random());
+    }
+
+    public HunterStrategy(Random random) {
+        this.random = random;
+    }
+
     @Override
     public ICoordinate play() {
-        Random random = new Random();
         return new Coordinate(random.nextInt(mazeWidth), random.nextInt(mazeHeight));
     }
 
+    /**
+     * The shots are random, so their results are ignored.
+     */
     @Override
     public void update(ICellEvent arg0) {
-        // TODO Auto-generated method stub
-        throw new UnsupportedOperationException("Unimplemented method 'update'");
+        // nothing to do
     }
 
     @Override
@@ -29,4 +44,4 @@ public class HunterStrategy implements IHunterStrategy {
         this.mazeHeight = arg1;
     }
 
-}
\ No newline at end of file
+}
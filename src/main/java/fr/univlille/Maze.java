@@ -1,53 +1,123 @@
 package fr.univlille;
 
-import java.util.Arrays;
-import java.util.Collections;
-import java.util.List;
 import java.util.Random;
 
 public class Maze {
     private int tailleX;
     private int tailleY;
-    private boolean[][] mazeTile;
+    private MazeGrid mazeTile;
 
     public Maze(int tailleX, int tailleY) {
         this.tailleX = tailleX;
         this.tailleY = tailleY;
-        this.mazeTile = new boolean[tailleY][tailleX];
+        this.mazeTile = new MazeGrid(tailleX, tailleY);
         initializeMaze();
     }
 
     private void initializeMaze() {
-        for (boolean[] row : mazeTile) {
-            Arrays.fill(row, true);
-        }
+        mazeTile.fill(true);
     }
 
-    public boolean[][] createMaze(double threshold, Random random) {
-        recursiveBacktrack(0, 0, random);
+    public MazeGrid createMaze(double threshold, Random random) {
+        iterativeBacktrack(0, 0, random);
 
-        for (int y = 0; y < mazeTile.length; y++) {
-            for (int x = 0; x < mazeTile[0].length; x++) {
+        for (int y = 0; y < tailleY; y++) {
+            for (int x = 0; x < tailleX; x++) {
                 if (random.nextDouble() > threshold) {
-                    mazeTile[y][x] = false;
+                    mazeTile.setWall(x, y, false);
                 }
             }
         }
         return mazeTile;
     }
 
-    private void recursiveBacktrack(int currentX, int currentY, Random random) {
-        List<int[]> directions = Arrays.asList(new int[] { 0, -2 }, new int[] { 0, 2 }, new int[] { -2, 0 }, new int[] { 2, 0 });
-        Collections.shuffle(directions, random);
+    /**
+     * The four directions in which the backtracker can carve: up, down, left, right.
+     * Each direction moves two cells away, the cell in between being the wall to open.
+     */
+    private static final int[] DIRECTIONS_X = { 0, 0, -2, 2 };
+    private static final int[] DIRECTIONS_Y = { -2, 2, 0, 0 };
+
+    /**
+     * All the possible orders in which the four directions can be tried.
+     * `Collections.shuffle` on a list of 4 elements draws `nextInt(4)`, `nextInt(3)` and `nextInt(2)`
+     * and swaps the elements accordingly. The permutation obtained with the draws (a, b, c)
+     * is stored at the index `a * 6 + b * 2 + c`, so that the same order is obtained
+     * without shuffling a new list for each cell.
+     */
+    private static final int[][] PERMUTATIONS = new int[24][];
+
+    static {
+        for (int a = 0; a < 4; a++) {
+            for (int b = 0; b < 3; b++) {
+                for (int c = 0; c < 2; c++) {
+                    int[] order = { 0, 1, 2, 3 };
+                    swap(order, 3, a);
+                    swap(order, 2, b);
+                    swap(order, 1, c);
+                    PERMUTATIONS[a * 6 + b * 2 + c] = order;
+                }
+            }
+        }
+    }
+
+    private static void swap(int[] array, int i, int j) {
+        int tmp = array[i];
+        array[i] = array[j];
+        array[j] = tmp;
+    }
+
+    /**
+     * Draws the order in which the directions will be tried for a cell.
+     * It consumes the random generator exactly like `Collections.shuffle` would
+     * on a list of the four directions.
+     */
+    private static int randomPermutation(Random random) {
+        int a = random.nextInt(4);
+        int b = random.nextInt(3);
+        int c = random.nextInt(2);
+        return a * 6 + b * 2 + c;
+    }
+
+    /**
+     * Carves the maze with a depth-first search starting from the given cell.
+     * The search uses an explicit stack instead of recursion,
+     * so that it can handle very large mazes without causing a `StackOverflowError`.
+     * 
+     * For the same random generator, it carves exactly the same maze as the former recursive version
+     * (the directions of a cell are drawn when the cell is reached, and tried in the same order),
+     * which is required so that the host and the client of a multiplayer game get the same maze.
+     */
+    private void iterativeBacktrack(int startX, int startY, Random random) {
+        // Only the cells with even coordinates are pushed, so this is the maximum depth of the search.
+        int capacity = ((tailleX + 1) / 2) * ((tailleY + 1) / 2) + 1;
+        int[] stackCells = new int[capacity];
+        int[] stackPermutations = new int[capacity];
+        int[] stackNextDirections = new int[capacity];
 
-        for (int[] direction : directions) {
-            int newX = currentX + direction[0];
-            int newY = currentY + direction[1];
+        int top = 0;
+        stackCells[top] = startY * tailleX + startX;
+        stackPermutations[top] = randomPermutation(random);
+        stackNextDirections[top] = 0;
 
-            if (isValidCell(newX, newY) && mazeTile[newY][newX]) {
-                mazeTile[currentY + direction[1] / 2][currentX + direction[0] / 2] = false; // Ouvre le mur
-                mazeTile[newY][newX] = false; // Marque la nouvelle case comme visitée
-                recursiveBacktrack(newX, newY, random); // Appel récursif pour la nouvelle case
+        while (top >= 0) {
+            if (stackNextDirections[top] == 4) {
+                top--; // every direction was tried, going back to the previous cell
+                continue;
+            }
+            int currentX = stackCells[top] % tailleX;
+            int currentY = stackCells[top] / tailleX;
+            int direction = PERMUTATIONS[stackPermutations[top]][stackNextDirections[top]++];
+            int newX = currentX + DIRECTIONS_X[direction];
+            int newY = currentY + DIRECTIONS_Y[direction];
+
+            if (isValidCell(newX, newY) && mazeTile.isWall(newX, newY)) {
+                mazeTile.setWall(currentX + DIRECTIONS_X[direction] / 2, currentY + DIRECTIONS_Y[direction] / 2, false); // Ouvre le mur
+                mazeTile.setWall(newX, newY, false); // Marque la nouvelle case comme visitée
+                top++;
+                stackCells[top] = newY * tailleX + newX;
+                stackPermutations[top] = randomPermutation(random);
+                stackNextDirections[top] = 0;
             }
         }
     }
@@ -56,7 +126,15 @@ public class Maze {
         return x >= 0 && x < tailleX && y >= 0 && y < tailleY;
     }
 
+    /**
+     * Gets a copy of the maze as a `boolean[][]`, `true` being a wall.
+     * Prefer `getGrid()`, which doesn't copy anything.
+     */
     public boolean[][] getMaze() {
+        return mazeTile.toArray();
+    }
+
+    public MazeGrid getGrid() {
         return mazeTile;
     }
 
@@ -70,7 +148,7 @@ public class Maze {
         str.append("mazeTile " + tailleX + ", " + tailleY + "\n");
         for (int y = 0; y < tailleY; y++) {
             for (int x = 0; x < tailleX; x++) {
-                if (mazeTile[y][x]) {
+                if (mazeTile.isWall(x, y)) {
                     str.append(' ');
                 } else {
                     str.append('#');
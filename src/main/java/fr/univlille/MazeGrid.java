@@ -0,0 +1,205 @@
+package fr.univlille;
+
+import java.util.Arrays;
+
+/**
+ * The cells of a maze, packed as bits: `1` represents a wall, `0` an empty cell.
+ *
+ * The bits are stored row by row in an array of `long`.
+ * Each row starts on a new word, so that the cells above and below a word
+ * are also a whole word, which allows us to process 64 cells at once
+ * (see `getWord()`).
+ *
+ * It takes 8 times less memory than a `boolean[][]`,
+ * and `toArray()` can still give a `boolean[][]` to the strategies
+ * (the interface `IMonsterStrategy` requires it).
+ */
+public class MazeGrid {
+    /**
+     * Bit masks returned by `openNeighbours()`.
+     */
+    public static final int UP = 1;
+    public static final int RIGHT = 2;
+    public static final int DOWN = 4;
+    public static final int LEFT = 8;
+
+    private final int width;
+    private final int height;
+
+    /**
+     * The number of `long` needed to store one row.
+     */
+    private final int wordsPerRow;
+
+    private final long[] words;
+
+    /**
+     * Creates a grid where every cell is empty.
+     * @param width  The number of columns.
+     * @param height The number of rows.
+     */
+    public MazeGrid(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.wordsPerRow = (width + 63) >>> 6;
+        this.words = new long[wordsPerRow * height];
+    }
+
+    /**
+     * Packs a maze stored as a `boolean[][]` (`true` being a wall).
+     * @param maze The maze to pack.
+     * @return A new instance of `MazeGrid` with the same cells.
+     */
+    public static MazeGrid fromArray(boolean[][] maze) {
+        MazeGrid grid = new MazeGrid(maze[0].length, maze.length);
+        for (int y = 0; y < grid.height; y++) {
+            for (int x = 0; x < grid.width; x++) {
+                if (maze[y][x]) {
+                    grid.setWall(x, y, true);
+                }
+            }
+        }
+        return grid;
+    }
+
+    /**
+     * Unpacks the grid into a new `boolean[][]` (`true` being a wall).
+     * The array is a copy: modifying it doesn't modify the grid.
+     * @return The cells of the grid, row by row.
+     */
+    public boolean[][] toArray() {
+        boolean[][] maze = new boolean[height][width];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                maze[y][x] = isWallUnchecked(x, y);
+            }
+        }
+        return maze;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getWordsPerRow() {
+        return wordsPerRow;
+    }
+
+    /**
+     * Checks if the given cell is within the grid.
+     */
+    public boolean isInBounds(int x, int y) {
+        return x >= 0 && x < width && y >= 0 && y < height;
+    }
+
+    /**
+     * Checks if a particular cell is a wall.
+     * The cells outside of the grid are considered as walls.
+     * @param x The X coordinate of the cell.
+     * @param y The Y coordinate of the cell.
+     * @return `true` if the cell is a wall or outside of the grid.
+     */
+    public boolean isWall(int x, int y) {
+        return !isInBounds(x, y) || isWallUnchecked(x, y);
+    }
+
+    /**
+     * Checks if a particular cell is within the grid and empty.
+     */
+    public boolean isOpen(int x, int y) {
+        return isInBounds(x, y) && !isWallUnchecked(x, y);
+    }
+
+    private boolean isWallUnchecked(int x, int y) {
+        return (words[y * wordsPerRow + (x >>> 6)] & (1L << x)) != 0;
+    }
+
+    /**
+     * Turns a cell into a wall, or into an empty cell.
+     * @param x    The X coordinate of the cell.
+     * @param y    The Y coordinate of the cell.
+     * @param wall `true` to put a wall, `false` to empty the cell.
+     */
+    public void setWall(int x, int y, boolean wall) {
+        int index = y * wordsPerRow + (x >>> 6);
+        if (wall) {
+            words[index] |= 1L << x;
+        } else {
+            words[index] &= ~(1L << x);
+        }
+    }
+
+    /**
+     * Turns every cell into a wall, or into an empty cell.
+     * The bits after the end of each row are never set.
+     * @param wall `true` to fill the grid with walls.
+     */
+    public void fill(boolean wall) {
+        if (!wall) {
+            Arrays.fill(words, 0L);
+            return;
+        }
+        long lastWordMask = (width & 63) == 0 ? -1L : (1L << width) - 1;
+        for (int y = 0; y < height; y++) {
+            int start = y * wordsPerRow;
+            Arrays.fill(words, start, start + wordsPerRow, -1L);
+            words[start + wordsPerRow - 1] = lastWordMask;
+        }
+    }
+
+    /**
+     * Gets which neighbours of a cell are empty.
+     * @param x The X coordinate of the cell.
+     * @param y The Y coordinate of the cell.
+     * @return A combination of `UP`, `RIGHT`, `DOWN` and `LEFT`.
+     */
+    public int openNeighbours(int x, int y) {
+        int mask = 0;
+        if (isOpen(x, y - 1)) mask |= UP;
+        if (isOpen(x + 1, y)) mask |= RIGHT;
+        if (isOpen(x, y + 1)) mask |= DOWN;
+        if (isOpen(x - 1, y)) mask |= LEFT;
+        return mask;
+    }
+
+    /**
+     * Gets 64 cells of a row at once, a bit set to `1` being a wall.
+     * The cell `x` is the bit `x % 64` of the word `x / 64`.
+     * The bits after the end of the row are always `0`.
+     * @param y     The row.
+     * @param index The index of the word within the row.
+     * @return The packed cells.
+     */
+    public long getWord(int y, int index) {
+        return words[y * wordsPerRow + index];
+    }
+
+    /**
+     * Counts the empty cells of the grid.
+     */
+    public int countOpen() {
+        int walls = 0;
+        for (long word : words) {
+            walls += Long.bitCount(word);
+        }
+        return width * height - walls;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof MazeGrid)) {
+            return false;
+        }
+        MazeGrid other = (MazeGrid) obj;
+        return other.width == width && other.height == height && Arrays.equals(other.words, words);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * width + height) + Arrays.hashCode(words);
+    }
+}
@@ -0,0 +1,237 @@
+package fr.univlille;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import fr.univlille.iutinfo.cam.player.monster.IMonsterStrategy;
+import fr.univlille.iutinfo.cam.player.perception.ICellEvent;
+import fr.univlille.iutinfo.cam.player.perception.ICellEvent.CellInfo;
+import fr.univlille.iutinfo.cam.player.perception.ICoordinate;
+import fr.univlille.mcts.PlayoutState;
+import fr.univlille.mcts.SearchTree;
+import fr.univlille.mcts.SimulatedGame;
+import fr.univlille.metrics.Histogram;
+import fr.univlille.metrics.MetricsRegistry;
+import fr.univlille.models.GameModel;
+import fr.univlille.search.TranspositionTable;
+import fr.univlille.search.Zobrist;
+
+/**
+ * A monster that chooses its moves with a Monte Carlo tree search,
+ * instead of always taking the shortest path to the exit like `MonsterStrategy`.
+ *
+ * Before each move, it plays thousands of games against a simulated hunter (see `SimulatedGame`),
+ * which starts from what the real hunter found with its shots, and the monster avoids the moves after which it's often shot.
+ * It can use its super jumps: a move of two cells is played as a super jump by `GameEngine`.
+ *
+ * The search is parallel at the root: each thread of the pool grows its own tree with its own generator,
+ * and the numbers of visits of the first moves are added up. Nothing is shared during the search.
+ * It stops after a time budget (`DEFAULT_TIME_BUDGET` by default) or a number of iterations per tree.
+ * The generators of the trees are seeded with the hash of the state (see `PlayoutState.hash()`),
+ * so with only a number of iterations, a move only depends on the state and on the seed of the strategy.
+ * That's why a move can be stored in a `TranspositionTable` and reused without searching again
+ * when the same state comes back (see `setTranspositionTable()`), even when the table is shared by several games.
+ *
+ * Like `MonsterStrategy`, it needs to be told about the game by `GameEngine` (see `setGame()`),
+ * otherwise it stays in place.
+ */
+public class MctsMonsterStrategy implements IMonsterStrategy, GameAwareStrategy {
+    /**
+     * The time given to the search of each move, in milliseconds.
+     */
+    public static final long DEFAULT_TIME_BUDGET = 50;
+
+    private static final int NODES_PER_TREE = 1 << 15;
+
+    private static final Histogram ITERATIONS = MetricsRegistry.getInstance().histogram("mcts.iterations");
+
+    private final ForkJoinPool pool;
+    private final SearchTree[] trees;
+    private final long seed;
+    private long timeBudget = DEFAULT_TIME_BUDGET;
+    private int iterationBudget = Integer.MAX_VALUE;
+    private TranspositionTable table;
+
+    private MazeGrid maze;
+    private int mazeWidth;
+    private CoordinateTable coordinates;
+
+    private GameModel game;
+    private SimulatedGame simulation;
+
+    /**
+     * The state of the game at the beginning of the search, shared by the trees.
+     */
+    private final PlayoutState root = new PlayoutState();
+
+    private int monsterX;
+    private int monsterY;
+
+    public MctsMonsterStrategy() {
+        this(new Random());
+    }
+
+    /**
+     * Searches with as many trees as there are threads in the common pool.
+     * @param random The generator of the seed of the strategy.
+     */
+    public MctsMonsterStrategy(Random random) {
+        this(random, ForkJoinPool.commonPool(), ForkJoinPool.commonPool().getParallelism());
+    }
+
+    /**
+     * @param random The generator of the seed of the strategy.
+     * @param pool   The pool in which the trees are searched, or `null` to search them one after the other.
+     * @param trees  The number of trees searched in parallel.
+     */
+    public MctsMonsterStrategy(Random random, ForkJoinPool pool, int trees) {
+        this.pool = pool;
+        this.seed = random.nextLong();
+        this.trees = new SearchTree[Math.max(1, trees)];
+        for (int i = 0; i < this.trees.length; i++) {
+            this.trees[i] = new SearchTree(NODES_PER_TREE);
+        }
+    }
+
+    /**
+     * Sets the time given to the search of each move.
+     * @param millis The time in milliseconds, or `0` to only stop after the number of iterations (see `setIterationBudget()`).
+     */
+    public void setTimeBudget(long millis) {
+        this.timeBudget = millis;
+    }
+
+    /**
+     * Sets the number of iterations of each tree for each move.
+     * @param iterations The number of iterations, which is unlimited by default.
+     */
+    public void setIterationBudget(int iterations) {
+        this.iterationBudget = iterations;
+    }
+
+    /**
+     * Sets the table in which the moves are stored and looked for before searching.
+     * @param table The table, which can be shared by several strategies and threads, or `null` to always search.
+     */
+    public void setTranspositionTable(TranspositionTable table) {
+        this.table = table;
+    }
+
+    /**
+     * Searches the best move from the current position of the monster, unless it's already in the table.
+     * @return The next cell of the monster, two cells away for a super jump,
+     *         or its current cell if it cannot move or if it doesn't know the game.
+     */
+    @Override
+    public ICoordinate play() {
+        if (simulation == null) {
+            return coordinates.get(monsterX, monsterY);
+        }
+        setRoot();
+        long hash = root.hash() ^ simulation.getHash() ^ Zobrist.key(Zobrist.SEARCH_SEED, seed)
+            ^ Zobrist.key(Zobrist.SEARCH_BUDGET, timeBudget << 32 ^ iterationBudget) ^ Zobrist.key(Zobrist.SEARCH_TREES, trees.length);
+        if (table != null) {
+            int move = table.probe(hash);
+            // the move of another state with the same hash may not be allowed here
+            if (move != TranspositionTable.MISS && move < SimulatedGame.ACTIONS && (simulation.legalActions(root) & (1 << move)) != 0) {
+                return coordinates.fromIndex(simulation.target(root.getMonster(), move));
+            }
+        }
+        long deadline = timeBudget > 0 ? System.nanoTime() + timeBudget * 1_000_000 : 0;
+        search(deadline, hash);
+
+        int best = -1;
+        int bestVisits = 0;
+        double bestReward = 0;
+        int iterations = 0;
+        for (int action = 0; action < SimulatedGame.ACTIONS; action++) {
+            int visits = 0;
+            double reward = 0;
+            for (SearchTree tree : trees) {
+                visits += tree.getVisits(action);
+                reward += tree.getReward(action);
+            }
+            iterations += visits;
+            if (visits > bestVisits || (visits == bestVisits && visits > 0 && reward > bestReward)) {
+                best = action;
+                bestVisits = visits;
+                bestReward = reward;
+            }
+        }
+        ITERATIONS.record(iterations);
+        if (best < 0) {
+            return coordinates.get(monsterX, monsterY);
+        }
+        if (table != null) {
+            table.store(hash, best, iterations);
+        }
+        return coordinates.fromIndex(simulation.target(root.getMonster(), best));
+    }
+
+    /**
+     * Sets the root state from the game: the position of the monster, its recent moves,
+     * and the most recent cell where the hunter found it.
+     */
+    private void setRoot() {
+        root.reset(monsterY * mazeWidth + monsterX, game.getTurn(), game.getMonster().getSuperJumpsLeft());
+        List<ICellEvent> history = game.getHistory();
+        for (int i = history.size() - 1; i >= 0 && i >= history.size() - PlayoutState.TRAIL_LENGTH; i--) {
+            ICellEvent event = history.get(i);
+            if (event.getState() == CellInfo.MONSTER) {
+                root.visit(cellIndex(event.getCoord()), event.getTurn());
+            }
+        }
+        for (ICellEvent shot : game.getHunter().getShootsHistory()) {
+            if (shot.getState() == CellInfo.MONSTER) {
+                root.reveal(cellIndex(shot.getCoord()), shot.getTurn());
+            }
+        }
+    }
+
+    private int cellIndex(ICoordinate coordinate) {
+        return coordinate.getRow() * mazeWidth + coordinate.getCol();
+    }
+
+    /**
+     * Searches all the trees, each with its own seed.
+     * @param hash The hash of the state, from which the seeds are drawn.
+     */
+    private void search(long deadline, long hash) {
+        if (pool == null || trees.length == 1) {
+            for (int i = 0; i < trees.length; i++) {
+                trees[i].search(simulation, root, deadline, iterationBudget, Zobrist.key(Zobrist.SEARCH_SEED, hash + i));
+            }
+            return;
+        }
+        ForkJoinTask<?>[] tasks = new ForkJoinTask<?>[trees.length];
+        for (int i = 0; i < trees.length; i++) {
+            SearchTree tree = trees[i];
+            long treeSeed = Zobrist.key(Zobrist.SEARCH_SEED, hash + i);
+            tasks[i] = ForkJoinTask.adapt(() -> tree.search(simulation, root, deadline, iterationBudget, treeSeed));
+        }
+        pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(tasks)));
+    }
+
+    @Override
+    public void setGame(GameModel game) {
+        this.game = game;
+        this.monsterX = game.getMonster().getPosition().getCol();
+        this.monsterY = game.getMonster().getPosition().getRow();
+        this.simulation = new SimulatedGame(maze, game.getExitDistances(), game.getHunter().getMaxShoots());
+    }
+
+    @Override
+    public void update(ICellEvent arg0) {
+        this.monsterX = arg0.getCoord().getCol();
+        this.monsterY = arg0.getCoord().getRow();
+    }
+
+    @Override
+    public void initialize(boolean[][] arg0) {
+        this.maze = MazeGrid.fromArray(arg0);
+        this.mazeWidth = maze.getWidth();
+        this.coordinates = new CoordinateTable(mazeWidth, maze.getHeight());
+    }
+}
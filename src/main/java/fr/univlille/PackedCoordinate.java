@@ -0,0 +1,118 @@
+package fr.univlille;
+
+import fr.univlille.iutinfo.cam.player.perception.ICoordinate;
+
+/**
+ * Coordinates packed into a single `int`, so that the engine can handle positions
+ * without allocating instances of `Coordinate`.
+ * 
+ * The X coordinate (column) is stored in the 16 lowest bits and the Y coordinate (row)
+ * in the 16 highest bits, both as signed values, so the coordinates must be within [-32768, 32767].
+ * Negative coordinates are allowed (for positions outside of the maze, such as `(-1, -1)`).
+ * 
+ * Only the `ICoordinate` API should use objects, see `CoordinateTable` to convert
+ * a packed coordinate into an instance of `Coordinate` without allocating it.
+ */
+public final class PackedCoordinate {
+    /**
+     * The directions used by `neighbour()`.
+     */
+    public static final int UP = 0;
+    public static final int RIGHT = 1;
+    public static final int DOWN = 2;
+    public static final int LEFT = 3;
+
+    private static final int[] DIRECTIONS_X = { 0, 1, 0, -1 };
+    private static final int[] DIRECTIONS_Y = { -1, 0, 1, 0 };
+
+    private PackedCoordinate() {}
+
+    /**
+     * Packs a position into an `int`.
+     * @param x The X coordinate (the column).
+     * @param y The Y coordinate (the row).
+     * @return The packed coordinates.
+     */
+    public static int pack(int x, int y) {
+        return (y << 16) | (x & 0xFFFF);
+    }
+
+    /**
+     * Packs an instance of `ICoordinate`.
+     */
+    public static int pack(ICoordinate coordinate) {
+        return pack(coordinate.getCol(), coordinate.getRow());
+    }
+
+    /**
+     * Gets the X coordinate (the column) of a packed position.
+     */
+    public static int x(int packed) {
+        return (short) packed;
+    }
+
+    /**
+     * Gets the Y coordinate (the row) of a packed position.
+     */
+    public static int y(int packed) {
+        return packed >> 16;
+    }
+
+    /**
+     * Gets the number of horizontal and vertical moves needed to go from a position to another,
+     * without taking the walls into account.
+     */
+    public static int manhattan(int a, int b) {
+        return Math.abs(x(a) - x(b)) + Math.abs(y(a) - y(b));
+    }
+
+    /**
+     * Gets the square of the euclidean distance between two positions.
+     * Comparing squared distances gives the same result as comparing distances,
+     * without computing a square root.
+     */
+    public static int squaredDistance(int a, int b) {
+        int dx = x(a) - x(b);
+        int dy = y(a) - y(b);
+        return dx * dx + dy * dy;
+    }
+
+    /**
+     * Gets the neighbour of a position in the given direction.
+     * The result may be outside of the maze.
+     * 
+     * To go through the four neighbours:
+     * ```
+     * for (int direction = UP; direction <= LEFT; direction++) {
+     *     int neighbour = PackedCoordinate.neighbour(position, direction);
+     * }
+     * ```
+     * @param packed    The packed position.
+     * @param direction `UP`, `RIGHT`, `DOWN` or `LEFT`.
+     * @return The packed position of the neighbour.
+     */
+    public static int neighbour(int packed, int direction) {
+        return pack(x(packed) + DIRECTIONS_X[direction], y(packed) + DIRECTIONS_Y[direction]);
+    }
+
+    /**
+     * Converts a packed position into the row-major index of a cell
+     * (the index used by the flat arrays of the engine, such as `GameModel.cellIndex()`).
+     * @param packed The packed position, which must be within the maze.
+     * @param width  The width of the maze.
+     * @return `y * width + x`
+     */
+    public static int toIndex(int packed, int width) {
+        return y(packed) * width + x(packed);
+    }
+
+    /**
+     * Converts the row-major index of a cell into a packed position.
+     * @param index The index of the cell.
+     * @param width The width of the maze.
+     * @return The packed position.
+     */
+    public static int fromIndex(int index, int width) {
+        return pack(index % width, index / width);
+    }
+}
@@ -3,22 +3,23 @@ package fr.univlille.controllers;
 import java.io.IOException;
 
 import fr.univlille.App;
-import fr.univlille.CellEvent;
+import fr.univlille.BeliefHunterStrategy;
 import fr.univlille.Coordinate;
-import fr.univlille.HunterStrategy;
-import fr.univlille.MonsterStrategy;
+import fr.univlille.MctsMonsterStrategy;
 import fr.univlille.iutinfo.cam.player.perception.ICoordinate;
-import fr.univlille.iutinfo.cam.player.perception.ICellEvent.CellInfo;
+import fr.univlille.models.GameEngine;
 import fr.univlille.models.GameModel;
+import fr.univlille.models.GameSnapshot;
 import fr.univlille.multiplayer.Client;
 import fr.univlille.multiplayer.MultiplayerBody;
 import fr.univlille.multiplayer.MultiplayerCommand;
 import fr.univlille.multiplayer.MultiplayerCommunication;
 import fr.univlille.multiplayer.MultiplayerUtils;
 import fr.univlille.multiplayer.Server;
+import fr.univlille.utils.BackgroundTasks;
+import fr.univlille.utils.Log;
 import fr.univlille.views.GameView;
 import javafx.application.Platform;
-import javafx.concurrent.Task;
 import javafx.fxml.FXML;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
@@ -27,6 +28,11 @@ import javafx.scene.layout.AnchorPane;
 import javafx.scene.layout.VBox;
 
 public class GameController {
+    /**
+     * The time between two pings of the other player, in milliseconds,
+     * to measure the round-trip time of the connection (see `MultiplayerBody.startPinging()`).
+     */
+    private static final long PING_PERIOD = 2000;
 
     @FXML
     public ToggleButton powerupButton;
@@ -64,8 +70,10 @@ public class GameController {
     private GameView gameView;
     private GameModel game;
 
-    private MonsterStrategy monsterStrategy;
-    private HunterStrategy hunterStrategy;
+    /**
+     * Applies the rules of the game (see `GameEngine`).
+     */
+    private GameEngine engine;
 
     @FXML
     public void initialize() {
@@ -96,7 +104,7 @@ public class GameController {
             try {
                 MultiplayerUtils.getMultiplayerInstance().kill();
             } catch (IOException e) {
-                System.err.println("Could not kill the instance of multiplayer body : " + e.getMessage());
+                Log.warn("Could not kill the instance of multiplayer body : ", e.getMessage());
             }
         }
         leaveGame();
@@ -122,33 +130,27 @@ public class GameController {
         game.generateMaze(game.getParameters());
         }
 
+        // On ajoute la première position du monstre dans l'historique
+        engine = new GameEngine(game);
+        engine.start();
+
         if (gameView != null) {
             mainVBox.getChildren().remove(gameView);
         }
-        gameView = new GameView(game);
+        gameView = new GameView(engine);
 
         mainVBox.getChildren().add(2, gameView);
         gameView.draw();
         gameView.setMainPage(this);
         updateEntitiesLabel();
 
-        // On ajoute la première position du monstre dans l'historique
-        Coordinate monsterPosition = game.getMonster().getPosition();
-
-        // Cloner les coordonnées du monstre est nécessaire
-        // car l'historique doit contenir une deep copy de la position.
-        game.addToHistory(new CellEvent(monsterPosition.clone(), CellInfo.MONSTER, game.getTurn()));
-
         if (game.isPlayerAgainstAI()) {
-            // On crée la MonsterStrategy ou la HunterStrategy en fonction du rôle que le joueur a pris.
+            // On crée la MctsMonsterStrategy ou la HunterStrategy en fonction du rôle que le joueur a pris.
             if (game.getParameters().isAiPlayerIsHunter()) {
-                monsterStrategy = new MonsterStrategy();
-                monsterStrategy.initialize(game.getMaze());
-                monsterStrategy.setMonsterVariables(game);
+                engine.setMonsterStrategy(new MctsMonsterStrategy());
                 playTurn(); // Comme c'est toujours le monstre qui commence, on le laisse d'abord jouer.
             } else {
-                hunterStrategy = new HunterStrategy();
-                hunterStrategy.initialize(game.getParameters().getMazeWidth(), game.getParameters().getMazeHeight());
+                engine.setHunterStrategy(new BeliefHunterStrategy());
             }
         }
         
@@ -177,25 +179,21 @@ public class GameController {
         MultiplayerBody body = MultiplayerUtils.getMultiplayerInstance();
         body.setIncomingCommunicationCallback(() ->
             Platform.runLater(() -> {
-                handleMultiplayerExchange(body);
+                body.drainCommunications(message -> handleMultiplayerExchange(body, message));
             })
         );
+        body.startPinging(PING_PERIOD);
     }
 
     /**
      * When one player is telling the other about the completion of his turn,
-     * he sends information along with the communication.
-     * This first parameter of this communication is coordinates.
-     * This method reads these coordinates and creates an instance of `ICoordinate`.
+     * he sends the target of his move along with the communication.
+     * This method creates an instance of `ICoordinate` from it.
      * @param communication The communication that was sent by the other after the completion of his turn.
      * @return The coordinates of the other's move.
      */
     private ICoordinate readCoordinatesFromMultiplayerCommunication(MultiplayerCommunication communication) {
-        int[] coordinates = new int[2];
-        String[] strCoordinates = communication.getParameter(0).split("-");
-        coordinates[0] = Integer.parseInt(strCoordinates[0]);
-        coordinates[1] = Integer.parseInt(strCoordinates[1]);
-        return new Coordinate(coordinates);
+        return game.getCoordinate(communication.getMoveX(), communication.getMoveY());
     }
 
     /**
@@ -203,15 +201,16 @@ public class GameController {
      * Indeed, the host and the client both receive a communication from the other at the end of each turn,
      * and depending on their role, the game will update accordingly.
      * @param body The client's instance, or the server's instance.
+     * @param message The communication sent by the other.
      */
-    private void handleMultiplayerExchange(MultiplayerBody body) {
-        MultiplayerCommunication message = body.pollCommunication();
+    private void handleMultiplayerExchange(MultiplayerBody body, MultiplayerCommunication message) {
         if (message.isCommand(MultiplayerCommand.HUNTER_PLAYED) || message.isCommand(MultiplayerCommand.MONSTER_PLAYED)) {
+            body.recordTurnLatency(message);
             // In both cases, the first parameter is the position of the other:
             // If the hunter is playing, then it receives the coordinates of the monster,
             // and vice-versa.
             ICoordinate coordinates = readCoordinatesFromMultiplayerCommunication(message);
-            boolean usedPowerup = Boolean.parseBoolean(message.getParameter(1));
+            boolean usedPowerup = message.isPowerupUsed();
             if (body.isHunter()) {
                 // the given coordinates are those of the monster
                 game.getMonster().setSuperJump(usedPowerup);
@@ -231,11 +230,16 @@ public class GameController {
             // When playing, the buttons get disabled,
             // so we know that the other's buttons are disabled.
             enableInteractions();
+            publishSnapshotToSpectators();
         } else if (message.isCommand(MultiplayerCommand.GAME_RESTARTED)) {
             // The other asked to restart the game,
             // the game parameters are the same,
             // so just init a new game:
             initGame();
+        } else if (message.isCommand(MultiplayerCommand.RESUME) || message.isCommand(MultiplayerCommand.SNAPSHOT)) {
+            // The other player reconnected, but what one of them missed
+            // isn't kept anymore: the state of the whole game is sent instead.
+            resumeGame(body, message);
         } else if (message.isCommand(MultiplayerCommand.GAME_ENDED)) {
             // The other player won the game,
             // so the role that won the game is the opposite of the current one.
@@ -264,69 +268,139 @@ public class GameController {
     }
 
     /**
-     * Cette méthode permet de créer un Thread qui attends automatiquement le nombre
-     * de millisecondes données en paramètre, puis éxecute le code de l'argument
-     * continuation.
+     * Brings the game of a player who lost the connection up to date,
+     * when the game communications he missed cannot be sent again (see `MultiplayerBody`).
+     * The host is the reference: it sends a snapshot of its game (see `GameSnapshot`),
+     * which replaces the game of the client.
+     * @param body The client's instance, or the server's instance.
+     * @param message `RESUME`, or `SNAPSHOT` (the state of the game, or, without parameters, a request for it).
+     */
+    private void resumeGame(MultiplayerBody body, MultiplayerCommunication message) {
+        boolean host = Server.getInstance().isAlive();
+        try {
+            if (message.isCommand(MultiplayerCommand.SNAPSHOT) && message.hasParameters()) {
+                if (!host) {
+                    restoreSnapshot(body, message.getParameter(1));
+                }
+            } else if (host) {
+                body.broadcast(createSnapshot(body));
+            } else {
+                // The client cannot send again what the host missed,
+                // so it asks for the game of the host.
+                body.broadcast(new MultiplayerCommunication(MultiplayerCommand.SNAPSHOT));
+            }
+        } catch (IOException e) {
+            Log.warn("Caught an IOException when trying to resume the game: ", e.getMessage());
+        }
+    }
+
+    /**
+     * Creates the communication holding the state of the game (see `GameSnapshot`).
+     * @param body The server's instance.
+     * @return The communication `SNAPSHOT`.
+     */
+    private MultiplayerCommunication createSnapshot(MultiplayerBody body) {
+        // The host is the one playing if its buttons are enabled
+        boolean hunterTurn = body.isHunter() == !gameView.isCanvasDisabled();
+        GameSnapshot snapshot = GameSnapshot.capture(game, hunterTurn);
+        return new MultiplayerCommunication(
+            MultiplayerCommand.SNAPSHOT,
+            body.getLastSentSequence() + ";" + snapshot.toBase64()
+        );
+    }
+
+    /**
+     * At the end of each turn, the host gives the state of the game to the spectators,
+     * so that the new ones, and the ones that fell behind, can follow the game (see `Server`).
+     */
+    private void publishSnapshotToSpectators() {
+        Server server = Server.getInstance();
+        if (server.isAlive()) {
+            server.publishSnapshot(createSnapshot(server));
+        }
+    }
+
+    /**
+     * Replaces the game with the snapshot sent by the host, and draws it again.
+     * @param body The client's instance.
+     * @param data The snapshot, encoded in base64.
+     */
+    private void restoreSnapshot(MultiplayerBody body, String data) {
+        boolean hunterTurn;
+        try {
+            hunterTurn = GameSnapshot.fromBase64(data).restore(game);
+        } catch (IllegalArgumentException e) {
+            Log.warn("The snapshot of the game could not be restored: ", e.getMessage());
+            return;
+        }
+        gameView.invalidate();
+        gameView.draw();
+        updateEntitiesLabel();
+        if (body.isHunter() == hunterTurn) {
+            enableInteractions();
+        } else {
+            disableInteractions();
+        }
+        if (game.isGameEnded()) {
+            showGameOver();
+        }
+    }
+
+    /**
+     * Cette méthode permet d'exécuter le code de l'argument continuation sur le thread
+     * de JavaFX après le nombre de millisecondes données en paramètre.
+     * L'attente se fait sur le thread partagé de `BackgroundTasks`, sans créer de Thread.
      * 
      * @param millis       Le nombre de millisecondes à attendre
      * @param continuation Le code à éxecuter à la fin du delay.
      */
     public static void delay(long millis, Runnable continuation) {
-        Task<Void> sleeper = new Task<>() {
-            @Override
-            protected Void call() throws Exception {
-                Thread.sleep(millis);
-                return null;
-            }
-        };
-        sleeper.setOnSucceeded(event -> continuation.run());
-        new Thread(sleeper).start();
+        BackgroundTasks.schedule(millis, () -> Platform.runLater(continuation));
     }
 
     private boolean isBotTurn() {
-        return game.isPlayerAgainstAI()
-                && (gameView.isHunterTurn() && !game.getParameters().isAiPlayerIsHunter()
-                        || !gameView.isHunterTurn() && game.getParameters().isAiPlayerIsHunter());
+        return game.isPlayerAgainstAI() && engine.isBotTurn();
     }
 
     public void playTurn() {
-        if (isBotTurn()) {
-            if (game.getParameters().isAiPlayerIsHunter()) {
-                monsterStrategy.update(new CellEvent(game.getMonster().getPosition(), CellInfo.MONSTER, game.getTurn()));
-                gameView.setMovePosition(monsterStrategy.play()); // on fait jouer le monstre
-            } else {
-                while (game.getHunter().getShootsLeft() > 0) {
-                    gameView.setCursorPosition(hunterStrategy.play()); // on fait jouer le chasseur
-                    gameView.play();
+        MultiplayerBody body = game.isMultiplayer() ? MultiplayerUtils.getMultiplayerInstance() : null;
+        if (body != null) {
+            // The move and, if it's over, the end of the game are sent in a single write
+            body.beginBatch();
+        }
+        try {
+            if (isBotTurn()) {
+                engine.playBotTurn(); // on fait jouer le bot
+            } else if (!game.isSplitScreen()) {
+                // `GameMode.TWO_PLAYERS` is the only game mode that doesn't end the turn as soon as the player decided his move.
+                // Therefore, in this game mode, `play` was already called, and the player used the "end turn" button to call this function.
+                // Use `play()` only when it's NOT split screen mode.
+                // For some reason, "movePosition" is used only with the monster,
+                // however "cursorPosition" must be used for the hunter's shot.
+                // We need to save it first because it gets reset within `gameView.play()`
+                ICoordinate targetPosition = ((Coordinate)(gameView.isHunterTurn() ? gameView.getCursorPosition() : gameView.getMovePosition())).clone();
+                gameView.play();
+                if (game.isMultiplayer()) {
+                    broadcastEndOfTurn(targetPosition);
                 }
             }
-        }
 
-        // `GameMode.TWO_PLAYERS` is the only game mode that doesn't end the turn as soon as the player decided his move.
-        // Therefore, in this game mode, `play` was already called, and the player used the "end turn" button to call this function.
-        // Use `play()` only when it's NOT split screen mode.
-        if (!game.isSplitScreen()) {
-            // For some reason, "movePosition" is used only with the monster,
-            // however "cursorPosition" must be used for the hunter's shot.
-            // We need to save it first because it gets reset within `gameView.play()`
-            ICoordinate targetPosition = ((Coordinate)(gameView.isHunterTurn() ? gameView.getCursorPosition() : gameView.getMovePosition())).clone();
-            gameView.play();
-            if (game.isMultiplayer()) {
-                broadcastEndOfTurn(targetPosition);
+            // In a multiplayer game, the moves of the other player don't go through the engine
+            if (!game.isGameEnded() && game.monsterWon()) {
+                game.setGameEnded(true);
+            }
+        } finally {
+            if (body != null) {
+                try {
+                    body.endBatch();
+                } catch (IOException e) {
+                    Log.warn("Caught an IOException when trying to send the end of the turn: ", e.getMessage());
+                }
             }
-        }
-
-        if (game.monsterWon()) {
-            game.setGameEnded(true);
         }
 
         if (game.isGameEnded()) {
-            if (game.monsterWon()) {
-                winnerLabel.setText("Le monstre a gagné!");
-            } else {
-                winnerLabel.setText("Le chasseur a gagné!");
-            }
-            gameOverScreen.setVisible(true);
+            showGameOver();
         }
 
         if (game.isSplitScreen()) {
@@ -346,9 +420,22 @@ public class GameController {
 
         if (game.isMultiplayer()) {
             disableInteractions();
+            publishSnapshotToSpectators();
         }
     }
 
+    /**
+     * Shows the winner of the game.
+     */
+    private void showGameOver() {
+        if (game.monsterWon()) {
+            winnerLabel.setText("Le monstre a gagné!");
+        } else {
+            winnerLabel.setText("Le chasseur a gagné!");
+        }
+        gameOverScreen.setVisible(true);
+    }
+
     /**
      * In the case of a multiplayer game, at the end of each turn, 
      * the player must inform the other about the completion of his turn,
@@ -357,39 +444,35 @@ public class GameController {
      */
     private void broadcastEndOfTurn(ICoordinate targetPosition) {
         try {
-            String targetCoordinates = targetPosition.getCol() + "-" + targetPosition.getRow();
             MultiplayerBody body = MultiplayerUtils.getMultiplayerInstance();
-            if (Server.getInstance().isAlive() && !Server.getInstance().hasClient()) {
-                // If the server is alive,
-                // but there is no client,
-                // then end the game immediately.
-                // It happens if the client quits the java program unexpectedly.
-                try {
-                    leaveGame();
-                    Server.getInstance().kill();
-                    return;
-                } catch (IOException ignore) { }
+            if (Server.getInstance().isClientLost()) {
+                // The client lost the connection (or quit the java program unexpectedly).
+                // The move is kept, and sent when the client reconnects.
+                errorLabel.setText("L'adversaire s'est déconnecté, en attente de sa reconnexion...");
             }
             if (body.isHunter()) {
-                System.out.println("The body is the hunter, sending HUNTER_PLAYED");
+                Log.debug("The body is the hunter, sending HUNTER_PLAYED");
                 body.broadcast(
                     new MultiplayerCommunication(
                         MultiplayerCommand.HUNTER_PLAYED,
-                        targetCoordinates + ";" + game.getHunter().isGrenadeMode()
+                        targetPosition.getCol(),
+                        targetPosition.getRow(),
+                        game.getHunter().isGrenadeMode()
                     )
                 );
             } else {
-                System.out.println("The body is the hunter, sending MONSTER_PLAYED");
+                Log.debug("The body is the monster, sending MONSTER_PLAYED");
                 body.broadcast(
                     new MultiplayerCommunication(
                         MultiplayerCommand.MONSTER_PLAYED,
-                        targetCoordinates + ";" + game.getMonster().isUsingSuperJump()
+                        targetPosition.getCol(),
+                        targetPosition.getRow(),
+                        game.getMonster().isUsingSuperJump()
                     )
                 );
             }
         } catch (IOException e) {
-            System.err.println("Caught an IOException when trying to send HUNTER_PLAYED or MONSTER_PLAYED:");
-            e.printStackTrace();
+            Log.error("Caught an IOException when trying to send HUNTER_PLAYED or MONSTER_PLAYED: ", e.getMessage());
         }
     }
 
@@ -432,16 +515,14 @@ public class GameController {
      * The fog is reset within the monster view.
      */
     private void swapTurn() {
-        // `hunterTurn` property should not be changed in a multiplayer game
-        if (!game.isMultiplayer()) {
-            gameView.setHunterTurn(!gameView.isHunterTurn());
+        // the role of the player never changes in a multiplayer game
+        if (game.isMultiplayer()) {
+            engine.beginTurn(gameView.isHunterTurn());
+        } else {
+            engine.endTurn();
         }
 
-        if (gameView.isHunterTurn()) {
-            game.getHunter().turnBegin();
-            game.getHunter().setGrenadeMode(false);
-        } else {
-            game.getMonster().setSuperJump(false);
+        if (!gameView.isHunterTurn()) {
             gameView.getMonsterView().turnStarted();
         }
     }
@@ -12,6 +12,7 @@ import fr.univlille.multiplayer.MultiplayerCommand;
 import fr.univlille.multiplayer.MultiplayerCommunication;
 import fr.univlille.multiplayer.MultiplayerUtils;
 import fr.univlille.multiplayer.Server;
+import fr.univlille.utils.Log;
 import javafx.application.Platform;
 import javafx.scene.layout.AnchorPane;
 import javafx.scene.control.Button;
@@ -43,7 +44,7 @@ public class LobbyController extends AnchorPane {
         try {
             MultiplayerUtils.getMultiplayerInstance().kill();
         } catch (IOException e) {
-            System.err.println("Cannot kill the instance of multiplayer body : " + e.getMessage());
+            Log.warn("Cannot kill the instance of multiplayer body : ", e.getMessage());
         }
     }
 
@@ -88,7 +89,7 @@ public class LobbyController extends AnchorPane {
                 )
             );
         } catch (IOException e) {
-            System.err.println("Broadcast of inverted roles failed : " + e.getMessage());
+            Log.warn("Broadcast of inverted roles failed : ", e.getMessage());
         }
     }
 
@@ -142,8 +143,7 @@ public class LobbyController extends AnchorPane {
 
         // Will handle all messages from the server (in the lobby only)
         client.setIncomingCommunicationCallback(() ->
-            Platform.runLater(() -> {
-                MultiplayerCommunication message = Client.getInstance().pollCommunication();
+            Platform.runLater(() -> client.drainCommunications(message -> {
                 switch (message.getCommand()) {
                     case HOST:
                         hostname_label.setText(message.getParameter(0));
@@ -161,10 +161,9 @@ public class LobbyController extends AnchorPane {
                             App.getApp().overwriteGameParameters(GameParameters.readParameters(message.getParameter(0)));
                             App.getApp().changeScene("game");
                         } catch (InvalidGameDataException e) {
-                            System.err.println("The given game parameters are invalid: " + message);
+                            Log.error("The given game parameters are invalid: ", message);
                         } catch (IOException e) {
-                            System.err.println("The client was unable to load the game page.");
-                            e.printStackTrace();
+                            Log.error("The client was unable to load the game page: ", e.getMessage());
                         }
                         break;
                     case SERVER_TERMINATION:
@@ -172,14 +171,14 @@ public class LobbyController extends AnchorPane {
                             Client.getInstance().kill();
                             App.getApp().changeScene("menu");
                         } catch (Exception e) {
-                            System.out.println("Server termination led to error : " + e.getMessage());
+                            Log.warn("Server termination led to error : ", e.getMessage());
                         }
                         break;
                     default:
-                        System.out.println("incoming communication from server was ignored by client : " + message);
+                        Log.debug("incoming communication from server was ignored by client : ", message);
                         // ignored
                 }
-            })
+            }))
         );
     }
 
@@ -194,9 +193,8 @@ public class LobbyController extends AnchorPane {
             // as it would cause synchronization issues,
             // we tell it to run it "later"
             // (so as soon as it can).
-            Platform.runLater(() -> {
-                MultiplayerCommunication announce = server.pollCommunication();
-                System.out.println("Server handling communication : " + announce);
+            Platform.runLater(() -> server.drainCommunications(announce -> {
+                Log.debug("Server handling communication : ", announce);
                 switch (announce.getCommand()) {
                     case JOIN:
                         server.setClientHostname(announce.getParameter(0));
@@ -209,10 +207,10 @@ public class LobbyController extends AnchorPane {
                         removeClientHostname();
                         break;
                     default:
-                        System.out.println("incoming communication from server was ignored by server : " + announce);
+                        Log.debug("incoming communication from server was ignored by server : ", announce);
                         // ignored
                 }
-            })
+            }))
         );
     }
 
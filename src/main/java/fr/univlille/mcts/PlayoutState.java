@@ -0,0 +1,150 @@
+package fr.univlille.mcts;
+
+import java.util.Arrays;
+
+import fr.univlille.search.Zobrist;
+
+/**
+ * The state of a game as seen by a playout: only a few integers and two small arrays,
+ * so that it can be copied at the beginning of each playout without allocating anything (see `copyFrom()`).
+ *
+ * The cells are row-major indexes (`y * width + x`), as in `DistanceField` and `GameModel.cellIndex()`.
+ * The monster moves exactly once per turn, so its trail is a ring indexed by the turn:
+ * the cell where it was at the turn `t` is `trailCells[t % TRAIL_LENGTH]`, as long as `trailTurns` holds `t` there.
+ * Only the last `TRAIL_LENGTH` turns are kept: a shot on an older cell of the trail tells the hunter almost nothing.
+ */
+public final class PlayoutState {
+    /**
+     * The number of turns of the trail of the monster that are kept. It's a power of two.
+     */
+    public static final int TRAIL_LENGTH = 32;
+
+    private static final int TRAIL_MASK = TRAIL_LENGTH - 1;
+
+    int monster;
+    int turn;
+    int superJumpsLeft;
+
+    /**
+     * The most recent cell where the hunter knows the monster was, and the turn it was there,
+     * or `-1` if the hunter never found the monster.
+     */
+    int seenCell = -1;
+    int seenTurn = -1;
+
+    final int[] trailCells = new int[TRAIL_LENGTH];
+    final int[] trailTurns = new int[TRAIL_LENGTH];
+
+    public PlayoutState() {
+        clearTrail();
+    }
+
+    /**
+     * Sets the current position of the monster.
+     * @param cell           The row-major index of the cell of the monster.
+     * @param turn           The current turn, at which the monster arrived on this cell.
+     * @param superJumpsLeft The number of super jumps the monster can still use.
+     */
+    public void reset(int cell, int turn, int superJumpsLeft) {
+        this.monster = cell;
+        this.turn = turn;
+        this.superJumpsLeft = superJumpsLeft;
+        this.seenCell = -1;
+        this.seenTurn = -1;
+        clearTrail();
+        visit(cell, turn);
+    }
+
+    private void clearTrail() {
+        Arrays.fill(trailTurns, -1);
+    }
+
+    /**
+     * Records that the monster was on a cell at some turn. The turns older than `TRAIL_LENGTH` are ignored.
+     */
+    public void visit(int cell, int turn) {
+        if (turn > this.turn - TRAIL_LENGTH && turn <= this.turn) {
+            trailCells[turn & TRAIL_MASK] = cell;
+            trailTurns[turn & TRAIL_MASK] = turn;
+        }
+    }
+
+    /**
+     * Records that the hunter found the monster on a cell, if it's more recent than what it knew.
+     */
+    public void reveal(int cell, int turn) {
+        if (turn > seenTurn) {
+            seenCell = cell;
+            seenTurn = turn;
+        }
+    }
+
+    /**
+     * Moves the monster to a cell, which begins a new turn.
+     */
+    void moveMonster(int cell) {
+        monster = cell;
+        turn++;
+        trailCells[turn & TRAIL_MASK] = cell;
+        trailTurns[turn & TRAIL_MASK] = turn;
+    }
+
+    /**
+     * Gets the last turn at which the monster was on a cell, as a shot on this cell would tell the hunter.
+     * @return The turn, or `-1` if the monster wasn't there during the kept turns.
+     */
+    int lastVisit(int cell) {
+        for (int t = turn; t > turn - TRAIL_LENGTH && t >= 0; t--) {
+            int i = t & TRAIL_MASK;
+            if (trailTurns[i] == t && trailCells[i] == cell) {
+                return t;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Copies another state into this one.
+     */
+    public void copyFrom(PlayoutState other) {
+        monster = other.monster;
+        turn = other.turn;
+        superJumpsLeft = other.superJumpsLeft;
+        seenCell = other.seenCell;
+        seenTurn = other.seenTurn;
+        System.arraycopy(other.trailCells, 0, trailCells, 0, TRAIL_LENGTH);
+        System.arraycopy(other.trailTurns, 0, trailTurns, 0, TRAIL_LENGTH);
+    }
+
+    /**
+     * Computes the Zobrist hash of the state (see `Zobrist`).
+     * Only what a search depends on is hashed, relative to the current turn:
+     * the monster, its super jumps, its trail, and the last sighting of the hunter with its age.
+     * So the same position reached at another turn, or in another game on the same maze, has the same hash.
+     */
+    public long hash() {
+        long hash = Zobrist.key(Zobrist.MONSTER, monster) ^ Zobrist.key(Zobrist.SUPER_JUMPS, superJumpsLeft);
+        if (seenTurn >= 0) {
+            hash ^= Zobrist.key(Zobrist.SIGHTING, seenCell) ^ Zobrist.key(Zobrist.SIGHTING_AGE, turn - seenTurn);
+        }
+        for (int age = 1; age < TRAIL_LENGTH && age <= turn; age++) {
+            int i = (turn - age) & TRAIL_MASK;
+            if (trailTurns[i] == turn - age) {
+                hash ^= Zobrist.key(Zobrist.TRAIL + age, trailCells[i]);
+            }
+        }
+        return hash;
+    }
+
+    public int getMonster() {
+        return monster;
+    }
+
+    public int getTurn() {
+        return turn;
+    }
+
+    public int getSuperJumpsLeft() {
+        return superJumpsLeft;
+    }
+}
@@ -0,0 +1,211 @@
+package fr.univlille.mcts;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import fr.univlille.pathfinding.Pathfinder;
+
+/**
+ * A Monte Carlo tree search of the next move of the monster (UCT).
+ *
+ * Each iteration copies the root state, goes down the tree by choosing the action with the best upper confidence bound,
+ * adds a node, and plays the rest of the game at random (see `SimulatedGame.playoutAction()`).
+ * The shots of the hunter are random, so a node stands for a sequence of moves of the monster, whatever the hunter did
+ * ("open loop"): the moves are replayed from the root at each iteration, instead of storing a state per node.
+ *
+ * The nodes are stored in flat arrays allocated once, and an iteration doesn't allocate anything,
+ * so a tree can be reused for each move. A tree isn't thread-safe: a parallel search uses one tree per thread,
+ * whose statistics at the root are added up (see `MctsMonsterStrategy`).
+ */
+public final class SearchTree {
+    /**
+     * The weight of the exploration in the upper confidence bound (the `C` of UCT).
+     */
+    private static final double EXPLORATION = 0.7;
+
+    /**
+     * The reward of a win of the monster is multiplied by it for each turn of the playout,
+     * so that a quicker win is better: each turn is one more chance for the real hunter.
+     * A loss, or a playout that reaches the horizon, is `0`.
+     */
+    private static final float DISCOUNT = 0.98f;
+
+    /**
+     * The number of turns, in addition to twice the distance to the exit, after which a playout is stopped.
+     */
+    private static final int HORIZON_MARGIN = 16;
+
+    private static final int MAX_DEPTH = 128;
+
+    /**
+     * The clock is read every `CLOCK_MASK + 1` iterations.
+     */
+    private static final int CLOCK_MASK = 63;
+
+    private final Random random = new Random();
+    private final int capacity;
+
+    /**
+     * The child of each node for each action (`node * SimulatedGame.ACTIONS + action`), or `-1`.
+     */
+    private final int[] children;
+    private final int[] visits;
+    private final float[] rewards;
+    private int nodeCount;
+
+    private final int[] path = new int[MAX_DEPTH];
+    private final PlayoutState state = new PlayoutState();
+    private SimulatedGame game;
+    private int horizon;
+
+    /**
+     * @param capacity The maximum number of nodes. When it's reached, the iterations go on without adding nodes.
+     */
+    public SearchTree(int capacity) {
+        this.capacity = capacity;
+        this.children = new int[capacity * SimulatedGame.ACTIONS];
+        this.visits = new int[capacity];
+        this.rewards = new float[capacity];
+    }
+
+    /**
+     * Searches the next move of the monster, until the deadline or the number of iterations is reached.
+     * The previous search is forgotten.
+     * @param game       The rules of the game.
+     * @param root       The current state. It isn't modified.
+     * @param deadline   The value of `System.nanoTime()` at which the search stops, or `0` to only count the iterations.
+     * @param iterations The maximum number of iterations.
+     * @param seed       The seed of the generator of the playouts: with the same seed and the same number of iterations,
+     *                   the search always gives the same result.
+     */
+    public void search(SimulatedGame game, PlayoutState root, long deadline, int iterations, long seed) {
+        this.game = game;
+        random.setSeed(seed);
+        nodeCount = 0;
+        newNode();
+        int distance = game.getExitDistance(root.monster);
+        if (distance == Pathfinder.UNREACHABLE) {
+            distance = game.getWidth() + game.getHeight();
+        }
+        horizon = root.turn + 2 * distance + HORIZON_MARGIN;
+        for (int i = 0; i < iterations; i++) {
+            if ((i & CLOCK_MASK) == 0 && deadline != 0 && System.nanoTime() - deadline >= 0) {
+                break;
+            }
+            iterate(root);
+        }
+    }
+
+    private int newNode() {
+        int node = nodeCount++;
+        Arrays.fill(children, node * SimulatedGame.ACTIONS, (node + 1) * SimulatedGame.ACTIONS, -1);
+        visits[node] = 0;
+        rewards[node] = 0;
+        return node;
+    }
+
+    private void iterate(PlayoutState root) {
+        state.copyFrom(root);
+        int node = 0;
+        int depth = 0;
+        path[depth++] = node;
+        int result = SimulatedGame.ONGOING;
+        boolean expanded = false;
+        while (!expanded && depth < MAX_DEPTH && state.turn < horizon) {
+            int legal = game.legalActions(state);
+            if (legal == 0) {
+                break;
+            }
+            int action = select(node, legal);
+            int child = children[node * SimulatedGame.ACTIONS + action];
+            if (child < 0) {
+                if (nodeCount == capacity) {
+                    break;
+                }
+                child = newNode();
+                children[node * SimulatedGame.ACTIONS + action] = child;
+                expanded = true;
+            }
+            path[depth++] = child;
+            node = child;
+            result = playTurn(action);
+            if (result != SimulatedGame.ONGOING) {
+                break;
+            }
+        }
+        if (result == SimulatedGame.ONGOING) {
+            result = playout();
+        }
+        float reward = result == SimulatedGame.MONSTER_WON ? (float) Math.pow(DISCOUNT, state.turn - root.turn) : 0;
+        for (int i = 0; i < depth; i++) {
+            visits[path[i]]++;
+            rewards[path[i]] += reward;
+        }
+    }
+
+    /**
+     * Chooses an action that was never tried, or else the one with the best upper confidence bound.
+     * The actions are looked at from a random one, so that the ties aren't always broken the same way.
+     */
+    private int select(int node, int legal) {
+        int base = node * SimulatedGame.ACTIONS;
+        double logVisits = Math.log(visits[node]);
+        int start = random.nextInt(SimulatedGame.ACTIONS);
+        int best = -1;
+        double bestScore = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < SimulatedGame.ACTIONS; i++) {
+            int action = (start + i) & (SimulatedGame.ACTIONS - 1);
+            if ((legal & (1 << action)) == 0) {
+                continue;
+            }
+            int child = children[base + action];
+            if (child < 0) {
+                return action;
+            }
+            double score = rewards[child] / visits[child] + EXPLORATION * Math.sqrt(logVisits / visits[child]);
+            if (score > bestScore) {
+                bestScore = score;
+                best = action;
+            }
+        }
+        return best;
+    }
+
+    private int playTurn(int action) {
+        int result = game.playMonster(state, action);
+        return result != SimulatedGame.ONGOING ? result : game.playHunter(state, random);
+    }
+
+    private int playout() {
+        while (state.turn < horizon) {
+            int result = playTurn(game.playoutAction(state, random));
+            if (result != SimulatedGame.ONGOING) {
+                return result;
+            }
+        }
+        return SimulatedGame.ONGOING;
+    }
+
+    /**
+     * Gets the number of iterations of the last search.
+     */
+    public int getIterations() {
+        return visits[0];
+    }
+
+    /**
+     * Gets the number of iterations of the last search that began with an action.
+     */
+    public int getVisits(int action) {
+        int child = children[action];
+        return child < 0 ? 0 : visits[child];
+    }
+
+    /**
+     * Gets the sum of the rewards of the iterations of the last search that began with an action.
+     */
+    public double getReward(int action) {
+        int child = children[action];
+        return child < 0 ? 0 : rewards[child];
+    }
+}
@@ -0,0 +1,214 @@
+package fr.univlille.mcts;
+
+import java.util.Random;
+
+import fr.univlille.MazeGrid;
+import fr.univlille.pathfinding.DistanceField;
+import fr.univlille.pathfinding.Pathfinder;
+import fr.univlille.search.Zobrist;
+
+/**
+ * The rules of the game used by the playouts of `SearchTree`, on a `PlayoutState`.
+ * It doesn't change during a game, so it's shared by all the trees of a search.
+ *
+ * The monster has up to 8 actions: a step in one of the 4 directions (`0` to `3`),
+ * or a super jump of two cells in one of the 4 directions (`4` to `7`), which can go over a wall.
+ * The hunter isn't known, so it's simulated: most of its shots are aimed around the last cell
+ * where it saw the monster, within the distance the monster could have walked since then,
+ * and the others are shot anywhere in the maze. Its grenades are ignored.
+ */
+public final class SimulatedGame {
+    /**
+     * The number of actions of the monster.
+     */
+    public static final int ACTIONS = 8;
+
+    public static final int ONGOING = 0;
+    public static final int MONSTER_WON = 1;
+    public static final int HUNTER_WON = 2;
+
+    /**
+     * The chance that a simulated shot is aimed around the last position of the monster known by the hunter.
+     */
+    private static final float AIMED_SHOTS = 0.75f;
+
+    /**
+     * The chance that the monster of a playout takes the shortest path to the exit, instead of a random step.
+     */
+    private static final float GREEDY_PLAYOUT_MOVES = 0.95f;
+
+    private static final int[] DX = {0, 1, 0, -1};
+    private static final int[] DY = {-1, 0, 1, 0};
+
+    private final int width;
+    private final int height;
+    private final boolean[] open;
+    private final int[] exitDistances;
+    private final int exit;
+    private final int shotsPerTurn;
+    private final long hash;
+
+    /**
+     * @param maze         The maze.
+     * @param distances    The distances to the exit (see `GameModel.getExitDistances()`).
+     * @param shotsPerTurn The number of shots of the hunter at each turn.
+     */
+    public SimulatedGame(MazeGrid maze, DistanceField distances, int shotsPerTurn) {
+        this.width = maze.getWidth();
+        this.height = maze.getHeight();
+        this.open = new boolean[width * height];
+        this.exitDistances = new int[width * height];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                open[y * width + x] = maze.isOpen(x, y);
+                exitDistances[y * width + x] = distances.getDistance(x, y);
+            }
+        }
+        this.exit = distances.getTargetY() * width + distances.getTargetX();
+        this.shotsPerTurn = shotsPerTurn;
+        long hash = Zobrist.key(Zobrist.MAZE_SIZE, (long) width << 32 | height)
+            ^ Zobrist.key(Zobrist.EXIT, exit) ^ Zobrist.key(Zobrist.HUNTER_SHOTS, shotsPerTurn);
+        for (int cell = 0; cell < open.length; cell++) {
+            if (!open[cell]) {
+                hash ^= Zobrist.key(Zobrist.WALL, cell);
+            }
+        }
+        this.hash = hash;
+    }
+
+    /**
+     * Gets the Zobrist hash of the rules: the walls, the size of the maze, the exit and the shots of the hunter.
+     * Two games on the same maze have the same hash, whatever their seed.
+     */
+    public long getHash() {
+        return hash;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Gets the number of moves from a cell to the exit.
+     * @return The distance, or `Pathfinder.UNREACHABLE`.
+     */
+    public int getExitDistance(int cell) {
+        return exitDistances[cell];
+    }
+
+    /**
+     * Gets the cell where an action of the monster leads.
+     * @return The row-major index of the cell, or `-1` if it's outside of the maze or a wall.
+     */
+    public int target(int cell, int action) {
+        int length = action < 4 ? 1 : 2;
+        int x = cell % width + DX[action & 3] * length;
+        int y = cell / width + DY[action & 3] * length;
+        if (x < 0 || y < 0 || x >= width || y >= height || !open[y * width + x]) {
+            return -1;
+        }
+        return y * width + x;
+    }
+
+    /**
+     * Gets the actions the monster can do.
+     * @return A bit set: the bit `1 << action` is set if the action is allowed.
+     */
+    public int legalActions(PlayoutState state) {
+        int actions = 0;
+        int count = state.superJumpsLeft > 0 ? ACTIONS : 4;
+        for (int action = 0; action < count; action++) {
+            if (target(state.monster, action) >= 0) {
+                actions |= 1 << action;
+            }
+        }
+        return actions;
+    }
+
+    /**
+     * Plays an action of the monster, which must be allowed (see `legalActions()`).
+     * The action `-1` stays in place, when the monster cannot move.
+     * @return `MONSTER_WON` if the monster reached the exit, `ONGOING` otherwise.
+     */
+    public int playMonster(PlayoutState state, int action) {
+        if (action >= 4) {
+            state.superJumpsLeft--;
+        }
+        state.moveMonster(action < 0 ? state.monster : target(state.monster, action));
+        return state.monster == exit ? MONSTER_WON : ONGOING;
+    }
+
+    /**
+     * Plays the shots of a simulated hunter.
+     * A shot on a cell of the trail of the monster tells the hunter when it was there.
+     * @return `HUNTER_WON` if the monster was shot, `ONGOING` otherwise.
+     */
+    public int playHunter(PlayoutState state, Random random) {
+        for (int shot = 0; shot < shotsPerTurn; shot++) {
+            int cell = aim(state, random);
+            if (cell == state.monster) {
+                return HUNTER_WON;
+            }
+            int visit = state.lastVisit(cell);
+            if (visit >= 0) {
+                state.reveal(cell, visit);
+            }
+        }
+        return ONGOING;
+    }
+
+    /**
+     * Chooses the cell shot by the simulated hunter.
+     * The aimed shots are drawn in the diamond of the cells within the distance
+     * the monster could have walked since it was seen.
+     */
+    private int aim(PlayoutState state, Random random) {
+        if (state.seenTurn < 0 || random.nextFloat() >= AIMED_SHOTS) {
+            return random.nextInt(width * height);
+        }
+        int radius = Math.min(state.turn - state.seenTurn, width + height);
+        int dx = random.nextInt(2 * radius + 1) - radius;
+        int spread = radius - Math.abs(dx);
+        int dy = random.nextInt(2 * spread + 1) - spread;
+        int x = Math.max(0, Math.min(width - 1, state.seenCell % width + dx));
+        int y = Math.max(0, Math.min(height - 1, state.seenCell / width + dy));
+        return y * width + x;
+    }
+
+    /**
+     * Chooses the action of the monster during a playout, after the tree:
+     * a super jump when it's a shortcut, the shortest path to the exit most of the time, and a random step otherwise.
+     * @return The action, or `-1` if the monster cannot move.
+     */
+    public int playoutAction(PlayoutState state, Random random) {
+        int distance = exitDistances[state.monster];
+        if (state.superJumpsLeft > 0 && distance != Pathfinder.UNREACHABLE) {
+            for (int action = 4; action < ACTIONS; action++) {
+                int cell = target(state.monster, action);
+                // a jump along the path only saves a turn, so it's kept for the shortcuts over a wall
+                if (cell >= 0 && exitDistances[cell] != Pathfinder.UNREACHABLE && exitDistances[cell] < distance - 2) {
+                    return action;
+                }
+            }
+        }
+        boolean greedy = distance != Pathfinder.UNREACHABLE && random.nextFloat() < GREEDY_PLAYOUT_MOVES;
+        int start = random.nextInt(4);
+        int fallback = -1;
+        for (int i = 0; i < 4; i++) {
+            int action = (start + i) & 3;
+            int cell = target(state.monster, action);
+            if (cell < 0) {
+                continue;
+            }
+            if (!greedy || exitDistances[cell] == distance - 1) {
+                return action;
+            }
+            fallback = action;
+        }
+        return fallback;
+    }
+}
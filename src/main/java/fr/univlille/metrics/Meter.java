@@ -0,0 +1,85 @@
+package fr.univlille.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts events (messages, bytes...) and measures how many happen per second.
+ *
+ * The events are also counted per second, in a ring of `WINDOW_SECONDS` buckets,
+ * so the recent rate (`getRate()`) follows the changes of the traffic, unlike the mean rate.
+ * It can be used from any thread, without any lock.
+ */
+public class Meter {
+    private static final int WINDOW_SECONDS = 10;
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private final long start = System.nanoTime();
+    private final LongAdder count = new LongAdder();
+    private final AtomicLongArray buckets = new AtomicLongArray(WINDOW_SECONDS);
+
+    /**
+     * The second (since `start`) counted by each bucket.
+     */
+    private final AtomicLongArray bucketSeconds = new AtomicLongArray(WINDOW_SECONDS);
+
+    public void mark() {
+        mark(1);
+    }
+
+    /**
+     * Counts events.
+     * @param events The number of events (for example, the number of bytes sent).
+     */
+    public void mark(long events) {
+        count.add(events);
+        long second = currentSecond();
+        int index = (int) (second % WINDOW_SECONDS);
+        long counted = bucketSeconds.get(index);
+        if (counted != second && bucketSeconds.compareAndSet(index, counted, second)) {
+            // the bucket was counting an older second
+            buckets.set(index, 0);
+        }
+        buckets.addAndGet(index, events);
+    }
+
+    private long currentSecond() {
+        return (System.nanoTime() - start) / NANOS_PER_SECOND;
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Gets the number of events per second since the creation of the meter.
+     */
+    public double getMeanRate() {
+        double seconds = (double) (System.nanoTime() - start) / NANOS_PER_SECOND;
+        return seconds <= 0 ? 0 : count.sum() / seconds;
+    }
+
+    /**
+     * Gets the number of events per second during the last complete seconds (up to `WINDOW_SECONDS - 1`).
+     */
+    public double getRate() {
+        long now = currentSecond();
+        long seconds = Math.min(WINDOW_SECONDS - 1, now);
+        if (seconds == 0) {
+            return getMeanRate();
+        }
+        long events = 0;
+        for (int i = 0; i < WINDOW_SECONDS; i++) {
+            long second = bucketSeconds.get(i);
+            if (second < now && second >= now - seconds) {
+                events += buckets.get(i);
+            }
+        }
+        return (double) events / seconds;
+    }
+
+    @Override
+    public String toString() {
+        return "count=" + getCount() + String.format(" rate=%.1f/s mean=%.1f/s", getRate(), getMeanRate());
+    }
+}
@@ -0,0 +1,190 @@
+package fr.univlille.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.JMException;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanOperationInfo;
+import javax.management.MBeanParameterInfo;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import fr.univlille.utils.Log;
+
+/**
+ * The metrics of the application, by name ("multiplayer.rtt", "multiplayer.bytes.sent"...):
+ * histograms (see `Histogram`), meters (see `Meter`) and gauges (a value read when it's needed).
+ *
+ * The metrics are created the first time they are asked for, and the same instance is returned afterwards,
+ * so the classes keep the metrics they update in static fields instead of looking them up each time.
+ *
+ * They can be read with `report()`, or from a JMX console (jconsole, VisualVM...)
+ * under the name `fr.univlille:type=Metrics`, if the application was started with `-Dcam.jmx=true`
+ * or if `enableJmx()` was called.
+ */
+public final class MetricsRegistry implements DynamicMBean {
+    private static final MetricsRegistry INSTANCE = new MetricsRegistry();
+
+    /**
+     * The name of the registry in JMX.
+     */
+    public static final String JMX_NAME = "fr.univlille:type=Metrics";
+
+    private final Map<String, Histogram> histograms = new ConcurrentHashMap<>();
+    private final Map<String, Meter> meters = new ConcurrentHashMap<>();
+    private final Map<String, LongSupplier> gauges = new ConcurrentHashMap<>();
+    private boolean jmxEnabled = false;
+
+    static {
+        if (Boolean.getBoolean("cam.jmx")) {
+            INSTANCE.enableJmx();
+        }
+    }
+
+    private MetricsRegistry() {}
+
+    /**
+     * This class is a singleton.
+     * @return The registry of the application.
+     */
+    public static MetricsRegistry getInstance() {
+        return INSTANCE;
+    }
+
+    public Histogram histogram(String name) {
+        return histograms.computeIfAbsent(name, key -> new Histogram());
+    }
+
+    public Meter meter(String name) {
+        return meters.computeIfAbsent(name, key -> new Meter());
+    }
+
+    /**
+     * Registers a value that's read only when the metrics are read.
+     * @param name  The name of the gauge. A gauge with the same name is replaced.
+     * @param value Gives the current value.
+     */
+    public void gauge(String name, LongSupplier value) {
+        gauges.put(name, value);
+    }
+
+    /**
+     * Exposes the metrics through JMX, under the name `JMX_NAME`. It's done only once.
+     */
+    public synchronized void enableJmx() {
+        if (jmxEnabled) {
+            return;
+        }
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            server.registerMBean(this, new ObjectName(JMX_NAME));
+            jmxEnabled = true;
+        } catch (JMException | SecurityException e) {
+            Log.warn("The metrics could not be exposed through JMX: ", e.getMessage());
+        }
+    }
+
+    /**
+     * Reads all the metrics as flat values, by name:
+     * "name.count", "name.mean", "name.p50", "name.p90", "name.p99" and "name.max" for a histogram,
+     * "name.count", "name.rate" (per second) and "name.meanRate" for a meter,
+     * and the name itself for a gauge.
+     * @return The values, sorted by name.
+     */
+    public Map<String, Number> snapshot() {
+        Map<String, Number> values = new TreeMap<>();
+        histograms.forEach((name, histogram) -> {
+            values.put(name + ".count", histogram.getCount());
+            values.put(name + ".mean", histogram.getMean());
+            values.put(name + ".p50", histogram.getPercentile(50));
+            values.put(name + ".p90", histogram.getPercentile(90));
+            values.put(name + ".p99", histogram.getPercentile(99));
+            values.put(name + ".max", histogram.getMax());
+        });
+        meters.forEach((name, meter) -> {
+            values.put(name + ".count", meter.getCount());
+            values.put(name + ".rate", meter.getRate());
+            values.put(name + ".meanRate", meter.getMeanRate());
+        });
+        gauges.forEach((name, gauge) -> values.put(name, gauge.getAsLong()));
+        return values;
+    }
+
+    /**
+     * Describes all the metrics, one per line.
+     */
+    public String report() {
+        StringBuilder report = new StringBuilder();
+        new TreeMap<>(histograms).forEach((name, histogram) -> report.append(name).append(' ').append(histogram).append('\n'));
+        new TreeMap<>(meters).forEach((name, meter) -> report.append(name).append(' ').append(meter).append('\n'));
+        new TreeMap<>(gauges).forEach((name, gauge) -> report.append(name).append(' ').append(gauge.getAsLong()).append('\n'));
+        return report.toString();
+    }
+
+    @Override
+    public Object getAttribute(String attribute) throws AttributeNotFoundException {
+        Number value = snapshot().get(attribute);
+        if (value == null) {
+            throw new AttributeNotFoundException(attribute);
+        }
+        return value;
+    }
+
+    @Override
+    public AttributeList getAttributes(String[] attributes) {
+        Map<String, Number> values = snapshot();
+        AttributeList list = new AttributeList();
+        for (String attribute : attributes) {
+            Number value = values.get(attribute);
+            if (value != null) {
+                list.add(new Attribute(attribute, value));
+            }
+        }
+        return list;
+    }
+
+    /**
+     * The metrics are read-only.
+     */
+    @Override
+    public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+        throw new AttributeNotFoundException(attribute.getName() + " is read-only");
+    }
+
+    @Override
+    public AttributeList setAttributes(AttributeList attributes) {
+        return new AttributeList();
+    }
+
+    @Override
+    public Object invoke(String actionName, Object[] params, String[] signature) {
+        return "report".equals(actionName) ? report() : null;
+    }
+
+    @Override
+    public MBeanInfo getMBeanInfo() {
+        List<MBeanAttributeInfo> attributes = new ArrayList<>();
+        snapshot().forEach((name, value) -> attributes.add(
+            new MBeanAttributeInfo(name, value instanceof Double ? "double" : "long", name, true, false, false)
+        ));
+        return new MBeanInfo(
+            getClass().getName(), "The metrics of the game",
+            attributes.toArray(new MBeanAttributeInfo[0]), null,
+            new MBeanOperationInfo[] {
+                new MBeanOperationInfo("report", "Describes all the metrics", new MBeanParameterInfo[0], "java.lang.String", MBeanOperationInfo.INFO)
+            },
+            null
+        );
+    }
+}
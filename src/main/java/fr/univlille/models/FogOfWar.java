@@ -0,0 +1,185 @@
+package fr.univlille.models;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+import fr.univlille.MazeGrid;
+
+/**
+ * The cells of the maze that the monster has seen, when the fog of war is enabled.
+ *
+ * The monster sees the cells within `radius` of its position (a disk),
+ * except those hidden behind a wall: the line of sight is computed by recursive shadowcasting,
+ * octant by octant, row by row going away from the monster, and a wall casts a shadow
+ * on the next rows which isn't looked at. The walls themselves are seen.
+ * So a move costs about `radius²` operations, whatever the size of the maze.
+ *
+ * The seen cells are kept as bits (row-major, `y * width + x`).
+ * The cells seen for the first time are also listed until they're read with `drainNewlyRevealed()`,
+ * so that the view only repaints those.
+ */
+public class FogOfWar {
+    /**
+     * The transformations from an octant to the others: `{xx, xy, yx, yy}`.
+     */
+    private static final int[][] OCTANTS = {
+        {1, 0, 0, 1}, {0, 1, 1, 0}, {0, -1, 1, 0}, {-1, 0, 0, 1},
+        {-1, 0, 0, -1}, {0, -1, -1, 0}, {0, 1, -1, 0}, {1, 0, 0, -1},
+    };
+
+    private final MazeGrid maze;
+    private final int width;
+    private final int height;
+    private final int radius;
+    private final int radiusSquared;
+    private final long[] revealed;
+    private int revealedCount;
+
+    private int[] newlyRevealed;
+    private int newlyRevealedCount;
+
+    /**
+     * Creates a fog that hides the whole maze.
+     * @param maze   The maze, whose walls block the line of sight.
+     * @param radius How far the monster sees (see `GameParameters.getFogOfWarRadius()`).
+     */
+    public FogOfWar(MazeGrid maze, int radius) {
+        this.maze = maze;
+        this.width = maze.getWidth();
+        this.height = maze.getHeight();
+        this.radius = Math.max(0, radius);
+        this.radiusSquared = this.radius * this.radius;
+        this.revealed = new long[(width * height + 63) >>> 6];
+        this.newlyRevealed = new int[(2 * this.radius + 1) * (2 * this.radius + 1)];
+    }
+
+    public int getRadius() {
+        return radius;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Gets the number of cells that were seen at least once.
+     */
+    public int getRevealedCount() {
+        return revealedCount;
+    }
+
+    /**
+     * Checks if a cell was seen.
+     * @return `true` if the cell was seen, `false` if it's still in the fog or outside of the maze.
+     */
+    public boolean isRevealed(int x, int y) {
+        if (x < 0 || y < 0 || x >= width || y >= height) {
+            return false;
+        }
+        int index = y * width + x;
+        return (revealed[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * Reveals a single cell, whether the monster can see it or not (see `GameSnapshot.restore()`).
+     */
+    public void setRevealed(int x, int y) {
+        if (x >= 0 && y >= 0 && x < width && y < height) {
+            mark(x, y);
+        }
+    }
+
+    /**
+     * Reveals the cells the monster sees from its position.
+     * @param x The X coordinate of the monster.
+     * @param y The Y coordinate of the monster.
+     */
+    public void reveal(int x, int y) {
+        if (x < 0 || y < 0 || x >= width || y >= height) {
+            return;
+        }
+        mark(x, y);
+        for (int[] octant : OCTANTS) {
+            castLight(x, y, 1, 1.0, 0.0, octant[0], octant[1], octant[2], octant[3]);
+        }
+    }
+
+    /**
+     * Looks at the rows of an octant from `row`, between two slopes.
+     * In the first octant, a row is `dy = -row` and goes from `dx = -row` to `dx = 0`,
+     * and a slope is `dx / dy` (`1` on the diagonal and `0` on the axis).
+     * When a wall is met, the rows after it are looked at between the previous start and the wall,
+     * and the current row goes on after the wall.
+     */
+    private void castLight(int cx, int cy, int row, double start, double end, int xx, int xy, int yx, int yy) {
+        if (start < end) {
+            return;
+        }
+        double newStart = 0;
+        for (int j = row; j <= radius; j++) {
+            int dy = -j;
+            boolean blocked = false;
+            for (int dx = -j; dx <= 0; dx++) {
+                double leftSlope = (dx - 0.5) / (dy + 0.5);
+                double rightSlope = (dx + 0.5) / (dy - 0.5);
+                if (start < rightSlope) {
+                    continue;
+                }
+                if (end > leftSlope) {
+                    break;
+                }
+                int x = cx + dx * xx + dy * xy;
+                int y = cy + dx * yx + dy * yy;
+                boolean inside = x >= 0 && y >= 0 && x < width && y < height;
+                if (inside && dx * dx + dy * dy <= radiusSquared) {
+                    mark(x, y);
+                }
+                boolean opaque = !inside || maze.isWall(x, y);
+                if (blocked) {
+                    if (opaque) {
+                        newStart = rightSlope;
+                    } else {
+                        blocked = false;
+                        start = newStart;
+                    }
+                } else if (opaque && j < radius) {
+                    blocked = true;
+                    castLight(cx, cy, j + 1, start, leftSlope, xx, xy, yx, yy);
+                    newStart = rightSlope;
+                }
+            }
+            if (blocked) {
+                break;
+            }
+        }
+    }
+
+    private void mark(int x, int y) {
+        int index = y * width + x;
+        long bit = 1L << index;
+        if ((revealed[index >>> 6] & bit) != 0) {
+            return;
+        }
+        revealed[index >>> 6] |= bit;
+        revealedCount++;
+        if (newlyRevealedCount == newlyRevealed.length) {
+            newlyRevealed = Arrays.copyOf(newlyRevealed, newlyRevealed.length * 2);
+        }
+        newlyRevealed[newlyRevealedCount++] = index;
+    }
+
+    /**
+     * Gives the cells revealed since the last call, and forgets them.
+     * @param action Called with the row-major index (`y * width + x`) of each cell.
+     */
+    public void drainNewlyRevealed(IntConsumer action) {
+        for (int i = 0; i < newlyRevealedCount; i++) {
+            action.accept(newlyRevealed[i]);
+        }
+        newlyRevealedCount = 0;
+    }
+}
@@ -0,0 +1,231 @@
+package fr.univlille.models;
+
+import fr.univlille.CellEvent;
+import fr.univlille.Coordinate;
+import fr.univlille.GameAwareStrategy;
+import fr.univlille.iutinfo.cam.player.hunter.IHunterStrategy;
+import fr.univlille.iutinfo.cam.player.monster.IMonsterStrategy;
+import fr.univlille.iutinfo.cam.player.perception.ICellEvent;
+import fr.univlille.iutinfo.cam.player.perception.ICellEvent.CellInfo;
+import fr.univlille.iutinfo.cam.player.perception.ICoordinate;
+
+/**
+ * Applies the rules of the game on a `GameModel`, turn by turn.
+ * It doesn't depend on JavaFX, so that a game between two bots can be played
+ * without any user interface (see `run()`), and `GameController` delegates to it.
+ *
+ * The monster always starts. A turn of the monster is a single move,
+ * a turn of the hunter is made of all of its shots.
+ * The game ends when the monster reaches the exit,
+ * or when the hunter shoots the cell where the monster currently is.
+ *
+ * The moves of the other player in a multiplayer game
+ * are not replayed through the engine: they were already checked on the other's instance.
+ */
+public class GameEngine {
+    private final GameModel model;
+    private final MonsterModel monster;
+    private final HunterModel hunter;
+
+    private IMonsterStrategy monsterStrategy;
+    private IHunterStrategy hunterStrategy;
+
+    /**
+     * Is the turn of the hunter?
+     * In a multiplayer game, it's meaningless (see `GameView.isHunterTurn()`).
+     */
+    private boolean hunterTurn;
+
+    /**
+     * @param model A game whose maze was already generated
+     *              (see `GameModel.generateMaze()` and `GameModel.predefinedMaze()`).
+     */
+    public GameEngine(GameModel model) {
+        this.model = model;
+        this.monster = model.getMonster();
+        this.hunter = model.getHunter();
+    }
+
+    public GameModel getModel() {
+        return model;
+    }
+
+    /**
+     * Starts the game: the monster plays first,
+     * its first position is added to the history, and it sees around it if the fog of war is enabled.
+     */
+    public void start() {
+        hunterTurn = false;
+        if (model.getParameters() != null && model.getParameters().isFogOfWar()) {
+            monster.enableFogOfWar(model.getParameters().getFogOfWarRadius());
+        }
+        ICoordinate position = monster.getPosition();
+        model.addToHistory(new CellEvent(model.getCoordinate(position.getCol(), position.getRow()), CellInfo.MONSTER, model.getTurn()));
+    }
+
+    /**
+     * Lets a bot play the monster.
+     * @param monsterStrategy The strategy of the bot, initialized with the maze of the game.
+     */
+    public void setMonsterStrategy(IMonsterStrategy monsterStrategy) {
+        this.monsterStrategy = monsterStrategy;
+        monsterStrategy.initialize(model.getMaze());
+        if (monsterStrategy instanceof GameAwareStrategy) {
+            // the interface doesn't give the position of the exit
+            ((GameAwareStrategy) monsterStrategy).setGame(model);
+        }
+    }
+
+    /**
+     * Lets a bot play the hunter.
+     * @param hunterStrategy The strategy of the bot, initialized with the dimensions of the maze.
+     */
+    public void setHunterStrategy(IHunterStrategy hunterStrategy) {
+        this.hunterStrategy = hunterStrategy;
+        hunterStrategy.initialize(model.getWidth(), model.getHeight());
+        if (hunterStrategy instanceof GameAwareStrategy) {
+            // the interface doesn't give the position of the exit
+            ((GameAwareStrategy) hunterStrategy).setGame(model);
+        }
+    }
+
+    public boolean isHunterTurn() {
+        return hunterTurn;
+    }
+
+    /**
+     * Checks if the player whose turn it is is played by a bot.
+     */
+    public boolean isBotTurn() {
+        return hunterTurn ? hunterStrategy != null : monsterStrategy != null;
+    }
+
+    /**
+     * Moves the monster, and ends the game if it reached the exit.
+     * The move is expected to be valid (see `MonsterModel.isTurnValid()`).
+     * @param move The cell the monster goes to.
+     */
+    public void playMonster(ICoordinate move) {
+        monster.play(move);
+        if (model.monsterWon()) {
+            model.setGameEnded(true);
+        }
+    }
+
+    /**
+     * Shoots a cell, if the hunter has a shot left,
+     * and ends the game if the monster is on this cell.
+     * @param target The cell to shoot.
+     * @return `true` if the hunter was allowed to shoot.
+     */
+    public boolean playHunterShot(ICoordinate target) {
+        if (!hunter.playHunterMove(target)) {
+            return false;
+        }
+        checkCapture();
+        return true;
+    }
+
+    /**
+     * Throws a grenade, if the hunter has one left,
+     * and ends the game if the monster is within the explosion.
+     * @param target The center of the explosion.
+     * @return `true` if the hunter was allowed to throw a grenade.
+     */
+    public boolean playHunterGrenade(ICoordinate target) {
+        if (!hunter.playHunterGrenade(target)) {
+            return false;
+        }
+        checkCapture();
+        return true;
+    }
+
+    /**
+     * The last shot on the cell of the monster gives the last time it was there.
+     * If it's the current turn, then the monster has just been shot.
+     */
+    private void checkCapture() {
+        ICoordinate position = monster.getPosition();
+        ICellEvent shot = hunter.getShootAt(position.getCol(), position.getRow());
+        if (shot != null && shot.getState() == CellInfo.MONSTER && shot.getTurn() == model.getTurn()) {
+            model.setGameEnded(true);
+        }
+    }
+
+    /**
+     * Lets the bot whose turn it is play, without ending the turn.
+     * A move of the monster that isn't valid is replaced by staying in place,
+     * and a move of two cells is a super jump.
+     * The shots of the hunter stop as soon as the monster is captured.
+     */
+    public void playBotTurn() {
+        if (hunterTurn) {
+            // the interface doesn't tell the hunter that the monster moved
+            if (hunterStrategy instanceof GameAwareStrategy) {
+                ((GameAwareStrategy) hunterStrategy).turnBegin(model.getTurn());
+            }
+            while (hunter.canShoot() && !model.isGameEnded()) {
+                ICoordinate target = hunterStrategy.play();
+                playHunterShot(target);
+                ICellEvent result = hunter.getShootAt(target.getCol(), target.getRow());
+                if (result != null) {
+                    hunterStrategy.update(result);
+                }
+            }
+        } else {
+            ICoordinate position = monster.getPosition();
+            // the last visit of the monster's cell is where it is now, at the current turn
+            monsterStrategy.update(model.getLastVisit(position.getCol(), position.getRow()));
+            ICoordinate move = monsterStrategy.play();
+            // the interface cannot ask for a super jump, so a move of two cells is one
+            monster.setSuperJump(Coordinate.squaredDistance(position, move) == 4);
+            if (!monster.isTurnValid(move)) {
+                monster.setSuperJump(false);
+                move = position;
+            }
+            playMonster(move);
+        }
+    }
+
+    /**
+     * Gives the turn to the other player.
+     */
+    public void endTurn() {
+        hunterTurn = !hunterTurn;
+        beginTurn(hunterTurn);
+    }
+
+    /**
+     * Resets the shots and the powerups of the player whose turn begins.
+     * @param hunter `true` if it's the turn of the hunter.
+     */
+    public void beginTurn(boolean hunter) {
+        if (hunter) {
+            this.hunter.turnBegin();
+            this.hunter.setGrenadeMode(false);
+        } else {
+            monster.setSuperJump(false);
+        }
+    }
+
+    /**
+     * Plays a whole turn with the bot whose turn it is.
+     */
+    public void step() {
+        playBotTurn();
+        endTurn();
+    }
+
+    /**
+     * Plays a game between two bots.
+     * @param maxTurns The turn after which the game is stopped if nobody won,
+     *                 as a monster that cannot reach the exit never wins.
+     * @return `true` if the game ended before `maxTurns`.
+     */
+    public boolean run(int maxTurns) {
+        while (!model.isGameEnded() && model.getTurn() < maxTurns) {
+            step();
+        }
+        return model.isGameEnded();
+    }
+}
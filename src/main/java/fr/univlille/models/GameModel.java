@@ -4,14 +4,18 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Random;
 import java.util.Scanner;
 
 import fr.univlille.Coordinate;
+import fr.univlille.CoordinateTable;
 import fr.univlille.GameMode;
 import fr.univlille.GameParameters;
 import fr.univlille.Maze;
+import fr.univlille.MazeGrid;
+import fr.univlille.PackedCoordinate;
 import fr.univlille.iutinfo.cam.player.perception.ICellEvent;
 import fr.univlille.iutinfo.cam.player.perception.ICoordinate;
 import fr.univlille.multiplayer.Client;
@@ -20,6 +24,7 @@ import fr.univlille.multiplayer.MultiplayerCommand;
 import fr.univlille.multiplayer.MultiplayerCommunication;
 import fr.univlille.multiplayer.MultiplayerUtils;
 import fr.univlille.multiplayer.Server;
+import fr.univlille.pathfinding.DistanceField;
 import fr.univlille.utils.Subject;
 
 public class GameModel extends Subject {
@@ -40,14 +45,22 @@ public class GameModel extends Subject {
      * 0 represents an empty cell.
      * There is no need for other types of cells as they're contained in other
      * variables or in "history".
+     * The cells are packed as bits.
      */
-    private boolean[][] maze;
+    private MazeGrid maze;
 
     /**
      * The coordinates of the exit.
      */
     private ICoordinate exit;
 
+    /**
+     * The distance of every cell to the exit.
+     * The maze and the exit never change during a game,
+     * so it's computed once, the first time it's needed.
+     */
+    private DistanceField exitDistances;
+
     private HunterModel hunter;
     private MonsterModel monster;
 
@@ -66,7 +79,16 @@ public class GameModel extends Subject {
         }
     }
 
+    /**
+     * Gets a copy of the maze as a `boolean[][]`, `true` being a wall.
+     * It's the format expected by `IMonsterStrategy.initialize()`,
+     * but it's a copy, so prefer `getGrid()` anywhere else.
+     */
     public boolean[][] getMaze() {
+        return maze.toArray();
+    }
+
+    public MazeGrid getGrid() {
         return maze;
     }
 
@@ -79,17 +101,26 @@ public class GameModel extends Subject {
      */
     private ArrayList<ICellEvent> history = new ArrayList<>();
 
+    /**
+     * An index of `history` by cell.
+     * For each cell (using its row-major index, see `cellIndex()`),
+     * it stores the position in `history` of the last event that happened on this cell, plus one.
+     * `0` means that the monster has never been there.
+     * It's thanks to this array that the hunter's shots don't have to go through the whole history.
+     */
+    private int[] lastVisits = new int[0];
+
     /**
      * A boolean that stores whether or not the game has finished.
      */
     private boolean gameEnded;
 
     public int getHeight() {
-        return maze.length;
+        return maze.getHeight();
     }
 
     public int getWidth() {
-        return maze[0].length;
+        return maze.getWidth();
     }
 
     public HunterModel getHunter() {
@@ -134,10 +165,7 @@ public class GameModel extends Subject {
      * @return `true` if this cell is a wall, `false` if it's empty.
      */
     public boolean isWallAt(int x, int y) {
-        if(x < 0 || x >= getWidth() || y < 0 || y >= getHeight()) { // si en dehors du labyrinthe
-            return true;
-        }
-        return maze[y][x];
+        return maze.isWall(x, y); // une case en dehors du labyrinthe est un mur
     }
 
     /**
@@ -147,7 +175,7 @@ public class GameModel extends Subject {
      * @return `true` if this cell is a wall, `false` if it's empty.
      */
     public boolean isWallAt(ICoordinate coordinate) {
-        return isWallAt(coordinate.getRow(), coordinate.getCol());
+        return isWallAt(coordinate.getCol(), coordinate.getRow());
     }
 
     /**
@@ -179,42 +207,120 @@ public class GameModel extends Subject {
     }
 
     /**
-     * Gets a random position within the maze.
-     * For now, it gives a random position that is not a wall.
+     * Gets the distance of every cell to the exit.
+     * It's shared by the bots and the views, and computed only once per game.
      * 
-     * @return A random position in the maze.
+     * @return The distance field whose target is the exit.
      */
-    public ICoordinate randomPosition() {
-        ArrayList<Coordinate> availableCoordinates = new ArrayList<>();
+    public DistanceField getExitDistances() {
+        if (exitDistances == null) {
+            exitDistances = new DistanceField(maze, exit.getCol(), exit.getRow());
+        }
+        return exitDistances;
+    }
+
+    /**
+     * Lists the empty cells of the maze (row-major indexes, see `cellIndex()`),
+     * in the same order as a row by row scan of the maze.
+     * Built once after the creation of the maze, so that a random position
+     * is a single draw instead of a scan of the whole maze.
+     */
+    private int[] freeCells;
+
+    /**
+     * The shared immutable coordinates of the cells of the maze.
+     */
+    private CoordinateTable coordinates;
+
+    /**
+     * The empty cells far enough from a target (see `randomPosition(ICoordinate, int)`).
+     * Only the first `bandSize` elements are meaningful.
+     * The band is kept as long as the target and the distance are the same.
+     */
+    private int[] band;
+    private int bandSize;
+    private int bandTargetX;
+    private int bandTargetY;
+    private int bandMinDist = -1;
+
+    /**
+     * Builds the list of the empty cells and the table of coordinates.
+     * Must be called whenever the maze is created.
+     */
+    private void indexMaze() {
+        coordinates = new CoordinateTable(getWidth(), getHeight());
+        freeCells = new int[maze.countOpen()];
+        int size = 0;
         for (int y = 0; y < getHeight(); y++) {
             for (int x = 0; x < getWidth(); x++) {
                 if (!isWallAt(x, y)) {
-                    availableCoordinates.add(new Coordinate(x, y));
+                    freeCells[size++] = cellIndex(x, y);
                 }
             }
         }
+        band = new int[freeCells.length];
+        bandMinDist = -1;
+    }
 
-        return availableCoordinates.get(random.nextInt(availableCoordinates.size()));
+    private ICoordinate cellCoordinate(int index) {
+        return coordinates.fromIndex(index);
     }
-    
+
+    /**
+     * Gets the shared, immutable, instance of `Coordinate` for the given position.
+     * Use it instead of allocating a new `Coordinate` in the parts of the game
+     * that are executed very often.
+     * @param x The X coordinate of the cell.
+     * @param y The Y coordinate of the cell.
+     * @return An immutable coordinate (a new one if the position is outside of the maze).
+     */
+    public Coordinate getCoordinate(int x, int y) {
+        return coordinates.get(x, y);
+    }
+
+    /**
+     * Gets a random position within the maze.
+     * For now, it gives a random position that is not a wall.
+     * 
+     * @return A random position in the maze.
+     */
+    public ICoordinate randomPosition() {
+        return cellCoordinate(freeCells[random.nextInt(freeCells.length)]);
+    }
+
+    /**
+     * Computes the empty cells whose distance to the target is at least `minDist`,
+     * unless it's the same band as the last time.
+     */
+    private void computeBand(ICoordinate target, int minDist) {
+        if (minDist == bandMinDist && target.getCol() == bandTargetX && target.getRow() == bandTargetY) {
+            return;
+        }
+        bandTargetX = target.getCol();
+        bandTargetY = target.getRow();
+        bandMinDist = minDist;
+        bandSize = 0;
+        int packedTarget = PackedCoordinate.pack(bandTargetX, bandTargetY);
+        long minSquared = (long) minDist * minDist;
+        for (int cell : freeCells) {
+            int packedCell = PackedCoordinate.fromIndex(cell, getWidth());
+            if (minDist <= 0 || PackedCoordinate.squaredDistance(packedCell, packedTarget) >= minSquared) {
+                band[bandSize++] = cell;
+            }
+        }
+    }
+
     /**
      * Fait comme la méthode ci-dessous, mais permet en plus
      * de définir une cible et une distance minimale
      * le script s'assurera que la position n'est pas dans la zone de la cible.
      * 
      * @return A random position in the maze.
+     * @throws IllegalArgumentException If no empty cell is far enough from the target.
      */
     public ICoordinate randomPosition(ICoordinate target, int minDist) {
-        ArrayList<Coordinate> availableCoordinates = new ArrayList<>();
-        for (int y = 0; y < getHeight(); y++) {
-            for (int x = 0; x < getWidth(); x++) {
-                if (!isWallAt(x, y) && Coordinate.distance(new Coordinate(x, y), target) >= minDist) {
-                    availableCoordinates.add(new Coordinate(x, y));
-                }
-            }
-        }
-
-        return availableCoordinates.get(random.nextInt(availableCoordinates.size()));
+        computeBand(target, minDist);
+        return cellCoordinate(band[random.nextInt(bandSize)]);
     }
 
     /**
@@ -228,28 +334,48 @@ public class GameModel extends Subject {
         this.parameters = parameters;
         Maze laby = new Maze(parameters.getMazeWidth(), parameters.getMazeHeight());
         maze = laby.createMaze(parameters.getWallsPercentage(), this.random);
+        indexMaze();
 
         this.hunter = new HunterModel(this);
         ICoordinate monsterPosition = randomPosition();
         this.monster = new MonsterModel(this, monsterPosition);
 
         this.turn = 1;
-        this.history.clear();
+        clearHistory();
+        this.exitDistances = null;
 
         
         setRandomExitPosition(this.monster.getPosition());
     }
     
+    /**
+     * The number of times the former implementation drew an exit far from the monster.
+     * The last draw was overwritten by an unconstrained one anyway.
+     */
+    private static final int LEGACY_EXIT_DRAWS = 101;
+
+    /**
+     * Places the exit far enough from the monster.
+     * 
+     * With `GameParameters.hasLegacyPlacement()`, the random generator is consumed
+     * exactly like the former implementation did (101 draws among the cells far from the monster,
+     * then a draw among all the empty cells, which is the one that's kept),
+     * so that an older instance of the game generates the same exit with the same seed.
+     * Otherwise, a single draw is made among the cells far enough from the monster.
+     */
     private void setRandomExitPosition(ICoordinate monsterCoord) {
         int minDist = (getWidth() + getHeight()) / 3;
-        exit = randomPosition(monsterCoord, minDist);
-        
-        int iteration = 0;
-        while (iteration < 100 || exit == null) {
-            exit = randomPosition(monsterCoord, minDist);
-            iteration++;
-        }
-        if(iteration == 100) {
+        computeBand(monsterCoord, minDist);
+        if (parameters.hasLegacyPlacement()) {
+            if (bandSize > 0) {
+                for (int i = 0; i < LEGACY_EXIT_DRAWS; i++) {
+                    random.nextInt(bandSize);
+                }
+            }
+            exit = randomPosition();
+        } else if (bandSize > 0) {
+            exit = cellCoordinate(band[random.nextInt(bandSize)]);
+        } else {
             exit = randomPosition();
         }
     }
@@ -267,7 +393,7 @@ public class GameModel extends Subject {
                 colonnes = valeurs.length;
             }
             scanner = new Scanner(new File(path));
-            maze = new boolean[lignes][colonnes];
+            maze = new MazeGrid(colonnes, lignes);
 
             for(int i = 0; i< lignes; i++){
                 String ligne = scanner.nextLine();
@@ -276,17 +402,12 @@ public class GameModel extends Subject {
                 for(int j = 0; j<colonnes; j++){
                     if(Integer.parseInt(valeurs[j]) == 2){
                         this.monster = new MonsterModel(this, new Coordinate(i, j));
-                        maze[i][j] = false;
                     }
                     else if(Integer.parseInt(valeurs[j]) == 3){
                         this.exit =  new Coordinate(i, j);
-                        maze[i][j] = false;
                     }
                     else if(Integer.parseInt(valeurs[j]) == 0){
-                        maze[i][j] = true;
-                    }
-                    else{
-                        maze[i][j] = false;
+                        maze.setWall(j, i, true);
                     }
                 }
             }
@@ -294,21 +415,94 @@ public class GameModel extends Subject {
         }catch(FileNotFoundException e){
             e.printStackTrace();
         }
+        indexMaze();
 
 
         this.hunter = new HunterModel(this);
         
 
         this.turn = 1;
-        this.history.clear();
+        clearHistory();
+        this.exitDistances = null;
+    }
+
+    /**
+     * Gets the row-major index of a cell, used by the flat arrays indexing the cells of the maze.
+     * @param x The X coordinate of the cell.
+     * @param y The Y coordinate of the cell.
+     * @return `y * width + x`
+     */
+    public int cellIndex(int x, int y) {
+        return y * getWidth() + x;
     }
 
+    /**
+     * Gets the history of the game.
+     * It's read-only: use `addToHistory()` to add an event,
+     * so that the index by cell stays up to date.
+     * @return All the events of the game, from the oldest to the most recent.
+     */
     public List<ICellEvent> getHistory() {
-        return history;
+        return Collections.unmodifiableList(history);
     }
 
     public void addToHistory(ICellEvent cellEvent) {
         history.add(cellEvent);
+        ICoordinate coord = cellEvent.getCoord();
+        if (maze.isInBounds(coord.getCol(), coord.getRow())) {
+            lastVisits[cellIndex(coord.getCol(), coord.getRow())] = history.size();
+        }
+    }
+
+    /**
+     * Gets the last event that happened on the given cell.
+     * It doesn't depend on the length of the history.
+     * @param x The X coordinate of the cell.
+     * @param y The Y coordinate of the cell.
+     * @return The most recent event on this cell, or `null` if there is none.
+     */
+    public ICellEvent getLastVisit(int x, int y) {
+        if (!maze.isInBounds(x, y)) {
+            return null;
+        }
+        int position = lastVisits[cellIndex(x, y)];
+        return position == 0 ? null : history.get(position - 1);
+    }
+
+    /**
+     * Gets the turn at which the monster was last seen on the given cell.
+     * @param x The X coordinate of the cell.
+     * @param y The Y coordinate of the cell.
+     * @return The turn of the last visit, or `-1` if the monster has never been there.
+     */
+    public int getLastVisitTurn(int x, int y) {
+        ICellEvent lastVisit = getLastVisit(x, y);
+        return lastVisit == null ? -1 : lastVisit.getTurn();
+    }
+
+    /**
+     * Replaces the state of the game with the one of a snapshot (see `GameSnapshot.restore()`).
+     * Unlike `setGameEnded()`, nothing is sent to the other player.
+     * @param turn      The turn of the snapshot.
+     * @param gameEnded Has the game ended?
+     * @param events    The history of the snapshot, from the oldest to the most recent event.
+     */
+    void restore(int turn, boolean gameEnded, List<ICellEvent> events) {
+        this.turn = turn;
+        this.gameEnded = gameEnded;
+        clearHistory();
+        for (ICellEvent event : events) {
+            addToHistory(event);
+        }
+    }
+
+    /**
+     * Empties the history and its index.
+     * The maze must have been created beforehand.
+     */
+    private void clearHistory() {
+        history.clear();
+        lastVisits = new int[getWidth() * getHeight()];
     }
 
     /**
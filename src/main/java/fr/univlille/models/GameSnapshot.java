@@ -0,0 +1,297 @@
+package fr.univlille.models;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+import fr.univlille.CellEvent;
+import fr.univlille.Coordinate;
+import fr.univlille.iutinfo.cam.player.perception.ICellEvent;
+import fr.univlille.iutinfo.cam.player.perception.ICellEvent.CellInfo;
+import fr.univlille.iutinfo.cam.player.perception.ICoordinate;
+
+/**
+ * The state of a game at the end of a turn, in a compact form,
+ * so that a player who lost the connection can be brought back to the current turn
+ * without replaying the game (see `MultiplayerCommand.SNAPSHOT`).
+ *
+ * The maze isn't part of it, as both players generate it from the same seed.
+ * The rest is written as a sequence of unsigned varints (7 bits per byte),
+ * the coordinates being zigzag-encoded so that `-1` stays a single byte:
+ * ```
+ * version | turn | flags | monster (x, y) | super jumps | shots | grenades | exit (x, y)
+ *         | history (count, then x, y, state, turn for each event)
+ *         | shots (count, then x, y, state, turn for each shot)
+ *         | fog (width, height, then one bit per cell, row by row; 0 and 0 without fog)
+ * ```
+ * A snapshot of a game of a few dozen turns takes a few hundred bytes,
+ * and it's taken in a time proportional to the length of the history,
+ * so it can be taken at every turn.
+ */
+public class GameSnapshot {
+    private static final int VERSION = 1;
+
+    private static final int FLAG_GAME_ENDED = 1;
+    private static final int FLAG_HUNTER_TURN = 2;
+    private static final int FLAG_SUPER_JUMP = 4;
+    private static final int FLAG_GRENADE_MODE = 8;
+
+    private final byte[] bytes;
+
+    private GameSnapshot(byte[] bytes) {
+        this.bytes = bytes;
+    }
+
+    /**
+     * Takes a snapshot of the given game.
+     * @param model      The game.
+     * @param hunterTurn Is the hunter the next to play? It isn't part of the model in a multiplayer game
+     *                   (see `GameView.isHunterTurn()`), so the caller must give it.
+     * @return The snapshot.
+     */
+    public static GameSnapshot capture(GameModel model, boolean hunterTurn) {
+        MonsterModel monster = model.getMonster();
+        HunterModel hunter = model.getHunter();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64 + model.getHistory().size() * 5);
+        writeVarint(out, VERSION);
+        writeVarint(out, model.getTurn());
+        int flags = 0;
+        if (model.isGameEnded()) {
+            flags |= FLAG_GAME_ENDED;
+        }
+        if (hunterTurn) {
+            flags |= FLAG_HUNTER_TURN;
+        }
+        if (monster.isUsingSuperJump()) {
+            flags |= FLAG_SUPER_JUMP;
+        }
+        if (hunter.isGrenadeMode()) {
+            flags |= FLAG_GRENADE_MODE;
+        }
+        writeVarint(out, flags);
+        writeCoordinate(out, monster.getPosition());
+        writeVarint(out, monster.getSuperJumpsLeft());
+        writeVarint(out, hunter.getShootsLeft());
+        writeVarint(out, hunter.getGrenadesLeft());
+        writeCoordinate(out, model.getExit());
+        writeEvents(out, model.getHistory());
+        writeEvents(out, hunter.getShootsHistory());
+        FogOfWar fog = monster.getFogOfWar();
+        if (fog == null) {
+            writeVarint(out, 0);
+            writeVarint(out, 0);
+        } else {
+            writeVarint(out, fog.getWidth());
+            writeVarint(out, fog.getHeight());
+            int bits = 0;
+            int count = 0;
+            for (int y = 0; y < fog.getHeight(); y++) {
+                for (int x = 0; x < fog.getWidth(); x++) {
+                    if (fog.isRevealed(x, y)) {
+                        bits |= 1 << count;
+                    }
+                    if (++count == 8) {
+                        out.write(bits);
+                        bits = 0;
+                        count = 0;
+                    }
+                }
+            }
+            if (count > 0) {
+                out.write(bits);
+            }
+        }
+        return new GameSnapshot(out.toByteArray());
+    }
+
+    /**
+     * Reads a snapshot sent as text (see `toBase64()`).
+     * @param text The snapshot encoded in base64.
+     * @return The snapshot.
+     * @throws IllegalArgumentException If the text isn't valid base64.
+     */
+    public static GameSnapshot fromBase64(String text) {
+        return new GameSnapshot(Base64.getUrlDecoder().decode(text));
+    }
+
+    /**
+     * Encodes this snapshot in base64 ("URL-safe", without padding),
+     * so that it can be sent as the parameter of a communication (it never contains ';').
+     */
+    public String toBase64() {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    public byte[] getBytes() {
+        return bytes.clone();
+    }
+
+    /**
+     * Gets the turn of the game when the snapshot was taken, without restoring it.
+     */
+    public int getTurn() {
+        return new Reader(bytes).skipVersion().varint();
+    }
+
+    /**
+     * Replaces the state of the given game with the state of this snapshot.
+     * The maze of the game must be the one of the game that was captured.
+     * @param model The game to restore.
+     * @return Is the hunter the next to play?
+     * @throws IllegalArgumentException If the snapshot isn't valid, or if it was taken in another maze.
+     *         The game isn't modified in this case.
+     */
+    public boolean restore(GameModel model) {
+        try {
+            Reader in = new Reader(bytes).skipVersion();
+            int turn = in.varint();
+            int flags = in.varint();
+            Coordinate monsterPosition = in.coordinate(model);
+            int superJumpsLeft = in.varint();
+            int shootsLeft = in.varint();
+            int grenadesLeft = in.varint();
+            ICoordinate exit = in.coordinate(model);
+            if (!exit.equals(model.getExit())) {
+                throw new IllegalArgumentException("The snapshot was taken in another maze.");
+            }
+            List<ICellEvent> history = in.events(model);
+            List<ICellEvent> shots = in.events(model);
+            int fogWidth = in.varint();
+            int fogHeight = in.varint();
+            FogOfWar fog = null;
+            if (fogWidth > 0 && fogHeight > 0) {
+                if (fogWidth != model.getWidth() || fogHeight != model.getHeight()) {
+                    throw new IllegalArgumentException("The fog doesn't have the size of the maze.");
+                }
+                FogOfWar current = model.getMonster().getFogOfWar();
+                int radius = current != null ? current.getRadius() : model.getParameters().getFogOfWarRadius();
+                fog = new FogOfWar(model.getGrid(), radius);
+                int cell = 0;
+                int bits = 0;
+                for (int y = 0; y < fogHeight; y++) {
+                    for (int x = 0; x < fogWidth; x++) {
+                        if (cell % 8 == 0) {
+                            bits = in.next();
+                        }
+                        if ((bits & (1 << (cell % 8))) != 0) {
+                            fog.setRevealed(x, y);
+                        }
+                        cell++;
+                    }
+                }
+            }
+            if (in.remaining() != 0) {
+                throw new IllegalArgumentException("Unexpected bytes at the end of the snapshot.");
+            }
+
+            model.restore(turn, (flags & FLAG_GAME_ENDED) != 0, history);
+            model.getMonster().restore(monsterPosition, superJumpsLeft, (flags & FLAG_SUPER_JUMP) != 0);
+            if (fog != null) {
+                model.getMonster().setFogOfWar(fog);
+            }
+            HunterModel hunter = model.getHunter();
+            hunter.restoreShots(shots);
+            hunter.setShootsLeft(shootsLeft);
+            hunter.setGrenadesLeft(grenadesLeft);
+            hunter.setGrenadeMode((flags & FLAG_GRENADE_MODE) != 0);
+            return (flags & FLAG_HUNTER_TURN) != 0;
+        } catch (IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("The snapshot is truncated.", e);
+        }
+    }
+
+    private static void writeEvents(ByteArrayOutputStream out, Iterable<ICellEvent> events) {
+        int count = 0;
+        for (ICellEvent ignore : events) {
+            count++;
+        }
+        writeVarint(out, count);
+        for (ICellEvent event : events) {
+            writeCoordinate(out, event.getCoord());
+            writeVarint(out, event.getState().ordinal());
+            writeVarint(out, event.getTurn());
+        }
+    }
+
+    private static void writeCoordinate(ByteArrayOutputStream out, ICoordinate coordinate) {
+        writeVarint(out, zigzag(coordinate.getCol()));
+        writeVarint(out, zigzag(coordinate.getRow()));
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static int zigzag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    /**
+     * Reads the bytes of a snapshot.
+     */
+    private static final class Reader {
+        private final byte[] bytes;
+        private int position;
+
+        Reader(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        Reader skipVersion() {
+            int version = varint();
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Unknown version of snapshot: " + version);
+            }
+            return this;
+        }
+
+        int next() {
+            return bytes[position++] & 0xFF;
+        }
+
+        int varint() {
+            int value = 0;
+            for (int shift = 0; shift < 35; shift += 7) {
+                int b = next();
+                value |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Invalid varint.");
+        }
+
+        Coordinate coordinate(GameModel model) {
+            int x = varint();
+            int y = varint();
+            return model.getCoordinate((x >>> 1) ^ -(x & 1), (y >>> 1) ^ -(y & 1));
+        }
+
+        List<ICellEvent> events(GameModel model) {
+            int count = varint();
+            if (count < 0 || count > bytes.length - position) {
+                throw new IllegalArgumentException("Invalid number of events: " + count);
+            }
+            CellInfo[] states = CellInfo.values();
+            List<ICellEvent> events = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                ICoordinate coordinate = coordinate(model);
+                int state = varint();
+                if (state >= states.length) {
+                    throw new IllegalArgumentException("Invalid state of cell: " + state);
+                }
+                events.add(new CellEvent(coordinate, states[state], varint()));
+            }
+            return events;
+        }
+
+        int remaining() {
+            return bytes.length - position;
+        }
+    }
+}
@@ -1,23 +1,38 @@
 package fr.univlille.models;
 
-import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 
 import fr.univlille.CellEvent;
-import fr.univlille.Coordinate;
+import fr.univlille.PackedCoordinate;
 import fr.univlille.iutinfo.cam.player.perception.ICellEvent;
 import fr.univlille.iutinfo.cam.player.perception.ICoordinate;
 import fr.univlille.iutinfo.cam.player.perception.ICellEvent.CellInfo;
 import fr.univlille.utils.Subject;
 
 public class HunterModel extends Subject {
-    private ArrayList<ICellEvent> shootsHistory;
+    /**
+     * The result of the last shot on each cell, keyed by the row-major index of the cell
+     * (see `GameModel.cellIndex()`), in the order of the shots.
+     * A new shot on a cell replaces the previous one, and moves it to the end.
+     */
+    private LinkedHashMap<Integer, ICellEvent> shootsHistory;
+    private Collection<ICellEvent> shootsHistoryView;
     private GameModel gameModel;
     private int maxShoots;
     private int shootsLeft;
     private int grenadesLeft;
     private boolean grenadeMode;
 
+    /**
+     * The cells around the center of a grenade, in the order in which they are shot.
+     */
+    private static final int[] GRENADE_DIRECTIONS = {
+        PackedCoordinate.RIGHT, PackedCoordinate.LEFT, PackedCoordinate.DOWN, PackedCoordinate.UP
+    };
+
     public boolean isGrenadeMode() {
         return grenadeMode;
     }
@@ -42,8 +57,25 @@ public class HunterModel extends Subject {
         this.grenadesLeft = grenadesLeft;
     }
 
-    public List<ICellEvent> getShootsHistory() {
-        return shootsHistory;
+    /**
+     * Gets the result of the last shot on each cell, from the oldest to the most recent.
+     * @return A read-only view of the shots.
+     */
+    public Collection<ICellEvent> getShootsHistory() {
+        return shootsHistoryView;
+    }
+
+    /**
+     * Gets the result of the last shot on a particular cell.
+     * @param x The X coordinate of the cell.
+     * @param y The Y coordinate of the cell.
+     * @return The last shot on this cell, or `null` if the hunter never shot there.
+     */
+    public ICellEvent getShootAt(int x, int y) {
+        if (!isHunterShootValid(x, y)) {
+            return null;
+        }
+        return shootsHistory.get(gameModel.cellIndex(x, y));
     }
 
     public int getMaxShoots() {
@@ -55,7 +87,8 @@ public class HunterModel extends Subject {
         this.maxShoots = gameModel.getParameters().getHunterShoots();
         this.shootsLeft = this.maxShoots;
         this.grenadesLeft = gameModel.getParameters().getHunterGrenades();
-        shootsHistory = new ArrayList<>();
+        shootsHistory = new LinkedHashMap<>();
+        shootsHistoryView = Collections.unmodifiableCollection(shootsHistory.values());
     }
 
     /**
@@ -73,9 +106,17 @@ public class HunterModel extends Subject {
      * @return `true` if the target's position is valid, `false` otherwise.
      */
     public boolean isHunterShootValid(ICoordinate shoot) {
-        ICoordinate mazeDimensions = gameModel.getMazeDimensions();
-        return shoot.getCol() >= 0 && shoot.getCol() < mazeDimensions.getCol()
-            && shoot.getRow() >= 0 && shoot.getRow() < mazeDimensions.getRow();
+        return isHunterShootValid(shoot.getCol(), shoot.getRow());
+    }
+
+    /**
+     * Same as `isHunterShootValid(ICoordinate)`.
+     * @param x The X coordinate of the target.
+     * @param y The Y coordinate of the target.
+     * @return `true` if the target's position is valid, `false` otherwise.
+     */
+    public boolean isHunterShootValid(int x, int y) {
+        return x >= 0 && x < gameModel.getWidth() && y >= 0 && y < gameModel.getHeight();
     }
 
     /**
@@ -118,28 +159,35 @@ public class HunterModel extends Subject {
             state = CellInfo.WALL;
         }
 
-        // remove other shoots history with the same position
-        for (int i = shootsHistory.size() - 1; i >= 0; i--) {
-            if (shootsHistory.get(i).getCoord().equals(shootPosition)) {
-                shootsHistory.remove(i);
-            }
-        }
-        
+        // remove the previous shot with the same position
+        // (the shots outside of the maze all share the same key)
+        Integer key = isHunterShootValid(shootPosition) ? gameModel.cellIndex(shootPosition.getCol(), shootPosition.getRow()) : -1;
+        shootsHistory.remove(key);
+
         // l'historique de déplacement du monstre
-        for (int i = gameModel.getHistory().size() - 1; i >= 0; i--) {
-            ICellEvent cellEvent = gameModel.getHistory().get(i);
-            if (cellEvent.getCoord().equals(shootPosition)) {
-                shootsHistory.add(cellEvent);
-                notifyObservers(cellEvent);
-                return;
-            }
+        ICellEvent cellEvent = gameModel.getLastVisit(shootPosition.getCol(), shootPosition.getRow());
+        if (cellEvent == null) {
+            cellEvent = new CellEvent(shootPosition, state, gameModel.getTurn());
         }
-        CellEvent cellEvent = new CellEvent(shootPosition, state, gameModel.getTurn());
 
-        shootsHistory.add(cellEvent);
+        shootsHistory.put(key, cellEvent);
         notifyObservers(cellEvent);
     }
 
+    /**
+     * Replaces the shots of the hunter with the ones of a snapshot (see `GameSnapshot.restore()`).
+     * The observers aren't notified: the view has to be drawn again as a whole.
+     * @param shots The result of the last shot on each cell, from the oldest to the most recent.
+     */
+    void restoreShots(List<ICellEvent> shots) {
+        shootsHistory.clear();
+        for (ICellEvent shot : shots) {
+            ICoordinate position = shot.getCoord();
+            Integer key = isHunterShootValid(position) ? gameModel.cellIndex(position.getCol(), position.getRow()) : -1;
+            shootsHistory.put(key, shot);
+        }
+    }
+
     /**
      * Checks if the hunter can shoot,and he if can
      * then it shoots at the given coordinates.
@@ -183,21 +231,14 @@ public class HunterModel extends Subject {
      */
     private void grenade(ICoordinate grenadePosition) {
         shoot(grenadePosition);
-        ICoordinate t = new Coordinate(grenadePosition.getCol() + 1, grenadePosition.getRow()); // top
-        ICoordinate r = new Coordinate(grenadePosition.getCol(), grenadePosition.getRow() + 1); // right
-        ICoordinate b = new Coordinate(grenadePosition.getCol() - 1, grenadePosition.getRow()); // bottom
-        ICoordinate l = new Coordinate(grenadePosition.getCol(), grenadePosition.getRow() - 1); // left
-        if (isHunterShootValid(t)) {
-            shoot(t);
-        }
-        if (isHunterShootValid(b)) {
-            shoot(b);
-        }
-        if (isHunterShootValid(r)) {
-            shoot(r);
-        }
-        if (isHunterShootValid(l)) {
-            shoot(l);
+        int center = PackedCoordinate.pack(grenadePosition);
+        for (int direction : GRENADE_DIRECTIONS) {
+            int target = PackedCoordinate.neighbour(center, direction);
+            int x = PackedCoordinate.x(target);
+            int y = PackedCoordinate.y(target);
+            if (isHunterShootValid(x, y)) {
+                shoot(gameModel.getCoordinate(x, y));
+            }
         }
     }
 }
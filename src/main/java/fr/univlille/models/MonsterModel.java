@@ -11,28 +11,41 @@ public class MonsterModel extends Subject {
     private GameModel model;
     private int superJumpLeft = 1;
     private boolean superJump = false;
-    private boolean[][] fogOfWar;
+    private FogOfWar fogOfWar;
 
     public MonsterModel(GameModel model, ICoordinate startPosition) {
         this.model = model;
         position = (Coordinate) startPosition;
     }
 
-    public boolean[][] getFogOfWar() {
+    /**
+     * Gets the cells the monster has seen.
+     * @return The fog, or `null` if the fog of war isn't enabled.
+     */
+    public FogOfWar getFogOfWar() {
         return fogOfWar;
     }
 
-    public void setFogOfWar(boolean[][] fog) {
+    public void setFogOfWar(FogOfWar fog) {
         this.fogOfWar = fog;
     }
 
+    /**
+     * Hides the maze in the fog, except what the monster sees from its position.
+     * Then the fog is updated at each move of the monster.
+     * @param radius How far the monster sees.
+     */
+    public void enableFogOfWar(int radius) {
+        fogOfWar = new FogOfWar(model.getGrid(), radius);
+        fogOfWar.reveal(position.getCol(), position.getRow());
+    }
+
     public Coordinate getPosition() {
         return position;
     }
 
     public ICoordinate move(ICoordinate movement) {
-        position.setCol(movement.getCol());
-        position.setRow(movement.getRow());
+        position = model.getCoordinate(movement.getCol(), movement.getRow());
         return position;
     }
 
@@ -46,7 +59,11 @@ public class MonsterModel extends Subject {
     private void changePosition(ICoordinate movePosition) {
         model.incrementTurn();
         move(movePosition);
-        model.addToHistory(new CellEvent(((Coordinate)movePosition).clone(), CellInfo.MONSTER, model.getTurn()));
+        if (fogOfWar != null) {
+            fogOfWar.reveal(position.getCol(), position.getRow());
+        }
+        // the position is immutable, so the history can keep it as it is
+        model.addToHistory(new CellEvent(position, CellInfo.MONSTER, model.getTurn()));
     }
 
     /**
@@ -66,6 +83,15 @@ public class MonsterModel extends Subject {
         this.superJump = !this.superJump;
     }
 
+    /**
+     * Replaces the state of the monster with the one of a snapshot (see `GameSnapshot.restore()`).
+     */
+    void restore(Coordinate position, int superJumpLeft, boolean superJump) {
+        this.position = position;
+        this.superJumpLeft = superJumpLeft;
+        this.superJump = superJump;
+    }
+
     public boolean isUsingSuperJump() {
         return superJump;
     }
@@ -80,14 +106,14 @@ public class MonsterModel extends Subject {
 
     /**
      * Checks if the monster is making a valid turn.
-     * If he wants to use a super jump, then we check if it's possible,
-     * otherwise we just check if the movement is valid.
+     * If he wants to use a super jump, then we check if he has one left,
+     * and in any case that the movement is valid (two cells away for a super jump).
      * Use this function to make sure that a turn is never completed with invalid game decisions.
      * @param target The cell the monster wants to go to.
      * @return `true` if the monster can complete his turn, `false` if he has to retry.
      */
     public boolean isTurnValid(ICoordinate target) {
-        return isUsingSuperJump() ? superJumpLeft > 0 : isMonsterMovementValid(target);
+        return (!isUsingSuperJump() || superJumpLeft > 0) && isMonsterMovementValid(target);
     }
 
     /**
@@ -100,17 +126,14 @@ public class MonsterModel extends Subject {
      * @return `true` if the movement is valid, `false` otherwise.
      */
     public boolean isMonsterMovementValid(ICoordinate movement) {
-        double max = shouldUseSuperJump() ? 2.0 : 1.0;
-        ICoordinate mazeDimensions = model.getMazeDimensions();
+        int max = shouldUseSuperJump() ? 2 : 1;
 
         // On vérifie déjà si le déplacement est dans la grille du jeu
-        if (movement.getCol() < 0 || movement.getCol() > mazeDimensions.getCol() || movement.getRow() < 0
-                || movement.getRow() > mazeDimensions.getRow()) {
+        if (!model.getGrid().isInBounds(movement.getCol(), movement.getRow())) {
             return false;
         }
 
-        double distance = Coordinate.distance(model.getMonster().getPosition(), movement);
-        if (distance > max || distance < max) {
+        if (Coordinate.squaredDistance(model.getMonster().getPosition(), movement) != max * max) {
             return false;
         }
 
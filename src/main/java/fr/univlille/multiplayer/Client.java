@@ -1,9 +1,15 @@
 package fr.univlille.multiplayer;
 
 import java.io.IOException;
-import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
 import java.net.UnknownHostException;
 import java.net.Socket;
+import java.util.concurrent.locks.LockSupport;
+
+import fr.univlille.utils.BackgroundTasks;
+import fr.univlille.utils.Log;
 
 /**
  * A player that's not hosting the game, but joining the game created by a host.
@@ -13,6 +19,46 @@ public class Client extends MultiplayerBody {
 	private static Client instance;
 	private Socket socket;
 
+	/**
+	 * The buffered output stream of the socket, created once per connection.
+	 * The communications are written into it by `send()` and sent to the server by `flush()`.
+	 */
+	private volatile OutputStream out;
+
+	/**
+	 * How long the thread reading the socket waits when the incoming buffer is full.
+	 */
+	private static final long BACKPRESSURE_PAUSE_NANOS = 1_000_000;
+
+	/**
+	 * The address of the server, kept to reconnect to it.
+	 */
+	private String serverAddress;
+	private int port;
+
+	/**
+	 * Is the client trying to connect again to the server after losing the connection?
+	 * In the meantime, the communications sent are dropped:
+	 * the game communications are sent again once the connection is resumed (see `DeltaLog`).
+	 */
+	private volatile boolean reconnecting = false;
+
+	/**
+	 * Is the client watching the game instead of playing it (see `Spectator`)?
+	 */
+	private boolean spectating = false;
+
+	/**
+	 * How many times the client tries to reconnect, and how long it waits before each attempt, in milliseconds.
+	 */
+	private static final int RECONNECTION_ATTEMPTS = 5;
+	private static final long RECONNECTION_DELAY = 1000;
+
+	/**
+	 * How long the client waits for the server to accept the connection, in milliseconds.
+	 */
+	private static final int CONNECTION_TIMEOUT = 1000;
+
 	// This class cannot get instantiated outside of the class itself.
 	private Client() {}
 
@@ -37,48 +83,155 @@ public class Client extends MultiplayerBody {
 	 * @throws IOException          If for some reason the connection cannot be establish.
 	 */
 	public void connect(String serverAddress, int port) throws UnknownHostException, IOException {
-		socket = new Socket(serverAddress, port);
+		connect(serverAddress, port, false);
+	}
+
+	/**
+	 * Connects to the server so as to watch its game instead of playing it (see `Spectator`).
+	 * The program receives the game communications of both players, and the snapshots of the game,
+	 * but the server ignores what the spectator sends.
+	 * @param serverAddress The address of the server.
+	 * @param port          The port used by the server to communicate.
+	 * @throws UnknownHostException If the given server address isn't found.
+	 * @throws IOException          If for some reason the connection cannot be establish.
+	 */
+	public void spectate(String serverAddress, int port) throws UnknownHostException, IOException {
+		connect(serverAddress, port, true);
+	}
+
+	private void connect(String serverAddress, int port, boolean spectator) throws IOException {
+		this.spectating = spectator;
+		this.serverAddress = serverAddress;
+		this.port = port;
+		reconnecting = false;
+		deltas.reset();
+		open();
 		announcePresence();
 
-		System.out.println("client successfully connected, and sent welcome to the server");
+		Log.info("client successfully connected, and sent welcome to the server");
+
+		startReader(socket);
+	}
 
-		new Thread(() -> {
+	/**
+	 * Opens the socket and its output stream.
+	 * @throws IOException If the server cannot be reached.
+	 */
+	private void open() throws IOException {
+		Socket opened = new Socket();
+		try {
+			opened.connect(new InetSocketAddress(serverAddress, port), CONNECTION_TIMEOUT);
+			opened.setTcpNoDelay(true);
+			out = MultiplayerUtils.getOutputFromSocket(opened);
+		} catch (IOException e) {
+			opened.close();
+			throw e;
+		}
+		socket = opened;
+	}
+
+	/**
+	 * Reads the socket in the background, until it's closed.
+	 * If the connection is lost without the server having ended the game, the client tries to reconnect.
+	 * @param current The socket to read.
+	 */
+	private void startReader(Socket current) {
+		startTask(() -> {
+			boolean terminated = false;
 			try {
-				String serverMessage = "";
-				BufferedReader in = MultiplayerUtils.getInputFromSocket(socket);
-				while (isAlive() && (serverMessage = in.readLine()) != null) {
-					handleCommunicationOfServer(serverMessage);
+				InputStream in = MultiplayerUtils.getInputFromSocket(current, statistics);
+				while (!current.isClosed()) {
+					MultiplayerCommunication incoming;
+					try {
+						incoming = MultiplayerCodec.read(in);
+					} catch (InvalidCommunicationException e) {
+						// An invalid communication is ignored.
+						Log.warn("Client received invalid communication: ", e.getMessage());
+						continue;
+					}
+					if (incoming == null) {
+						break;
+					}
+					statistics.recordReceivedMessage();
+					terminated = incoming.isCommand(MultiplayerCommand.SERVER_TERMINATION);
+					// The program isn't reading the communications fast enough:
+					// the socket isn't read either until there's room in the buffer.
+					while (!receive(incoming) && !current.isClosed()) {
+						LockSupport.parkNanos(BACKPRESSURE_PAUSE_NANOS);
+					}
 				}
 			} catch (IOException e) {
 				// When `kill()` is executed,
 				// an IOException ("socket closed") is thrown here.
 				// We catch it and we don't want to do anything with it.
 			}
-		}).start();
+			if (!terminated) {
+				connectionLost(current);
+			}
+		});
 	}
 
 	/**
-	 * Handles the incoming communication of the server.
-	 * This methods takes the stringified command read from the input stream of the socket. 
-	 * 
-	 * The communication is parsed into an instance of `MultiplayerCommunication`
-	 * and added into the incoming buffer.
-	 * 
-	 * If defined, `onIncomingCommunicationCallback` is called.
-	 * 
-	 * An invalid communication is ignored.
-	 * @param serverMessage The raw command as a string read from the input stream of the socket.
+	 * Starts reconnecting to the server, unless the socket was closed by `kill()`.
+	 * @param current The socket whose connection was lost.
 	 */
-	private void handleCommunicationOfServer(String serverMessage) {
+	private synchronized void connectionLost(Socket current) {
+		if (current != socket || current.isClosed()) {
+			return;
+		}
+		reconnecting = true;
 		try {
-			MultiplayerCommunication incoming = new MultiplayerCommunication(serverMessage);
-			incomingBuffer.add(incoming);
-			if (onIncomingCommunicationCallback != null) {
-				onIncomingCommunicationCallback.run();
+			current.close();
+		} catch (IOException ignore) { }
+		Log.info("client lost the connection with the server, trying to reconnect");
+		scheduleReconnection(1);
+	}
+
+	private void scheduleReconnection(int attempt) {
+		BackgroundTasks.schedule(RECONNECTION_DELAY, () -> startTask(() -> reconnect(attempt)));
+	}
+
+	/**
+	 * Connects again to the server, announces the client again and asks for what it missed
+	 * by sending `MultiplayerCommand.RESUME`.
+	 * If the server cannot be reached after `RECONNECTION_ATTEMPTS` attempts,
+	 * the program receives `MultiplayerCommand.SERVER_TERMINATION`, as if the server had ended the game.
+	 * @param attempt The number of the attempt, starting at 1.
+	 */
+	private void reconnect(int attempt) {
+		synchronized (this) {
+			if (!reconnecting) {
+				// killed in the meantime
+				return;
 			}
-		} catch (InvalidCommunicationException e) {
-			// An invalid communication is ignored.
-			System.err.println("Server received invalid communication: " + serverMessage);
+			try {
+				open();
+				reconnecting = false;
+				// sent as text, like the first announcement, and without waiting for the end of a batch
+				binaryProtocol = false;
+				send(MultiplayerCodec.encode(createAnnouncement(getRole()), false));
+				if (!spectating) {
+					// a spectator starts again from the last snapshot of the game
+					send(MultiplayerCodec.encode(createResume(true), false));
+				}
+				flush();
+				startReader(socket);
+				Log.info("client reconnected to the server");
+				return;
+			} catch (IOException e) {
+				Log.warn("Client could not reconnect (attempt " + attempt + "/" + RECONNECTION_ATTEMPTS + "): ", e.getMessage());
+				reconnecting = true;
+				if (socket != null) {
+					try {
+						socket.close();
+					} catch (IOException ignore) { }
+				}
+			}
+		}
+		if (attempt < RECONNECTION_ATTEMPTS) {
+			scheduleReconnection(attempt + 1);
+		} else {
+			receive(new MultiplayerCommunication(MultiplayerCommand.SERVER_TERMINATION));
 		}
 	}
 
@@ -87,7 +240,8 @@ public class Client extends MultiplayerBody {
 	 * by sending a communication whose command is `MultiplayerCommand.DISCONNECTION`.
 	 * The communication also holds the local address of the socket so that the Server can recognize this client.
 	 * 
-	 * The `onIncomingCommunicationCallback` is deleted and the incoming buffer is cleared.
+	 * The `onIncomingCommunicationCallback` is deleted and the incoming buffer is cleared,
+	 * and the thread reading the socket is stopped, as well as the attempts to reconnect.
 	 * @throws IOException
 	 */
 	@Override
@@ -96,45 +250,89 @@ public class Client extends MultiplayerBody {
 			return;
 		}
 		super.kill();
-		// Broadcast the disconnection even if the server has already been terminated
-		broadcast(
-			new MultiplayerCommunication(
-				MultiplayerCommand.DISCONNECTION
-			)
-		);
-		socket.close();
+	}
+
+	@Override
+	protected synchronized void close() throws IOException {
+		boolean connected = !reconnecting;
+		reconnecting = false;
+		try {
+			if (connected) {
+				// Broadcast the disconnection even if the server has already been terminated
+				broadcast(
+					new MultiplayerCommunication(
+						MultiplayerCommand.DISCONNECTION
+					)
+				);
+			}
+		} finally {
+			socket.close();
+		}
+	}
+
+	/**
+	 * Is the client watching the game instead of playing it?
+	 */
+	public boolean isSpectating() {
+		return spectating;
 	}
 
 	/**
-	 * Checks if the client was initialized and if it's successfully connected to the server.
+	 * Gets the command announcing the client: `JOIN` for a player, `SPECTATE` for a spectator.
+	 */
+	private MultiplayerCommand getRole() {
+		return spectating ? MultiplayerCommand.SPECTATE : MultiplayerCommand.JOIN;
+	}
+
+	/**
+	 * Checks if the client was initialized and if it's successfully connected to the server,
+	 * or trying to reconnect to it.
 	 * @return `true` if the client is connected, `false` otherwise.
 	 */
 	@Override
 	public boolean isAlive() {
-		return socket != null && !socket.isClosed();
+		return reconnecting || (socket != null && !socket.isClosed());
 	}
 
 	/**
-	 * Sends a message to the server.
-	 * @param message The message to send to the server.
+	 * Writes a message into the buffer of the socket.
+	 * @param bytes The encoded message to send to the server.
 	 * @throws IOException
 	 */
 	@Override
-	public void broadcast(MultiplayerCommunication message) throws IOException {
-		MultiplayerUtils.getOutputFromSocket(socket).println(message.toString());
+	protected void send(byte[] bytes) throws IOException {
+		if (reconnecting) {
+			return;
+		}
+		synchronized (out) {
+			out.write(bytes);
+		}
+		statistics.recordSent(bytes.length);
+	}
+
+	/**
+	 * Sends the buffered messages to the server.
+	 * @throws IOException
+	 */
+	@Override
+	protected void flush() throws IOException {
+		if (reconnecting) {
+			return;
+		}
+		synchronized (out) {
+			out.flush();
+		}
+		statistics.recordWrite();
 	}
 
 	/**
 	 * Sends a message to the server announcing the successfull connection of the client.
 	 * The server needs the hostname of the client so as to display a name in the UI of the lobby.
+	 * It's always sent as text, along with the capabilities of the client, as it doesn't know yet what the server can read.
 	 * @throws IOException
 	 */
 	private void announcePresence() throws IOException {
-		broadcast(
-			new MultiplayerCommunication(
-				MultiplayerCommand.JOIN,
-				MultiplayerUtils.getHostname()
-			)
-		);
+		binaryProtocol = false;
+		broadcast(createAnnouncement(getRole()));
 	}
 }
\ No newline at end of file
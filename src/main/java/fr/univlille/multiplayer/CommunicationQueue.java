@@ -0,0 +1,138 @@
+package fr.univlille.multiplayer;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The queue holding the communications received by a `MultiplayerBody` until the program reads them.
+ *
+ * Any thread can add to it (the thread reading the socket, the thread of the server...),
+ * but a single thread must read it (the thread of JavaFX, or the thread of the server for a session played by a bot).
+ * It doesn't use any lock: a producer reserves a slot by incrementing `tail`,
+ * then publishes the communication in it, and the consumer empties the slot before moving `head`.
+ *
+ * The queue is bounded. When it's full, `offer()` returns `false`
+ * and the producer is expected to wait (see `Client` and `Server`),
+ * so the socket stops being read instead of communications being lost.
+ * The counters (`getEnqueued()`, `getDequeued()`, `getRejected()`, `getMaxDepth()`)
+ * tell whether the program keeps up with what it receives.
+ */
+public class CommunicationQueue {
+	private final AtomicReferenceArray<MultiplayerCommunication> slots;
+	private final int mask;
+
+	/**
+	 * The number of slots reserved by the producers since the creation of the queue.
+	 */
+	private final AtomicLong tail = new AtomicLong();
+
+	/**
+	 * The number of communications read by the consumer since the creation of the queue.
+	 * Only the consumer writes it.
+	 */
+	private volatile long head;
+
+	private final AtomicLong rejected = new AtomicLong();
+	private final AtomicLong maxDepth = new AtomicLong();
+
+	/**
+	 * @param capacity The maximum number of pending communications, rounded up to a power of two.
+	 */
+	public CommunicationQueue(int capacity) {
+		int size = Math.max(2, Integer.highestOneBit(Math.max(1, capacity - 1)) << 1);
+		slots = new AtomicReferenceArray<>(size);
+		mask = size - 1;
+	}
+
+	/**
+	 * Adds a communication at the end of the queue. Can be called by any thread.
+	 * @param communication The received communication.
+	 * @return `false` if the queue is full.
+	 */
+	public boolean offer(MultiplayerCommunication communication) {
+		long index;
+		do {
+			index = tail.get();
+			if (index - head > mask) {
+				rejected.incrementAndGet();
+				return false;
+			}
+		} while (!tail.compareAndSet(index, index + 1));
+		slots.set((int) index & mask, communication);
+		long depth = index + 1 - head;
+		if (depth > maxDepth.get()) {
+			maxDepth.accumulateAndGet(depth, Math::max);
+		}
+		return true;
+	}
+
+	/**
+	 * Removes the oldest communication. Must only be called by the consumer.
+	 * @return The communication, or `null` if there is none
+	 *         (or if the oldest one is still being added by its producer).
+	 */
+	public MultiplayerCommunication poll() {
+		long index = head;
+		int slot = (int) index & mask;
+		MultiplayerCommunication communication = slots.get(slot);
+		if (communication == null) {
+			return null;
+		}
+		slots.set(slot, null);
+		head = index + 1;
+		return communication;
+	}
+
+	/**
+	 * Removes all the pending communications. Must only be called by the consumer.
+	 */
+	public void clear() {
+		while (poll() != null) {
+			// dropped
+		}
+	}
+
+	public boolean isEmpty() {
+		return slots.get((int) head & mask) == null;
+	}
+
+	/**
+	 * Gets the number of pending communications.
+	 * It's only an estimate while producers are adding to the queue.
+	 */
+	public int size() {
+		return (int) Math.max(0, tail.get() - head);
+	}
+
+	public int getCapacity() {
+		return mask + 1;
+	}
+
+	/**
+	 * Gets the number of communications added to the queue since its creation.
+	 */
+	public long getEnqueued() {
+		return tail.get();
+	}
+
+	/**
+	 * Gets the number of communications read (or dropped) since the creation of the queue.
+	 */
+	public long getDequeued() {
+		return head;
+	}
+
+	/**
+	 * Gets the number of times a communication couldn't be added because the queue was full.
+	 */
+	public long getRejected() {
+		return rejected.get();
+	}
+
+	/**
+	 * Gets the largest number of pending communications there has ever been.
+	 */
+	public long getMaxDepth() {
+		return maxDepth.get();
+	}
+}
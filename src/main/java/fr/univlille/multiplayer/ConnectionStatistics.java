@@ -0,0 +1,78 @@
+package fr.univlille.multiplayer;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import fr.univlille.metrics.Meter;
+import fr.univlille.metrics.MetricsRegistry;
+
+/**
+ * The counters of a connection (a `Client`, or a `GameSession` of the server),
+ * so as to monitor what goes through the network.
+ * They are updated by the threads writing and reading the connection, and can be read from any thread.
+ *
+ * The traffic of all the connections is also measured per second, in the meters "multiplayer.messages.sent",
+ * "multiplayer.bytes.sent", "multiplayer.messages.received" and "multiplayer.bytes.received" (see `MetricsRegistry`).
+ */
+public class ConnectionStatistics {
+	private static final Meter MESSAGES_SENT = MetricsRegistry.getInstance().meter("multiplayer.messages.sent");
+	private static final Meter BYTES_SENT = MetricsRegistry.getInstance().meter("multiplayer.bytes.sent");
+	private static final Meter MESSAGES_RECEIVED = MetricsRegistry.getInstance().meter("multiplayer.messages.received");
+	private static final Meter BYTES_RECEIVED = MetricsRegistry.getInstance().meter("multiplayer.bytes.received");
+
+	private final AtomicLong messagesSent = new AtomicLong();
+	private final AtomicLong bytesSent = new AtomicLong();
+	private final AtomicLong writes = new AtomicLong();
+	private final AtomicLong messagesReceived = new AtomicLong();
+	private final AtomicLong bytesReceived = new AtomicLong();
+
+	void recordSent(int bytes) {
+		messagesSent.incrementAndGet();
+		bytesSent.addAndGet(bytes);
+		MESSAGES_SENT.mark();
+		BYTES_SENT.mark(bytes);
+	}
+
+	void recordWrite() {
+		writes.incrementAndGet();
+	}
+
+	void recordReceivedBytes(int bytes) {
+		bytesReceived.addAndGet(bytes);
+		BYTES_RECEIVED.mark(bytes);
+	}
+
+	void recordReceivedMessage() {
+		messagesReceived.incrementAndGet();
+		MESSAGES_RECEIVED.mark();
+	}
+
+	public long getMessagesSent() {
+		return messagesSent.get();
+	}
+
+	public long getBytesSent() {
+		return bytesSent.get();
+	}
+
+	/**
+	 * Gets the number of times the buffered communications were written to the network.
+	 * It's lower than `getMessagesSent()` when communications are sent in batches.
+	 */
+	public long getWrites() {
+		return writes.get();
+	}
+
+	public long getMessagesReceived() {
+		return messagesReceived.get();
+	}
+
+	public long getBytesReceived() {
+		return bytesReceived.get();
+	}
+
+	@Override
+	public String toString() {
+		return "sent " + getMessagesSent() + " messages (" + getBytesSent() + " bytes, " + getWrites() + " writes), "
+			+ "received " + getMessagesReceived() + " messages (" + getBytesReceived() + " bytes)";
+	}
+}
@@ -0,0 +1,89 @@
+package fr.univlille.multiplayer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The numbering of the game communications exchanged with the other body (see `MultiplayerCommand.isSequenced()`),
+ * so that a connection can be lost and resumed without replaying the whole game.
+ *
+ * Each game communication sent is given the next sequence number and kept in a ring of the last `CAPACITY` ones.
+ * When the connection is resumed, each body tells the other the last number it received (`MultiplayerCommand.RESUME`),
+ * and the other sends again what came after it.
+ * If what's missing isn't in the ring anymore, the host sends the whole state of the game instead
+ * (`MultiplayerCommand.SNAPSHOT`).
+ *
+ * The players play one after the other, so only a few communications are ever missing.
+ * It's used by the thread of JavaFX (when sending) and by the thread reading the connection (when receiving),
+ * hence the synchronized methods.
+ */
+class DeltaLog {
+	/**
+	 * The number of game communications kept to be sent again.
+	 */
+	static final int CAPACITY = 64;
+
+	private final MultiplayerCommunication[] sent = new MultiplayerCommunication[CAPACITY];
+	private int lastSent = 0;
+	private int lastReceived = 0;
+
+	/**
+	 * Gives the next sequence number to a game communication, and keeps it.
+	 * @param communication A communication about to be sent for the first time.
+	 */
+	synchronized void record(MultiplayerCommunication communication) {
+		communication.setSequence(++lastSent);
+		sent[lastSent % CAPACITY] = communication;
+	}
+
+	/**
+	 * Gets the game communications sent after the given one.
+	 * @param acknowledged The sequence number of the last communication received by the other body.
+	 * @return The communications to send again, in order,
+	 *         or `null` if some of them aren't kept anymore (or if the other body has a different numbering).
+	 */
+	synchronized List<MultiplayerCommunication> since(int acknowledged) {
+		if (acknowledged < 0 || acknowledged > lastSent || lastSent - acknowledged > CAPACITY) {
+			return null;
+		}
+		List<MultiplayerCommunication> missing = new ArrayList<>(lastSent - acknowledged);
+		for (int sequence = acknowledged + 1; sequence <= lastSent; sequence++) {
+			missing.add(sent[sequence % CAPACITY]);
+		}
+		return missing;
+	}
+
+	/**
+	 * Checks if a game communication was already received (it's sent again after a reconnection).
+	 * @param sequence The sequence number of a received communication.
+	 */
+	synchronized boolean isDuplicate(int sequence) {
+		return sequence > 0 && sequence <= lastReceived;
+	}
+
+	/**
+	 * Remembers that the game communications up to the given one were received.
+	 * @param sequence The sequence number of the last communication received.
+	 */
+	synchronized void acknowledge(int sequence) {
+		lastReceived = Math.max(lastReceived, sequence);
+	}
+
+	synchronized int getLastSent() {
+		return lastSent;
+	}
+
+	synchronized int getLastReceived() {
+		return lastReceived;
+	}
+
+	/**
+	 * Forgets everything, when the other body left for good.
+	 */
+	synchronized void reset() {
+		lastSent = 0;
+		lastReceived = 0;
+		Arrays.fill(sent, null);
+	}
+}
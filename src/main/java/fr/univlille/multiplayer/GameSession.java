@@ -0,0 +1,226 @@
+package fr.univlille.multiplayer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * A game hosted by the `Server`: the connection with one client, identified by the id of its lobby.
+ *
+ * The server reads and writes the channel of every session from a single thread (see `Server`),
+ * so a session never blocks: `broadcast()` only queues the bytes and asks the server to write them.
+ *
+ * The communications received from the client go to the `owner` of the session.
+ * It's the session itself by default, but the session played by the user of this instance
+ * forwards them to `Server.getInstance()`, which is the body used by the controllers.
+ */
+public class GameSession extends MultiplayerBody {
+	/**
+	 * The size of the buffers of a session.
+	 * A message is a few bytes long, so a larger buffer is only allocated when a larger frame arrives.
+	 */
+	static final int BUFFER_SIZE = 4096;
+
+	private final String lobbyId;
+	private final SocketChannel channel;
+	private final Server server;
+	private SelectionKey key;
+	private MultiplayerBody owner = this;
+	private String clientHostname;
+
+	/**
+	 * The bytes received from the client that don't form a complete communication yet.
+	 * Only the thread of the server uses it.
+	 */
+	ByteBuffer readBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+	/**
+	 * The bytes being written to the channel.
+	 * Only the thread of the server uses it, and it's always ready to be filled.
+	 */
+	final ByteBuffer writeBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+	/**
+	 * The encoded communications waiting to be copied into `writeBuffer`.
+	 * Any thread can add to it.
+	 */
+	final Queue<ByteBuffer> outgoing = new ConcurrentLinkedQueue<>();
+
+	/**
+	 * The communication that couldn't be added to the incoming buffer of the owner because it was full.
+	 * The server stops reading the channel until it's accepted.
+	 * Only the thread of the server uses it.
+	 */
+	MultiplayerCommunication stalled;
+
+	/**
+	 * Set by `kill()`: the channel is closed by the server once everything has been written.
+	 */
+	private volatile boolean closing = false;
+
+	/**
+	 * Set by the server when nobody can play against the client of this session:
+	 * it's refused, unless it only wants to watch the game (see `MultiplayerCommand.SPECTATE`).
+	 */
+	private boolean spectatorOnly = false;
+
+	GameSession(Server server, String lobbyId, SocketChannel channel) {
+		this.server = server;
+		this.lobbyId = lobbyId;
+		this.channel = channel;
+	}
+
+	/**
+	 * Gets the id of the lobby of this game, under which the server registered it.
+	 */
+	public String getLobbyId() {
+		return lobbyId;
+	}
+
+	/**
+	 * Gets the name of the client, sent with `MultiplayerCommand.JOIN`.
+	 * @return The hostname of the client, or `null` if it hasn't joined yet.
+	 */
+	public String getClientHostname() {
+		return clientHostname;
+	}
+
+	SocketChannel getChannel() {
+		return channel;
+	}
+
+	SelectionKey getKey() {
+		return key;
+	}
+
+	void setKey(SelectionKey key) {
+		this.key = key;
+	}
+
+	/**
+	 * Sets the body receiving the communications of the client.
+	 * @param owner The body playing against the client.
+	 */
+	void setOwner(MultiplayerBody owner) {
+		this.owner = owner;
+	}
+
+	boolean isClosing() {
+		return closing;
+	}
+
+	boolean isSpectatorOnly() {
+		return spectatorOnly;
+	}
+
+	void setSpectatorOnly(boolean spectatorOnly) {
+		this.spectatorOnly = spectatorOnly;
+	}
+
+	/**
+	 * Handles a communication read by the server from the channel of this session.
+	 * @param incoming The communication sent by the client.
+	 */
+	@Override
+	protected boolean receive(MultiplayerCommunication incoming) {
+		if (incoming.isCommand(MultiplayerCommand.JOIN)) {
+			clientHostname = incoming.getParameter(0);
+		}
+		if (owner == this) {
+			return super.receive(incoming);
+		}
+		return owner.receive(incoming);
+	}
+
+	/**
+	 * The format is negotiated by the owner of the session.
+	 */
+	@Override
+	public boolean usesBinaryProtocol() {
+		return owner == this ? super.usesBinaryProtocol() : owner.usesBinaryProtocol();
+	}
+
+	/**
+	 * Queues an encoded communication, until `flush()` is called.
+	 * @param bytes The communication to send to the client.
+	 */
+	@Override
+	protected void send(byte[] bytes) throws IOException {
+		if (!channel.isOpen()) {
+			throw new IOException("The session " + lobbyId + " is closed.");
+		}
+		outgoing.add(ByteBuffer.wrap(bytes));
+		statistics.recordSent(bytes.length);
+	}
+
+	/**
+	 * Asks the server to write the queued communications as soon as the channel is ready.
+	 * They are copied into the same buffer, so a batch goes out in a single write.
+	 */
+	@Override
+	protected void flush() {
+		server.requestWrite(this);
+	}
+
+	/**
+	 * Copies the queued communications into `writeBuffer` and writes as much as the channel accepts.
+	 * Called by the thread of the server only.
+	 * @return `true` if everything was written, `false` if the channel is full.
+	 * @throws IOException If the channel cannot be written.
+	 */
+	boolean writeToChannel() throws IOException {
+		while (true) {
+			ByteBuffer next;
+			while (writeBuffer.hasRemaining() && (next = outgoing.peek()) != null) {
+				int length = Math.min(next.remaining(), writeBuffer.remaining());
+				ByteBuffer chunk = next.slice();
+				chunk.limit(length);
+				writeBuffer.put(chunk);
+				next.position(next.position() + length);
+				if (!next.hasRemaining()) {
+					outgoing.poll();
+				}
+			}
+			writeBuffer.flip();
+			channel.write(writeBuffer);
+			statistics.recordWrite();
+			boolean written = !writeBuffer.hasRemaining();
+			writeBuffer.compact();
+			if (!written) {
+				return false;
+			}
+			if (outgoing.isEmpty()) {
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * Informs the client about the end of the game by sending `MultiplayerCommand.SERVER_TERMINATION`,
+	 * then closes the connection once the pending communications have been written.
+	 */
+	@Override
+	public void kill() throws IOException {
+		if (!isAlive()) {
+			return;
+		}
+		super.kill();
+	}
+
+	@Override
+	protected void close() throws IOException {
+		closing = true;
+		broadcast(new MultiplayerCommunication(MultiplayerCommand.SERVER_TERMINATION));
+	}
+
+	/**
+	 * Checks if the client is still connected and the session hasn't been killed.
+	 */
+	@Override
+	public boolean isAlive() {
+		return channel.isOpen() && !closing;
+	}
+}
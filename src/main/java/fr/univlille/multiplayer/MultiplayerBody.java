@@ -1,8 +1,19 @@
 package fr.univlille.multiplayer;
 
 import java.io.IOException;
-import java.util.LinkedList;
-import java.util.Queue;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import fr.univlille.metrics.Histogram;
+import fr.univlille.metrics.MetricsRegistry;
+import fr.univlille.utils.BackgroundTasks;
+import fr.univlille.utils.Log;
 
 /**
  * A multiplayer instance (the server, or a client)
@@ -12,17 +23,32 @@ import java.util.Queue;
  * and the program will read them whenever it needs to.
  */
 public abstract class MultiplayerBody {
+	/**
+	 * The maximum number of communications waiting to be read.
+	 * A game only exchanges a few communications per turn,
+	 * so the buffer is full only if the program stopped reading it.
+	 */
+	public static final int INCOMING_BUFFER_CAPACITY = 1024;
+
 	/**
 	 * When a multiplayer body sends an asynchronous message to another,
 	 * it stores it into a queue, waiting for the program to read them.
 	 * Invalid communications are ignored.
+	 *
+	 * The thread reading the socket adds to it, and the thread of JavaFX reads it (see `CommunicationQueue`).
 	 */
-	protected Queue<MultiplayerCommunication> incomingBuffer = new LinkedList<>();
+	protected final CommunicationQueue incomingBuffer = new CommunicationQueue(INCOMING_BUFFER_CAPACITY);
 
 	/**
 	 * The callback to execute when the body is receiving a message (optional).
 	 */
-	protected Runnable onIncomingCommunicationCallback;
+	protected volatile Runnable onIncomingCommunicationCallback;
+
+	/**
+	 * Was the callback run since the last time the communications were drained?
+	 * The callback is run once per burst of communications, not once per communication.
+	 */
+	private final AtomicBoolean callbackPending = new AtomicBoolean(false);
 
 	/**
 	 * There is only two possible states:
@@ -32,6 +58,76 @@ public abstract class MultiplayerBody {
 	 */
 	protected boolean ishunter = false;
 
+	/**
+	 * Can the other body read the binary format of `MultiplayerCodec`?
+	 * It's `false` until the other announces it by sending `MultiplayerCodec.CAPABILITY`
+	 * along with `HOST` or `JOIN`, so the communications are sent as text to an older version of the game.
+	 * It's written by the thread that receives the handshake, and read by the threads that send or decode.
+	 */
+	protected volatile boolean binaryProtocol = false;
+
+	/**
+	 * The time given to the background tasks to stop when the body is killed, in milliseconds.
+	 */
+	private static final long TASK_SHUTDOWN_TIMEOUT = 1000;
+
+	/**
+	 * The background tasks of this body, stopped by `kill()`.
+	 * The finished ones are removed whenever a task is started (see `startTask()`),
+	 * as a client starts a new one for each attempt to reconnect.
+	 */
+	private final Set<Future<?>> tasks = ConcurrentHashMap.newKeySet();
+
+	/**
+	 * Waits in the background for the tasks stopped by the last `kill()`.
+	 */
+	private volatile Future<?> stopping;
+
+	/**
+	 * The number of batches started and not ended yet (see `beginBatch()`).
+	 * It's guarded by `batchLock`.
+	 */
+	private int batchDepth = 0;
+
+	/**
+	 * Taken to write to the connection, so that the answers sent by the thread reading the connection
+	 * (see `sendNow()`) don't write a batch that the program hasn't ended yet.
+	 */
+	private final Object batchLock = new Object();
+
+	/**
+	 * The counters of the connection with the other body.
+	 */
+	protected final ConnectionStatistics statistics = new ConnectionStatistics();
+
+	/**
+	 * The numbering of the game communications, so that they can be sent again
+	 * if the connection is lost and resumed (see `DeltaLog`).
+	 */
+	protected final DeltaLog deltas = new DeltaLog();
+
+	/**
+	 * The round-trip times measured with `PING` and `PONG`, in microseconds.
+	 */
+	private static final Histogram ROUND_TRIP_TIMES = MetricsRegistry.getInstance().histogram("multiplayer.rtt");
+
+	/**
+	 * The latencies of the turns, from the moment the other player sent its move
+	 * to the moment the program read it, in microseconds (see `recordTurnLatency()`).
+	 */
+	private static final Histogram TURN_LATENCIES = MetricsRegistry.getInstance().histogram("multiplayer.turn.latency");
+
+	/**
+	 * The round-trip time of the connection, smoothed over the last measures, in nanoseconds.
+	 * It's `-1` until the first `PONG` is received.
+	 */
+	private volatile long smoothedRoundTripTime = -1;
+
+	/**
+	 * Incremented to stop the pings started by `startPinging()`.
+	 */
+	private final AtomicInteger pingGeneration = new AtomicInteger();
+
 	/**
 	 * Is the multiplayer body a hunter? If true, it means that the other is the monster.
 	 * @return `true` if the body is a hunter, `false` if it's the monster.
@@ -66,6 +162,35 @@ public abstract class MultiplayerBody {
 		return incomingBuffer.poll();
 	}
 
+	/**
+	 * Reads all the pending communications, in the order they were received.
+	 * The callback will be run again for the communications received after this call.
+	 * 
+	 * If the handler changes the callback (for example, when a communication makes the program change scene),
+	 * the reading stops and the following communications are left for the new callback.
+	 * @param handler What to do with each communication.
+	 * @return The number of communications read.
+	 */
+	public int drainCommunications(Consumer<MultiplayerCommunication> handler) {
+		Runnable callback = onIncomingCommunicationCallback;
+		callbackPending.set(false);
+		int count = 0;
+		MultiplayerCommunication communication;
+		while (onIncomingCommunicationCallback == callback && (communication = incomingBuffer.poll()) != null) {
+			handler.accept(communication);
+			count++;
+		}
+		return count;
+	}
+
+	/**
+	 * Gets the buffer of the incoming communications, so as to read its counters
+	 * (depth, enqueued, dequeued, rejected).
+	 */
+	public CommunicationQueue getIncomingBuffer() {
+		return incomingBuffer;
+	}
+
 	/**
 	 * Deletes all pending communications.
 	 */
@@ -78,21 +203,30 @@ public abstract class MultiplayerBody {
 	 * It's very useful because if the server or the client are waiting for a communication,
 	 * we don't want this action to block the main thread.
 	 * 
+	 * The callback is run once for a burst of communications, from the thread that received them,
+	 * and it must read all of them with `drainCommunications()` (usually inside `Platform.runLater()`).
+	 * It isn't run again until `drainCommunications()` is called.
+	 * 
 	 * If there are pending requests when calling this method,
-	 * then the given callback is ran as many times
-	 * as there are pending requests.
+	 * then the given callback is ran once.
 	 * @param callback
 	 */
 	public void setIncomingCommunicationCallback(Runnable callback) {
-		// WARNING: cannot use `while(hasPendingRequests()) { callback.run(); }`
-		// because even tough the callback is ran, the actual code is ran using Platform.runLater()
-		// and as a consequence, the very first callback is actually executed when the loop is over,
-		// and so it would lead to infinite loop.
-		// We must use a for loop, keeping in mind that the incomingBuffer will not get modified in this thread.
- 		for (int i = 0; i < incomingBuffer.size(); i++) {
+		onIncomingCommunicationCallback = callback;
+		callbackPending.set(false);
+		if (!incomingBuffer.isEmpty()) {
+			notifyIncomingCommunication();
+		}
+	}
+
+	/**
+	 * Runs the callback, unless it has already been run for communications that haven't been drained yet.
+	 */
+	private void notifyIncomingCommunication() {
+		Runnable callback = onIncomingCommunicationCallback;
+		if (callback != null && callbackPending.compareAndSet(false, true)) {
 			callback.run();
 		}
-		onIncomingCommunicationCallback = callback;
 	}
 
 	/**
@@ -110,12 +244,373 @@ public abstract class MultiplayerBody {
 		return onIncomingCommunicationCallback != null;
 	}
 
+	/**
+	 * Checks if the communications are sent using the binary format of `MultiplayerCodec`.
+	 * @return `true` if the other body announced that it can read the binary format.
+	 */
+	public boolean usesBinaryProtocol() {
+		return binaryProtocol;
+	}
+
+	/**
+	 * Handles a communication received from the other body.
+	 * The format of the next communications is negotiated if it's `HOST` or `JOIN`,
+	 * then the communication is added to the incoming buffer and,
+	 * if defined, `onIncomingCommunicationCallback` is called.
+	 *
+	 * The game communications that were already received are ignored,
+	 * and `RESUME` is answered here, unless the program has to send a snapshot (see `resume()`).
+	 * @param incoming The communication sent by the other body.
+	 * @return `false` if the incoming buffer is full: the caller must try again later.
+	 */
+	protected boolean receive(MultiplayerCommunication incoming) {
+		incoming.setReceivedAt(System.nanoTime());
+		if (incoming.isCommand(MultiplayerCommand.PING)) {
+			pong(incoming);
+			return true;
+		}
+		if (incoming.isCommand(MultiplayerCommand.PONG)) {
+			measureRoundTrip(incoming);
+			return true;
+		}
+		negotiate(incoming);
+		if (deltas.isDuplicate(incoming.getSequence())) {
+			// sent again after a reconnection, but it had been received before
+			return true;
+		}
+		if (incoming.isCommand(MultiplayerCommand.RESUME) && resume(incoming)) {
+			return true;
+		}
+		if (!incomingBuffer.offer(incoming)) {
+			return false;
+		}
+		acknowledge(incoming);
+		notifyIncomingCommunication();
+		return true;
+	}
+
+	/**
+	 * Updates the numbering of the game communications with a communication accepted by `receive()`.
+	 * @param incoming The communication sent by the other body.
+	 */
+	private void acknowledge(MultiplayerCommunication incoming) {
+		if (incoming.getSequence() > 0) {
+			deltas.acknowledge(incoming.getSequence());
+		} else if (incoming.isCommand(MultiplayerCommand.SNAPSHOT) && incoming.hasParameters()) {
+			// the snapshot contains every game communication sent by the host until then
+			try {
+				deltas.acknowledge(Integer.parseInt(incoming.getParameter(0)));
+			} catch (NumberFormatException ignore) { }
+		} else if (incoming.isCommand(MultiplayerCommand.DISCONNECTION) || incoming.isCommand(MultiplayerCommand.SERVER_TERMINATION)) {
+			// the other body left for good, the next game starts from scratch
+			deltas.reset();
+		}
+	}
+
+	/**
+	 * Answers `MultiplayerCommand.RESUME`, sent by the other body after a reconnection:
+	 * the game communications it missed are sent again, and, if it asked for it,
+	 * this body tells what it received too, so that the other sends again what this body missed.
+	 * @param incoming The communication `RESUME` ("N;R", see `MultiplayerCommand`).
+	 * @return `false` if the missed communications aren't kept anymore:
+	 *         `RESUME` must then be read by the program, so that the host sends a snapshot.
+	 */
+	private boolean resume(MultiplayerCommunication incoming) {
+		int acknowledged;
+		try {
+			acknowledged = Integer.parseInt(incoming.getParameter(0));
+		} catch (NumberFormatException e) {
+			acknowledged = -1;
+		}
+		List<MultiplayerCommunication> missing = deltas.since(acknowledged);
+		List<MultiplayerCommunication> replies = new ArrayList<>();
+		if ("1".equals(incoming.getParameter(1))) {
+			replies.add(createResume(false));
+		}
+		if (missing != null) {
+			replies.addAll(missing);
+		}
+		try {
+			sendNow(replies);
+		} catch (IOException e) {
+			Log.warn("Could not resume the game: ", e.getMessage());
+		}
+		return missing != null;
+	}
+
+	/**
+	 * Sends communications without numbering them: it's used to answer the other body from the thread reading the connection.
+	 * They're written immediately, unless the program is in the middle of a batch:
+	 * they're then written along with the batch by `endBatch()`, so as not to send a part of the batch before the rest.
+	 * @param communications The communications to send.
+	 * @throws IOException If the connection led to an Exception.
+	 */
+	private void sendNow(List<MultiplayerCommunication> communications) throws IOException {
+		boolean binary = usesBinaryProtocol();
+		synchronized (batchLock) {
+			for (MultiplayerCommunication communication : communications) {
+				send(MultiplayerCodec.encode(communication, binary));
+			}
+			if (batchDepth == 0) {
+				flush();
+			}
+		}
+	}
+
+	/**
+	 * Sends a `PING` to the other body, whose `PONG` will update the round-trip time of the connection.
+	 * Nothing is sent if the other body cannot read the binary format,
+	 * as it's an older version of the game that doesn't know these commands.
+	 * @throws IOException If the connection led to an Exception.
+	 */
+	public void ping() throws IOException {
+		if (usesBinaryProtocol() && isAlive()) {
+			sendNow(List.of(new MultiplayerCommunication(MultiplayerCommand.PING, String.valueOf(System.nanoTime()))));
+		}
+	}
+
+	/**
+	 * Sends a `PING` to the other body regularly, in the background, until the body is killed
+	 * or until this method is called again.
+	 * @param periodMillis The time between two pings, in milliseconds.
+	 */
+	public void startPinging(long periodMillis) {
+		schedulePing(pingGeneration.incrementAndGet(), periodMillis);
+	}
+
+	private void schedulePing(int generation, long periodMillis) {
+		BackgroundTasks.schedule(periodMillis, () -> {
+			if (pingGeneration.get() != generation || !isAlive()) {
+				return;
+			}
+			try {
+				ping();
+			} catch (IOException e) {
+				Log.debug("Could not send a ping: ", e.getMessage());
+			}
+			schedulePing(generation, periodMillis);
+		});
+	}
+
+	/**
+	 * Answers a `PING` with a `PONG` carrying the same parameter.
+	 * @param ping The communication `PING` sent by the other body.
+	 */
+	private void pong(MultiplayerCommunication ping) {
+		try {
+			sendNow(List.of(new MultiplayerCommunication(MultiplayerCommand.PONG, ping.getParameter(0))));
+		} catch (IOException e) {
+			Log.debug("Could not answer a ping: ", e.getMessage());
+		}
+	}
+
+	/**
+	 * Measures the round-trip time of the connection with the `PONG` answering a `PING` of this body.
+	 * @param pong The communication `PONG`, whose parameter is the time at which the `PING` was sent.
+	 */
+	private void measureRoundTrip(MultiplayerCommunication pong) {
+		long sentAt;
+		try {
+			sentAt = Long.parseLong(pong.getParameter(0));
+		} catch (NumberFormatException e) {
+			return;
+		}
+		long roundTrip = pong.getReceivedAt() - sentAt;
+		if (roundTrip < 0) {
+			return;
+		}
+		ROUND_TRIP_TIMES.record(roundTrip / 1000);
+		long previous = smoothedRoundTripTime;
+		// the same smoothing as TCP (RFC 6298): 1/8 of the new measure
+		smoothedRoundTripTime = previous < 0 ? roundTrip : previous + (roundTrip - previous) / 8;
+	}
+
+	/**
+	 * Gets the round-trip time of the connection, smoothed over the last pings.
+	 * @return The round-trip time in microseconds, or `-1` if it hasn't been measured yet.
+	 */
+	public long getRoundTripTime() {
+		long roundTrip = smoothedRoundTripTime;
+		return roundTrip < 0 ? -1 : roundTrip / 1000;
+	}
+
+	/**
+	 * Records the latency of a turn, from the moment the other player sent its move
+	 * to now, the moment the program reads it (see `TURN_LATENCIES`).
+	 * The clocks of the two machines aren't synchronized, so the time spent on the network
+	 * is estimated as half the round-trip time, to which is added the time the move waited on this machine.
+	 * @param move A game communication received from the other body.
+	 */
+	public void recordTurnLatency(MultiplayerCommunication move) {
+		if (move.getReceivedAt() == 0) {
+			return;
+		}
+		long latency = System.nanoTime() - move.getReceivedAt();
+		long roundTrip = smoothedRoundTripTime;
+		if (roundTrip > 0) {
+			latency += roundTrip / 2;
+		}
+		TURN_LATENCIES.record(latency / 1000);
+	}
+
+	/**
+	 * Creates the communication `MultiplayerCommand.RESUME`,
+	 * telling the other body the last game communication received from it.
+	 * @param replyRequested `true` if the other body must answer with its own `RESUME`.
+	 * @return The communication to send.
+	 */
+	protected MultiplayerCommunication createResume(boolean replyRequested) {
+		return new MultiplayerCommunication(MultiplayerCommand.RESUME, deltas.getLastReceived() + ";" + (replyRequested ? 1 : 0));
+	}
+
+	/**
+	 * Gets the sequence number of the last game communication sent to the other body.
+	 * It's sent along with a snapshot of the game, as the snapshot contains all of them.
+	 */
+	public int getLastSentSequence() {
+		return deltas.getLastSent();
+	}
+
+	/**
+	 * Reads the capabilities announced by the other body in `HOST` or `JOIN`.
+	 * The first parameter is the hostname, the second one (optional) is `MultiplayerCodec.CAPABILITY`.
+	 * @param incoming A communication received from the other body.
+	 */
+	protected void negotiate(MultiplayerCommunication incoming) {
+		if (incoming.isCommand(MultiplayerCommand.HOST) || incoming.isCommand(MultiplayerCommand.JOIN)) {
+			binaryProtocol = MultiplayerCodec.CAPABILITY.equals(incoming.getParameter(1));
+		}
+	}
+
+	/**
+	 * Creates the communication announcing the presence of this body (`HOST`, `JOIN` or `SPECTATE`),
+	 * with the hostname of the machine and the capabilities of this version of the game.
+	 * @param command `MultiplayerCommand.HOST`, `MultiplayerCommand.JOIN` or `MultiplayerCommand.SPECTATE`.
+	 * @return The communication to send.
+	 */
+	protected static MultiplayerCommunication createAnnouncement(MultiplayerCommand command) {
+		return new MultiplayerCommunication(command, MultiplayerUtils.getHostname() + ";" + MultiplayerCodec.CAPABILITY);
+	}
+
 	public abstract boolean isAlive();
 
-	public abstract void broadcast(MultiplayerCommunication communication) throws IOException;
-	
+	/**
+	 * Sends a communication to the other body, in the format negotiated with it.
+	 * It's written to the network immediately, unless a batch was started with `beginBatch()`.
+	 * The game communications are numbered and kept, to be sent again if the connection is lost (see `DeltaLog`).
+	 * @param communication The communication to send.
+	 * @throws IOException If the connection led to an Exception.
+	 */
+	public void broadcast(MultiplayerCommunication communication) throws IOException {
+		synchronized (batchLock) {
+			if (communication.getCommand().isSequenced() && communication.getSequence() == 0) {
+				deltas.record(communication);
+			}
+			send(MultiplayerCodec.encode(communication, usesBinaryProtocol()));
+			if (batchDepth == 0) {
+				flush();
+			}
+		}
+	}
+
+	/**
+	 * Starts a batch: the communications sent until `endBatch()` are kept in the buffer of the connection,
+	 * then written all at once, so that the communications of a turn go out in a single write.
+	 * The batches can be nested, and must be used by the thread that sends the communications.
+	 */
+	public void beginBatch() {
+		synchronized (batchLock) {
+			batchDepth++;
+		}
+	}
+
+	/**
+	 * Ends a batch started with `beginBatch()`, and writes the communications of the batch.
+	 * @throws IOException If the connection led to an Exception.
+	 */
+	public void endBatch() throws IOException {
+		synchronized (batchLock) {
+			if (batchDepth > 0 && --batchDepth == 0 && isAlive()) {
+				flush();
+			}
+		}
+	}
+
+	/**
+	 * Adds an encoded communication to the buffer of the connection, without necessarily writing it.
+	 * @param bytes The communication, encoded by `MultiplayerCodec`.
+	 * @throws IOException If the connection led to an Exception.
+	 */
+	protected abstract void send(byte[] bytes) throws IOException;
+
+	/**
+	 * Writes what's in the buffer of the connection to the network.
+	 * @throws IOException If the connection led to an Exception.
+	 */
+	protected abstract void flush() throws IOException;
+
+	/**
+	 * Gets the counters of the connection with the other body.
+	 */
+	public ConnectionStatistics getStatistics() {
+		return statistics;
+	}
+
+	/**
+	 * Runs a loop of this body in the background (see `BackgroundTasks`),
+	 * for example the loop reading the socket.
+	 * The loop must stop once `close()` has been called.
+	 * @param task The loop to run.
+	 */
+	protected void startTask(Runnable task) {
+		tasks.removeIf(Future::isDone);
+		tasks.add(BackgroundTasks.submit(task));
+	}
+
+	/**
+	 * Releases the resources of this body (sockets, channels...),
+	 * which makes its background tasks stop.
+	 * @throws IOException
+	 */
+	protected void close() throws IOException { }
+
+	/**
+	 * Stops this body: the callback and the pending communications are dropped,
+	 * and the resources are released by `close()`.
+	 * It's usually called from the thread of JavaFX, so it doesn't wait for the background tasks to stop:
+	 * another background task does, and cancels them if they take too long (see `awaitTermination()`).
+	 * The body can be used again right away.
+	 * @throws IOException
+	 */
 	public void kill() throws IOException {
 		stopIncomingCommunicationCallback();
 		dropCommunications();
+		pingGeneration.incrementAndGet();
+		try {
+			close();
+		} finally {
+			binaryProtocol = false;
+			smoothedRoundTripTime = -1;
+			deltas.reset();
+			List<Future<?>> stopped = new ArrayList<>(tasks);
+			tasks.removeAll(stopped);
+			stopping = BackgroundTasks.submit(() -> {
+				for (Future<?> task : stopped) {
+					BackgroundTasks.await(task, TASK_SHUTDOWN_TIMEOUT);
+				}
+			});
+		}
+	}
+
+	/**
+	 * Waits for the background tasks stopped by the last `kill()`,
+	 * for example before the application exits, so that they can send what's pending.
+	 * It blocks for up to a second per task.
+	 */
+	public void awaitTermination() {
+		Future<?> waiting = stopping;
+		if (waiting != null) {
+			BackgroundTasks.await(waiting, Long.MAX_VALUE);
+		}
 	}
 }
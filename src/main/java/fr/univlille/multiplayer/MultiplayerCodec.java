@@ -0,0 +1,315 @@
+package fr.univlille.multiplayer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads and writes the communications sent between the host and the client.
+ *
+ * Two formats exist:
+ * - the text format, a line such as "command=6;3-4;false" (see `MultiplayerCommunication.toString()`),
+ * - the binary format, a frame starting with `FRAME_MARKER`:
+ *   ```
+ *   FRAME_MARKER | length (varint) | command (1 byte) | [sequence (varint)] | payload
+ *   ```
+ *   The highest bit of the command (`FLAG_SEQUENCED`) is set when the sequence number of a game communication follows
+ *   (see `MultiplayerCommunication.getSequence()`).
+ *   For a move (`MONSTER_PLAYED` or `HUNTER_PLAYED`), the payload is a byte of flags
+ *   (`FLAG_POWERUP` if the super jump or a grenade was used) followed by the coordinates as zigzag varints.
+ *   For any other command, it's the number of parameters followed by each parameter (length and UTF-8 bytes).
+ *
+ * A text line never starts with `FRAME_MARKER`, so the reader accepts both formats at any time.
+ * The binary format is only sent to an instance that announced it can read it,
+ * by sending `CAPABILITY` as the second parameter of `HOST` or `JOIN` (see `MultiplayerBody.negotiate()`).
+ * An older instance ignores this parameter and keeps receiving text.
+ * The sequence numbers only exist in the binary format, as only the instances that can read it know how to reconnect.
+ */
+public class MultiplayerCodec {
+  private MultiplayerCodec() {}
+
+  /**
+   * The parameter of `HOST` and `JOIN` announcing that the binary format can be read.
+   */
+  public static final String CAPABILITY = "binary2";
+
+  /**
+   * The first byte of a binary frame.
+   */
+  static final int FRAME_MARKER = 0;
+
+  /**
+   * The flag set when a powerup was used during a move.
+   */
+  static final int FLAG_POWERUP = 1;
+
+  /**
+   * The bit of the command byte set when the frame holds a sequence number.
+   */
+  static final int FLAG_SEQUENCED = 0x80;
+
+  /**
+   * The largest frame accepted, so that a corrupted length cannot allocate an enormous buffer.
+   */
+  static final int MAX_FRAME_LENGTH = 1 << 16;
+
+  /**
+   * Encodes a communication.
+   * @param communication The communication to send.
+   * @param binary        `true` to use the binary format, `false` for the text format.
+   * @return The bytes to write on the socket.
+   */
+  public static byte[] encode(MultiplayerCommunication communication, boolean binary) {
+    if (!binary) {
+      return (communication.toString() + "\n").getBytes(StandardCharsets.UTF_8);
+    }
+    ByteArrayOutputStream body = new ByteArrayOutputStream(16);
+    int sequence = communication.getSequence();
+    if (sequence > 0) {
+      body.write(communication.getCommand().ordinal() | FLAG_SEQUENCED);
+      writeVarint(body, sequence);
+    } else {
+      body.write(communication.getCommand().ordinal());
+    }
+    if (communication.isMove()) {
+      body.write(communication.isPowerupUsed() ? FLAG_POWERUP : 0);
+      writeVarint(body, zigzag(communication.getMoveX()));
+      writeVarint(body, zigzag(communication.getMoveY()));
+    } else {
+      String[] parameters = communication.getParameters();
+      int count = parameters == null ? 0 : parameters.length;
+      writeVarint(body, count);
+      for (int i = 0; i < count; i++) {
+        byte[] bytes = parameters[i].getBytes(StandardCharsets.UTF_8);
+        writeVarint(body, bytes.length);
+        body.write(bytes, 0, bytes.length);
+      }
+    }
+    ByteArrayOutputStream frame = new ByteArrayOutputStream(body.size() + 4);
+    frame.write(FRAME_MARKER);
+    writeVarint(frame, body.size());
+    frame.write(body.toByteArray(), 0, body.size());
+    return frame.toByteArray();
+  }
+
+  /**
+   * Reads the next communication, whatever its format.
+   * @param in The input stream of the socket. It should be buffered, as it's read byte by byte.
+   * @return The communication, or `null` if the stream has ended.
+   * @throws IOException If the stream cannot be read.
+   * @throws InvalidCommunicationException If the communication isn't valid.
+   *         The rest of the stream can still be read.
+   */
+  public static MultiplayerCommunication read(InputStream in) throws IOException, InvalidCommunicationException {
+    int first = in.read();
+    if (first == -1) {
+      return null;
+    }
+    if (first == FRAME_MARKER) {
+      int length = readVarint(in);
+      if (length <= 0 || length > MAX_FRAME_LENGTH) {
+        throw new IOException("Invalid frame length: " + length);
+      }
+      byte[] body = in.readNBytes(length);
+      if (body.length < length) {
+        throw new EOFException("The stream ended in the middle of a frame.");
+      }
+      return decodeFrame(body);
+    }
+    ByteArrayOutputStream line = new ByteArrayOutputStream(32);
+    int b = first;
+    while (b != '\n' && b != -1) {
+      line.write(b);
+      b = in.read();
+    }
+    if (b == -1 && line.size() == 0) {
+      return null;
+    }
+    String text = line.toString(StandardCharsets.UTF_8);
+    if (text.endsWith("\r")) {
+      text = text.substring(0, text.length() - 1);
+    }
+    return new MultiplayerCommunication(text);
+  }
+
+  /**
+   * Reads the next communication from the bytes received by a non-blocking channel (see `Server`).
+   * @param buffer The received bytes, ready to be read (flipped).
+   *               Its position is moved after the communication, or left unchanged if it isn't complete yet.
+   * @return The communication, or `null` if more bytes are needed.
+   * @throws IOException If the length of a frame isn't valid. The connection should then be closed.
+   * @throws InvalidCommunicationException If the communication isn't valid. It is skipped.
+   */
+  public static MultiplayerCommunication decode(ByteBuffer buffer) throws IOException, InvalidCommunicationException {
+    int start = buffer.position();
+    if (!buffer.hasRemaining()) {
+      return null;
+    }
+    if (buffer.get(start) == FRAME_MARKER) {
+      int position = start + 1;
+      int length = 0;
+      for (int shift = 0; ; shift += 7) {
+        if (shift >= 35) {
+          throw new IOException("Invalid varint.");
+        }
+        if (position >= buffer.limit()) {
+          return null;
+        }
+        int b = buffer.get(position++) & 0xFF;
+        length |= (b & 0x7F) << shift;
+        if ((b & 0x80) == 0) {
+          break;
+        }
+      }
+      if (length <= 0 || length > MAX_FRAME_LENGTH) {
+        throw new IOException("Invalid frame length: " + length);
+      }
+      if (buffer.limit() - position < length) {
+        return null;
+      }
+      byte[] body = new byte[length];
+      buffer.position(position);
+      buffer.get(body);
+      return decodeFrame(body);
+    }
+    for (int i = start; i < buffer.limit(); i++) {
+      if (buffer.get(i) == '\n') {
+        int end = i > start && buffer.get(i - 1) == '\r' ? i - 1 : i;
+        byte[] line = new byte[end - start];
+        buffer.get(line);
+        buffer.position(i + 1);
+        return new MultiplayerCommunication(new String(line, StandardCharsets.UTF_8));
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Decodes the body of a binary frame (without the marker and the length).
+   * @param body The bytes of the frame.
+   * @return The communication.
+   * @throws InvalidCommunicationException If the frame isn't valid.
+   */
+  static MultiplayerCommunication decodeFrame(byte[] body) throws InvalidCommunicationException {
+    ByteReader reader = new ByteReader(body);
+    try {
+      int first = reader.next();
+      int ordinal = first & ~FLAG_SEQUENCED;
+      int sequence = (first & FLAG_SEQUENCED) != 0 ? reader.varint() : 0;
+      if (ordinal >= MultiplayerCommand.values().length) {
+        throw new InvalidCommunicationException("binary frame", "The given command doesn't exist.");
+      }
+      MultiplayerCommand command = MultiplayerCommand.values()[ordinal];
+      MultiplayerCommunication communication;
+      if (command == MultiplayerCommand.MONSTER_PLAYED || command == MultiplayerCommand.HUNTER_PLAYED) {
+        int flags = reader.next();
+        int x = unzigzag(reader.varint());
+        int y = unzigzag(reader.varint());
+        communication = new MultiplayerCommunication(command, x, y, (flags & FLAG_POWERUP) != 0);
+      } else {
+        int count = reader.varint();
+        // each parameter takes at least the byte of its length
+        if (count < 0 || count > reader.remaining()) {
+          throw new InvalidCommunicationException("binary frame", "Invalid number of parameters: " + count);
+        }
+        if (count == 0) {
+          communication = new MultiplayerCommunication(command);
+        } else {
+          String[] parameters = new String[count];
+          for (int i = 0; i < count; i++) {
+            parameters[i] = reader.string(reader.varint());
+          }
+          communication = new MultiplayerCommunication(command, parameters);
+        }
+      }
+      if (reader.remaining() != 0) {
+        throw new InvalidCommunicationException("binary frame", "Unexpected bytes at the end of the frame.");
+      }
+      communication.setSequence(sequence);
+      return communication;
+    } catch (IndexOutOfBoundsException e) {
+      throw new InvalidCommunicationException("binary frame", "The frame is truncated.");
+    }
+  }
+
+  /**
+   * Maps a signed number to an unsigned one, so that small negative numbers stay small (0, -1, 1, -2...).
+   */
+  static int zigzag(int value) {
+    return (value << 1) ^ (value >> 31);
+  }
+
+  static int unzigzag(int value) {
+    return (value >>> 1) ^ -(value & 1);
+  }
+
+  /**
+   * Writes an unsigned number on 7 bits per byte, the highest bit meaning that another byte follows.
+   */
+  static void writeVarint(ByteArrayOutputStream out, int value) {
+    while ((value & ~0x7F) != 0) {
+      out.write((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    out.write(value);
+  }
+
+  private static int readVarint(InputStream in) throws IOException {
+    int value = 0;
+    for (int shift = 0; shift < 35; shift += 7) {
+      int b = in.read();
+      if (b == -1) {
+        throw new EOFException("The stream ended in the middle of a frame.");
+      }
+      value |= (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new IOException("Invalid varint.");
+  }
+
+  /**
+   * Reads the body of a frame.
+   */
+  private static final class ByteReader {
+    private final byte[] bytes;
+    private int position;
+
+    ByteReader(byte[] bytes) {
+      this.bytes = bytes;
+    }
+
+    int next() {
+      return bytes[position++] & 0xFF;
+    }
+
+    int varint() throws InvalidCommunicationException {
+      int value = 0;
+      for (int shift = 0; shift < 35; shift += 7) {
+        int b = next();
+        value |= (b & 0x7F) << shift;
+        if ((b & 0x80) == 0) {
+          return value;
+        }
+      }
+      throw new InvalidCommunicationException("binary frame", "Invalid varint.");
+    }
+
+    String string(int length) {
+      if (length < 0 || position + length > bytes.length) {
+        throw new IndexOutOfBoundsException();
+      }
+      String value = new String(bytes, position, length, StandardCharsets.UTF_8);
+      position += length;
+      return value;
+    }
+
+    int remaining() {
+      return bytes.length - position;
+    }
+  }
+}
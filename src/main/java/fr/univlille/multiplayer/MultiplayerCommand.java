@@ -1,8 +1,8 @@
 package fr.univlille.multiplayer;
 
 public enum MultiplayerCommand {
-  HOST, // the host created the game and is sending its name to its players ("command=0;string")
-  JOIN, // a client joined a game and is sending its name to the server ("command=1;string")
+  HOST, // the host created the game and is sending its name to its players ("command=0;string[;capability]", see `MultiplayerCodec`)
+  JOIN, // a client joined a game and is sending its name to the server ("command=1;string[;capability]")
   DISCONNECTION, // the client left the lobby ("command=2")
   SERVER_TERMINATION, // the host left the lobby
   SET_GAME_ROLES, // the players are in the lobby, the host switched the roles (hunter/monster) ("command=..;X"), X being 1 or 0, the value of LobbyModel.host_is_hunter
@@ -11,4 +11,18 @@ public enum MultiplayerCommand {
   HUNTER_PLAYED, // the hunter has played and is transmitting information about his play to the host's instance (the position of the hunter's shot: "command=..;x-y" for position (x;y) and a boolean to say if a grenade was used)
   GAME_RESTARTED, // the client, or the server, decided to restart the game. The game parameters stay the same.
   GAME_ENDED, // one player won, and must inform the other, no additional information is needed along with this command
+  RESUME, // a player reconnected after losing the connection: "command=..;N;R", N being the sequence of the last game communication it received, R being 1 if the other must answer with its own RESUME (see `DeltaLog`)
+  SNAPSHOT, // the host sends the whole state of the game ("command=..;N;data", N being the sequence of its last game communication, see `GameSnapshot`), or, without parameters, the client asks for it
+  SPECTATE, // a client watches the game instead of playing it ("command=..;string[;capability]", like JOIN): it only receives the game communications and the snapshots (see `Spectator`)
+  PING, // measures the round-trip time of the connection ("command=..;T", T being the time of the sender in nanoseconds), the other body answers with PONG and the same parameter
+  PONG; // the answer to PING, with the parameter of the PING. Neither of them reaches the program, they're handled by `MultiplayerBody`
+
+  /**
+   * Is this command part of the game itself, so that it must be sent again to a player who lost the connection?
+   * Only these communications are numbered (see `DeltaLog`).
+   * @return `true` for the moves, the restart and the end of the game.
+   */
+  public boolean isSequenced() {
+    return this == MONSTER_PLAYED || this == HUNTER_PLAYED || this == GAME_RESTARTED || this == GAME_ENDED;
+  }
 }
@@ -9,6 +9,31 @@ public class MultiplayerCommunication {
   private MultiplayerCommand command;
   private String[] parameters;
 
+  /**
+   * The move transmitted along with `MONSTER_PLAYED` and `HUNTER_PLAYED`:
+   * the target of the move, and whether or not a powerup (super jump or grenade) was used.
+   * When `hasMove` is `false`, the move is read from the parameters ("x-y;boolean") the first time it's needed.
+   * Keeping it as numbers means that the binary format (see `MultiplayerCodec`) never has to go through strings.
+   */
+  private boolean hasMove;
+  private int moveX;
+  private int moveY;
+  private boolean powerupUsed;
+
+  /**
+   * The number given by the sender to a game communication (see `MultiplayerCommand.isSequenced()` and `DeltaLog`),
+   * so that the receiver can ignore the ones it already has when they are sent again after a reconnection.
+   * `0` means that the communication isn't numbered (another command, or an older version of the game).
+   */
+  private int sequence;
+
+  /**
+   * When the communication was received, in the time of `System.nanoTime()`,
+   * so as to measure how long it waited before the program read it (see `MultiplayerBody.recordTurnLatency()`).
+   * `0` for a communication that wasn't received.
+   */
+  private long receivedAt;
+
   /**
    * Reads an incoming communication.
    * @param message The message that a socket transmitted.
@@ -42,6 +67,31 @@ public class MultiplayerCommunication {
     this.parameters = parameters.split(";");
   }
 
+  /**
+   * Creates a message from parameters that were already split (see `MultiplayerCodec`).
+   * @param command The command describing the communication's nature.
+   * @param parameters The parameters of this command.
+   */
+  MultiplayerCommunication(MultiplayerCommand command, String[] parameters) {
+    this.command = command;
+    this.parameters = parameters;
+  }
+
+  /**
+   * Creates a message describing the move of a player, meant to be sent via a socket.
+   * @param command     `MultiplayerCommand.MONSTER_PLAYED` or `MultiplayerCommand.HUNTER_PLAYED`.
+   * @param x           The X coordinate of the target of the move.
+   * @param y           The Y coordinate of the target of the move.
+   * @param powerupUsed `true` if the super jump, or a grenade, was used.
+   */
+  public MultiplayerCommunication(MultiplayerCommand command, int x, int y, boolean powerupUsed) {
+    this.command = command;
+    this.hasMove = true;
+    this.moveX = x;
+    this.moveY = y;
+    this.powerupUsed = powerupUsed;
+  }
+
   /**
    * Creates a message meant to be sent via a socket, but without parameters.
    * @param command The command describing the communication's nature.
@@ -69,7 +119,10 @@ public class MultiplayerCommunication {
    * The parameters of this command.
    * @return The parameters of this command, or NULL if there is none.
    */
-  public String[] getParameters() { return parameters; }
+  public String[] getParameters() {
+    writeMoveParameters();
+    return parameters;
+  }
 
   /**
    * Gets the parameter at the given index.
@@ -77,7 +130,8 @@ public class MultiplayerCommunication {
    * @return The requested parameter as a string, or `null` if the index isn't valid.
    */
   public String getParameter(int index) {
-    if (index < 0 || index >= parameters.length) {
+    writeMoveParameters();
+    if (parameters == null || index < 0 || index >= parameters.length) {
       return null;
     }
     return parameters[index];
@@ -87,7 +141,110 @@ public class MultiplayerCommunication {
    * Checks if this command has parameters.
    * @return `true` if this command has parameters, `false` otherwise.
    */
-  public boolean hasParameters() { return parameters != null; }
+  public boolean hasParameters() { return hasMove || parameters != null; }
+
+  /**
+   * Gets the number of this game communication.
+   * @return The sequence number, or `0` if the communication isn't numbered.
+   */
+  public int getSequence() {
+    return sequence;
+  }
+
+  void setSequence(int sequence) {
+    this.sequence = sequence;
+  }
+
+  /**
+   * Gets this communication without its sequence number,
+   * for a receiver that doesn't share the numbering of the sender (see `SpectatorFrame`).
+   * @return This communication if it isn't numbered, a copy otherwise.
+   */
+  MultiplayerCommunication withoutSequence() {
+    if (sequence == 0) {
+      return this;
+    }
+    MultiplayerCommunication copy = new MultiplayerCommunication(command, parameters);
+    copy.hasMove = hasMove;
+    copy.moveX = moveX;
+    copy.moveY = moveY;
+    copy.powerupUsed = powerupUsed;
+    return copy;
+  }
+
+  /**
+   * Gets when the communication was received, in the time of `System.nanoTime()`.
+   * @return The time of reception, or `0` if the communication wasn't received.
+   */
+  public long getReceivedAt() {
+    return receivedAt;
+  }
+
+  void setReceivedAt(long receivedAt) {
+    this.receivedAt = receivedAt;
+  }
+
+  /**
+   * Checks if this communication describes the move of a player
+   * (`MultiplayerCommand.MONSTER_PLAYED` or `MultiplayerCommand.HUNTER_PLAYED`).
+   */
+  public boolean isMove() {
+    return isCommand(MultiplayerCommand.MONSTER_PLAYED) || isCommand(MultiplayerCommand.HUNTER_PLAYED);
+  }
+
+  /**
+   * Gets the X coordinate of the target of the move.
+   * @throws NumberFormatException If the parameters of a text communication don't describe a move.
+   */
+  public int getMoveX() {
+    readMoveParameters();
+    return moveX;
+  }
+
+  /**
+   * Gets the Y coordinate of the target of the move.
+   * @throws NumberFormatException If the parameters of a text communication don't describe a move.
+   */
+  public int getMoveY() {
+    readMoveParameters();
+    return moveY;
+  }
+
+  /**
+   * Was a powerup (the super jump or a grenade) used during the move?
+   */
+  public boolean isPowerupUsed() {
+    readMoveParameters();
+    return powerupUsed;
+  }
+
+  /**
+   * Reads the move from the parameters of a text communication ("x-y;boolean").
+   * The coordinates may be negative ("-1--1").
+   */
+  private void readMoveParameters() {
+    if (hasMove) {
+      return;
+    }
+    String coordinates = parameters[0];
+    int separator = coordinates.indexOf('-', 1);
+    if (separator < 0) {
+      throw new NumberFormatException("The coordinates of the move aren't valid: '" + coordinates + "'.");
+    }
+    moveX = Integer.parseInt(coordinates.substring(0, separator));
+    moveY = Integer.parseInt(coordinates.substring(separator + 1));
+    powerupUsed = parameters.length > 1 && Boolean.parseBoolean(parameters[1]);
+    hasMove = true;
+  }
+
+  /**
+   * Writes the move as text parameters, the first time they're needed.
+   */
+  private void writeMoveParameters() {
+    if (hasMove && parameters == null) {
+      parameters = new String[] { moveX + "-" + moveY, String.valueOf(powerupUsed) };
+    }
+  }
 
   /**
    * Transforms this communication into a string
@@ -97,7 +254,8 @@ public class MultiplayerCommunication {
    */
   @Override
   public String toString() {
-    if (hasParameters()) {
+    writeMoveParameters();
+    if (parameters != null) {
       return "command=" + command.ordinal() + ";" + String.join(";", parameters);
     } else {
       return "command=" + command.ordinal();
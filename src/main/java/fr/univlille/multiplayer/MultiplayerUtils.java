@@ -1,9 +1,9 @@
 package fr.univlille.multiplayer;
 
-import java.io.BufferedReader;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.PrintWriter;
 import java.net.InetAddress;
 import java.net.Socket;
 import java.net.UnknownHostException;
@@ -12,35 +12,67 @@ public class MultiplayerUtils {
   private MultiplayerUtils() {}
 
   /**
-   * Gets the output stream of a socket as an instance of `PrintWriter`.
-   * The print writer is automatically flushed.
+   * Gets the output stream of a socket as an instance of `BufferedOutputStream`.
+   * It's meant to be created once per connection:
+   * what's written into it is only sent when it's flushed.
    * @param socket The socket to get the output stream from.
-   * @return The output stream of the given socket as an instance of `PrintWriter`.
+   * @return The buffered output stream of the given socket.
    * @throws IOException
    */
-  public static PrintWriter getOutputFromSocket(Socket socket) throws IOException {
-    return new PrintWriter(socket.getOutputStream(), true); // "true" to automatically send the information once something is written
+  public static BufferedOutputStream getOutputFromSocket(Socket socket) throws IOException {
+    return new BufferedOutputStream(socket.getOutputStream());
   }
 
   /**
-   * Gets the input stream of a socket as an instance of `BufferedReader`.
+   * Gets the buffered input stream of a socket.
+   * It's read by `MultiplayerCodec`, which accepts both the text and the binary formats.
    * @param socket The socket to get the input stream from.
-   * @return The input stream of the given socket as an instance of `BufferedReader`
+   * @param statistics The counters in which the number of bytes read is added.
+   * @return The input stream of the given socket as an instance of `BufferedInputStream`
    * @throws IOException
    */
-  public static BufferedReader getInputFromSocket(Socket socket) throws IOException {
-    return new BufferedReader(new InputStreamReader(socket.getInputStream()));
+  public static BufferedInputStream getInputFromSocket(Socket socket, ConnectionStatistics statistics) throws IOException {
+    return new BufferedInputStream(new FilterInputStream(socket.getInputStream()) {
+      @Override
+      public int read() throws IOException {
+        int b = super.read();
+        if (b != -1) {
+          statistics.recordReceivedBytes(1);
+        }
+        return b;
+      }
+
+      @Override
+      public int read(byte[] buffer, int offset, int length) throws IOException {
+        int count = super.read(buffer, offset, length);
+        if (count > 0) {
+          statistics.recordReceivedBytes(count);
+        }
+        return count;
+      }
+    });
   }
 
   /**
    * Gets the multiplayer instance that's currently alive.
    * If the player is the host, then it will return the instance of the `Server` class,
    * if not, then it means that the player is the client, so the instance of `Client` is returned.
+   * For the host, it's the game played by the user of this instance, among the games hosted by the server.
    */
   public static MultiplayerBody getMultiplayerInstance() {
     return Server.getInstance().isAlive() ? Server.getInstance() : Client.getInstance();
   }
 
+  /**
+   * Gets the multiplayer instance of a game hosted by this server,
+   * as a server can host many games at the same time (see `Server`).
+   * @param lobbyId The id of the lobby of the game.
+   * @return The session of this game, or `null` if the server doesn't host it.
+   */
+  public static MultiplayerBody getMultiplayerInstance(String lobbyId) {
+    return Server.getInstance().getSession(lobbyId);
+  }
+
   /**
    * Checks if one multiplayer instance is alive.
    * @return `true` if there is a multiplayer instance (meaning that we are playing a game in multiplayer mode, or a lobby has just been created).
@@ -1,22 +1,119 @@
 package fr.univlille.multiplayer;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.PrintWriter;
-import java.net.ServerSocket;
-import java.net.SocketException;
-import java.net.Socket;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+import fr.univlille.utils.Log;
 
 /**
  * This class holds the server socket and is responsible
  * of the communications between the host and the player(s).
+ *
+ * A single thread handles all the connections with a `Selector`:
+ * it accepts the clients, reads what they send and writes what is sent to them,
+ * without ever blocking on a slow client.
+ * Each client is a `GameSession`, registered under the id of its lobby,
+ * so one instance can host as many games as there are sessions.
+ *
+ * The user of this instance plays in one of them, the "local" session:
+ * the first client to connect while the host has no client.
+ * The methods inherited from `MultiplayerBody` (`broadcast()`, `pollCommunication()`...)
+ * all concern the local session, so the controllers don't have to know about the others.
+ * The other sessions are given to the `sessionListener`, if any, or are refused.
+ *
+ * Any number of clients can also watch the game of the local session (see `Spectator`).
+ * The game communications of both players are encoded once and shared by all the spectators,
+ * and a spectator that falls behind starts again from the last snapshot of the game (see `publishSnapshot()`).
  */
 public class Server extends MultiplayerBody {
 	private static Server instance;
-	private ServerSocket server;
-	private Socket clientSocket;
+	private ServerSocketChannel server;
+	private Selector selector;
 	private String clientHostname;
 
+	/**
+	 * All the games hosted by this server, by lobby id.
+	 */
+	private final Map<String, GameSession> sessions = new ConcurrentHashMap<>();
+
+	/**
+	 * The sessions that have communications waiting to be written.
+	 * Only the thread of the selector changes the interest of a key,
+	 * so the other threads ask it to do so through this queue.
+	 */
+	private final Queue<GameSession> pendingWrites = new ConcurrentLinkedQueue<>();
+
+	/**
+	 * The session played by the user of this instance.
+	 */
+	private volatile GameSession localSession;
+
+	/**
+	 * Called with each new session that isn't the local one (optional).
+	 */
+	private volatile Consumer<GameSession> sessionListener;
+
+	/**
+	 * The sessions whose owner had a full incoming buffer.
+	 * They aren't read until their stalled communication is accepted.
+	 * Only the thread of the selector uses it.
+	 */
+	private final List<GameSession> stalledSessions = new ArrayList<>();
+
+	/**
+	 * The clients watching the game of the local session.
+	 * Only the thread of the selector changes it.
+	 */
+	private final Set<Spectator> spectators = ConcurrentHashMap.newKeySet();
+
+	/**
+	 * The communications to send to the spectators.
+	 * Any thread can add to it, and the thread of the selector gives them to each spectator.
+	 */
+	private final Queue<SpectatorFrame> spectatorFeed = new ConcurrentLinkedQueue<>();
+
+	/**
+	 * The last snapshot of the game given to the spectators, sent to the new ones.
+	 * Only the thread of the selector uses it.
+	 */
+	private SpectatorFrame latestSnapshot;
+
+	/**
+	 * Where what the spectators send is read, and ignored.
+	 */
+	private final ByteBuffer spectatorInput = ByteBuffer.allocate(256);
+
+	/**
+	 * How often the stalled sessions are retried, in milliseconds.
+	 */
+	private static final long STALLED_RETRY_MILLIS = 5;
+
+	/**
+	 * Did the client of the local session lose the connection without leaving the game?
+	 * The game goes on in this case: the game communications sent in the meantime are kept
+	 * until the client reconnects and asks for them (see `MultiplayerCommand.RESUME`).
+	 */
+	private volatile boolean clientLost = false;
+
+	private int nextLobbyId = 0;
+
 	// This class cannot get instantiated outside of the class itself.
 	private Server() { }
 
@@ -34,37 +131,505 @@ public class Server extends MultiplayerBody {
 	}
 
 	/**
-	 * Creates a server socket and listens to client messages in non-blocking threads.
-	 * It will accept any incoming request as long as `acceptingNewUsers` is `true`.
-	 * By default, this function will set `acceptingNewUsers` to `true`.
+	 * Opens the server socket and handles the connections of the clients in a separate thread.
 	 * The clients will need the hostname (the name of the phsyical machine) in order to subscribe.
 	 * @param port The port that the server will use for its communications.
 	 */
 	public void host(int port) throws IOException {
+		ServerSocketChannel channel = ServerSocketChannel.open();
+		Selector channelSelector = Selector.open();
 		try {
-			server = new ServerSocket(port);
-			new Thread(() -> {
-				try {
-					while (isAlive()) {
-						// the server will accept requests
-						// as long as there is no client.
-						if (!hasClient()) {
-							Socket clientSocket = server.accept();
-							System.out.println("accepted new user : " + clientSocket);
-							welcomeIncomingClient(clientSocket);
-							new Thread(new ClientHandler(clientSocket)).start();
+			channel.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+			channel.bind(new InetSocketAddress(port));
+			channel.configureBlocking(false);
+			channel.register(channelSelector, SelectionKey.OP_ACCEPT);
+		} catch (IOException e) {
+			Log.error("Exception caught when trying to listen on port " + port + ": ", e.getMessage());
+			channel.close();
+			channelSelector.close();
+			return;
+		}
+		server = channel;
+		selector = channelSelector;
+		spectatorFeed.clear();
+		latestSnapshot = null;
+		startTask(() -> select(channel, channelSelector));
+	}
+
+	/**
+	 * The loop of the thread of the server.
+	 * It stops when the server socket is closed by `kill()`,
+	 * after a last attempt to write what's pending.
+	 * An unexpected error with one connection only closes that connection,
+	 * and if the loop stops because of the selector, the server socket is closed too.
+	 * @param channel         The server socket.
+	 * @param channelSelector The selector of the server socket and of the sessions.
+	 */
+	private void select(ServerSocketChannel channel, Selector channelSelector) {
+		try {
+			while (channel.isOpen()) {
+				if (stalledSessions.isEmpty()) {
+					channelSelector.select();
+				} else {
+					channelSelector.select(STALLED_RETRY_MILLIS);
+					retryStalledSessions();
+				}
+				registerPendingWrites();
+				feedSpectators();
+				Iterator<SelectionKey> keys = channelSelector.selectedKeys().iterator();
+				while (keys.hasNext()) {
+					SelectionKey key = keys.next();
+					keys.remove();
+					if (!key.isValid()) {
+						continue;
+					}
+					if (key.isAcceptable()) {
+						accept(channel, channelSelector);
+						continue;
+					}
+					if (key.attachment() instanceof Spectator) {
+						Spectator spectator = (Spectator) key.attachment();
+						try {
+							if (key.isReadable()) {
+								readSpectator(spectator);
+							}
+							if (key.isValid() && key.isWritable()) {
+								writeSpectator(spectator);
+							}
+						} catch (RuntimeException e) {
+							// a single connection must not stop the thread that serves all the others
+							Log.error("Unexpected error with a spectator, closing its connection: ", e);
+							closeSpectator(spectator);
 						}
+						continue;
 					}
+					GameSession session = (GameSession) key.attachment();
+					try {
+						if (key.isReadable()) {
+							read(session);
+						}
+						if (key.isValid() && key.isWritable()) {
+							write(session);
+						}
+					} catch (RuntimeException e) {
+						Log.error("Unexpected error in lobby " + session.getLobbyId() + ", closing its connection: ", e);
+						lose(session);
+					}
+				}
+			}
+		} catch (IOException e) {
+			Log.error("Exception caught by the server while listening for connections: ", e.getMessage());
+		} finally {
+			for (GameSession session : sessions.values()) {
+				if (session.getKey().selector() != channelSelector) {
+					// a session of a newer server, hosted again right after `kill()`
+					continue;
+				}
+				try {
+					session.writeToChannel();
+				} catch (IOException ignore) { }
+				close(session);
+			}
+			feedSpectators();
+			for (Spectator spectator : spectators) {
+				try {
+					spectator.write();
+				} catch (IOException ignore) { }
+				closeSpectator(spectator);
+			}
+			latestSnapshot = null;
+			try {
+				channelSelector.close();
+			} catch (IOException ignore) { }
+			// if the loop stopped on its own, `isAlive()` must not keep saying the server is hosting
+			try {
+				channel.close();
+			} catch (IOException ignore) { }
+		}
+	}
+
+	/**
+	 * Accepts a new client and creates its session.
+	 * If the host doesn't have a client yet, it becomes the local session.
+	 */
+	private void accept(ServerSocketChannel channel, Selector channelSelector) throws IOException {
+		SocketChannel clientChannel = channel.accept();
+		if (clientChannel == null) {
+			return;
+		}
+		clientChannel.configureBlocking(false);
+		clientChannel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+		GameSession session = new GameSession(this, String.valueOf(++nextLobbyId), clientChannel);
+		session.setKey(clientChannel.register(channelSelector, SelectionKey.OP_READ, session));
+		sessions.put(session.getLobbyId(), session);
+		Log.info("accepted new user in lobby ", session.getLobbyId());
+
+		Consumer<GameSession> listener = sessionListener;
+		if (!hasClient()) {
+			binaryProtocol = false;
+			clientLost = false;
+			session.setOwner(this);
+			localSession = session;
+			welcomeIncomingClient(session);
+		} else if (listener != null) {
+			welcomeIncomingClient(session);
+			listener.accept(session);
+		} else {
+			// nobody can play against this client, but it may want to watch the game
+			session.setSpectatorOnly(true);
+			welcomeIncomingClient(session);
+		}
+	}
+
+	/**
+	 * Reads what the client of a session sent, and handles every complete communication.
+	 */
+	private void read(GameSession session) {
+		try {
+			int count = session.getChannel().read(session.readBuffer);
+			if (count == -1) {
+				lose(session);
+				return;
+			}
+			session.statistics.recordReceivedBytes(count);
+			handleReceived(session);
+		} catch (IOException e) {
+			Log.warn("Error handling client input in lobby " + session.getLobbyId() + ": ", e.getMessage());
+			lose(session);
+		}
+	}
+
+	/**
+	 * Gives the stalled communications to their owners again,
+	 * and reads the sessions again once their communication has been accepted.
+	 */
+	private void retryStalledSessions() {
+		Iterator<GameSession> iterator = stalledSessions.iterator();
+		while (iterator.hasNext()) {
+			GameSession session = iterator.next();
+			if (!session.getKey().isValid()) {
+				iterator.remove();
+			} else if (session.receive(session.stalled)) {
+				iterator.remove();
+				MultiplayerCommunication accepted = session.stalled;
+				session.stalled = null;
+				if (accepted.isCommand(MultiplayerCommand.DISCONNECTION)) {
+					close(session);
+					continue;
+				}
+				session.getKey().interestOps(session.getKey().interestOps() | SelectionKey.OP_READ);
+				try {
+					// the bytes received after the stalled communication
+					handleReceived(session);
 				} catch (IOException e) {
-					System.err.println("Exception caught when trying to listen on port " + port + " or listening for a connection");
-					System.err.println(e.getMessage());
+					Log.warn("Error handling client input in lobby " + session.getLobbyId() + ": ", e.getMessage());
+					close(session);
+				} catch (RuntimeException e) {
+					Log.error("Unexpected error in lobby " + session.getLobbyId() + ", closing its connection: ", e);
+					lose(session);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Handles every complete communication in the read buffer of a session.
+	 * If the owner of the session cannot accept one, the session stops being read until it does.
+	 */
+	private void handleReceived(GameSession session) throws IOException {
+		ByteBuffer buffer = session.readBuffer;
+		buffer.flip();
+		try {
+			while (true) {
+				MultiplayerCommunication incoming;
+				try {
+					incoming = MultiplayerCodec.decode(buffer);
+				} catch (InvalidCommunicationException e) {
+					// Invalid communications are ignored.
+					Log.warn("Server received invalid communication : ", e.getMessage());
+					continue;
+				}
+				if (incoming == null) {
+					break;
+				}
+				Log.debug("Server received: ", incoming);
+				session.statistics.recordReceivedMessage();
+				if (incoming.isCommand(MultiplayerCommand.SPECTATE)) {
+					addSpectator(session, incoming);
+					return;
+				}
+				if (session.isSpectatorOnly()) {
+					// nobody can play against this client
+					session.kill();
+					return;
+				}
+				if (!session.receive(incoming)) {
+					session.stalled = incoming;
+					session.getKey().interestOps(session.getKey().interestOps() & ~SelectionKey.OP_READ);
+					stalledSessions.add(session);
+					return;
+				}
+				// The client socket was closed client-side,
+				// therefore the session must be removed
+				if (incoming.isCommand(MultiplayerCommand.DISCONNECTION)) {
+					close(session);
+					return;
+				}
+			}
+		} finally {
+			buffer.compact();
+		}
+		if (!buffer.hasRemaining()) {
+			// a communication is larger than the buffer
+			if (buffer.capacity() > MultiplayerCodec.MAX_FRAME_LENGTH) {
+				throw new IOException("The communication is too large.");
+			}
+			ByteBuffer larger = ByteBuffer.allocateDirect(MultiplayerCodec.MAX_FRAME_LENGTH + GameSession.BUFFER_SIZE);
+			buffer.flip();
+			larger.put(buffer);
+			session.readBuffer = larger;
+		}
+	}
+
+	/**
+	 * Writes the pending communications of a session.
+	 * The server stops waiting for the channel to be writable once everything is written,
+	 * and closes the session if it was killed.
+	 */
+	private void write(GameSession session) {
+		try {
+			if (session.writeToChannel()) {
+				session.getKey().interestOps(session.getKey().interestOps() & ~SelectionKey.OP_WRITE);
+				if (session.isClosing()) {
+					close(session);
+				}
+			}
+		} catch (IOException e) {
+			Log.warn("Error writing to the client in lobby " + session.getLobbyId() + ": ", e.getMessage());
+			lose(session);
+		}
+	}
+
+	/**
+	 * Asks the thread of the server to write the pending communications of a session.
+	 * @param session A session whose `outgoing` queue isn't empty.
+	 */
+	void requestWrite(GameSession session) {
+		pendingWrites.add(session);
+		wakeUp();
+	}
+
+	/**
+	 * Wakes the thread of the server up, so that it writes what's pending.
+	 */
+	private void wakeUp() {
+		Selector current = selector;
+		if (current != null) {
+			current.wakeup();
+		}
+	}
+
+	private void registerPendingWrites() {
+		GameSession session;
+		while ((session = pendingWrites.poll()) != null) {
+			SelectionKey key = session.getKey();
+			if (key != null && key.isValid()) {
+				key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+			}
+		}
+	}
+
+	/**
+	 * Turns a session into a spectator of the game of the local session.
+	 * If it was the local session, the host has no client anymore.
+	 * @param session  The session of a client that sent `MultiplayerCommand.SPECTATE`.
+	 * @param incoming The communication `SPECTATE`, with the name and the capabilities of the client.
+	 */
+	private void addSpectator(GameSession session, MultiplayerCommunication incoming) throws IOException {
+		sessions.remove(session.getLobbyId(), session);
+		if (session == localSession) {
+			localSession = null;
+			binaryProtocol = false;
+		}
+		// the welcome message goes out before the game
+		session.writeToChannel();
+		SelectionKey key = session.getKey();
+		Spectator spectator = new Spectator(session.getChannel(), key, incoming.getParameter(0), MultiplayerCodec.CAPABILITY.equals(incoming.getParameter(1)));
+		key.attach(spectator);
+		key.interestOps(SelectionKey.OP_READ);
+		spectators.add(spectator);
+		if (spectator.start(latestSnapshot)) {
+			key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+		}
+		Log.info("a spectator is watching the game: ", spectator.getHostname());
+	}
+
+	/**
+	 * Gives the communications published since the last time to each spectator.
+	 */
+	private void feedSpectators() {
+		SpectatorFrame frame;
+		while ((frame = spectatorFeed.poll()) != null) {
+			if (frame.isSnapshot()) {
+				latestSnapshot = frame;
+			}
+			for (Spectator spectator : spectators) {
+				SelectionKey key = spectator.getKey();
+				if (spectator.isFull()) {
+					// a burst of communications: the spectator may be able to take some before anything is dropped
+					writeSpectator(spectator);
 				}
-			}).start();
-		} catch (SocketException e) {
-			System.err.println("SOCKET EXCEPTION in host() of Server : this.server = " + this.server);
-			System.err.println(e.getMessage());
-			System.err.println(e.getCause());
+				if (spectator.offer(frame) && key.isValid()) {
+					key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Reads what a spectator sent, only to find out if it left.
+	 */
+	private void readSpectator(Spectator spectator) {
+		try {
+			spectatorInput.clear();
+			if (spectator.getChannel().read(spectatorInput) == -1) {
+				closeSpectator(spectator);
+			}
+		} catch (IOException e) {
+			closeSpectator(spectator);
+		}
+	}
+
+	private void writeSpectator(Spectator spectator) {
+		try {
+			if (spectator.write()) {
+				spectator.getKey().interestOps(spectator.getKey().interestOps() & ~SelectionKey.OP_WRITE);
+			}
+		} catch (IOException e) {
+			closeSpectator(spectator);
+		}
+	}
+
+	private void closeSpectator(Spectator spectator) {
+		spectators.remove(spectator);
+		spectator.getKey().cancel();
+		try {
+			spectator.getChannel().close();
+		} catch (IOException ignore) { }
+	}
+
+	/**
+	 * Sends a communication to all the spectators, if there are any.
+	 * @param communication A game communication.
+	 */
+	private void publish(MultiplayerCommunication communication) {
+		if (spectators.isEmpty()) {
+			return;
+		}
+		spectatorFeed.add(new SpectatorFrame(communication, false));
+		wakeUp();
+	}
+
+	/**
+	 * Gives the state of the game to the spectators, at the end of a turn.
+	 * The new spectators start from it, and so do the ones that fell behind.
+	 * @param snapshot The communication `MultiplayerCommand.SNAPSHOT` holding the state of the game.
+	 */
+	public void publishSnapshot(MultiplayerCommunication snapshot) {
+		spectatorFeed.add(new SpectatorFrame(snapshot, true));
+		wakeUp();
+	}
+
+	/**
+	 * Gets the clients watching the game.
+	 * @return A read-only view of the spectators.
+	 */
+	public Collection<Spectator> getSpectators() {
+		return Collections.unmodifiableCollection(spectators);
+	}
+
+	/**
+	 * The game communications sent to the client are also sent to the spectators.
+	 */
+	@Override
+	public void broadcast(MultiplayerCommunication communication) throws IOException {
+		super.broadcast(communication);
+		if (communication.getCommand().isSequenced()) {
+			publish(communication);
+		}
+	}
+
+	/**
+	 * The game communications received from the client are also sent to the spectators.
+	 */
+	@Override
+	protected boolean receive(MultiplayerCommunication incoming) {
+		boolean duplicate = deltas.isDuplicate(incoming.getSequence());
+		if (!super.receive(incoming)) {
+			return false;
+		}
+		if (!duplicate && incoming.getCommand().isSequenced()) {
+			publish(incoming);
+		}
+		return true;
+	}
+
+	/**
+	 * Closes a session whose connection was lost, without the client leaving the game.
+	 * If it's the local session, the server waits for the client to reconnect.
+	 */
+	private void lose(GameSession session) {
+		if (session == localSession && session.isAlive()) {
+			clientLost = true;
+			localSession = null;
+			Log.info("lost the connection with the client, waiting for it to reconnect");
 		}
+		close(session);
+	}
+
+	/**
+	 * Closes the connection of a session and removes it from the registry.
+	 */
+	private void close(GameSession session) {
+		sessions.remove(session.getLobbyId(), session);
+		SelectionKey key = session.getKey();
+		if (key != null) {
+			key.cancel();
+		}
+		try {
+			session.getChannel().close();
+		} catch (IOException ignore) { }
+	}
+
+	/**
+	 * Gets a game hosted by this server.
+	 * @param lobbyId The id of the lobby.
+	 * @return The session, or `null` if there is no such lobby.
+	 */
+	public GameSession getSession(String lobbyId) {
+		return sessions.get(lobbyId);
+	}
+
+	/**
+	 * Gets all the games hosted by this server, including the local one.
+	 * @return A read-only view of the sessions.
+	 */
+	public Collection<GameSession> getSessions() {
+		return Collections.unmodifiableCollection(sessions.values());
+	}
+
+	/**
+	 * Sets what to do with the clients that connect while the host already has a client.
+	 * Without a listener, they are still welcomed, because they may only want to watch the game:
+	 * the ones that send `MultiplayerCommand.SPECTATE` become spectators,
+	 * and the ones that send anything else are refused with `MultiplayerCommand.SERVER_TERMINATION`.
+	 * With a listener, a session that sends `MultiplayerCommand.SPECTATE` is removed from the games
+	 * and becomes a spectator as well.
+	 * The listener is called from the thread of the server, so it must not block.
+	 * @param listener Receives each new session (for example, to let a bot play against the client).
+	 */
+	public void setSessionListener(Consumer<GameSession> listener) {
+		this.sessionListener = listener;
 	}
 
 	/**
@@ -75,11 +640,20 @@ public class Server extends MultiplayerBody {
 	public boolean hasClient() {
 		// just making sure that if the client's socket is closed
 		// then we delete its reference, as it is no longer needed
-		if (clientSocket != null && clientSocket.isClosed()) {
-			clientSocket = null;
+		GameSession session = localSession;
+		if (session != null && !session.isAlive()) {
+			localSession = null;
 			clientHostname = null;
 		}
-		return isAlive() && clientSocket != null;
+		return isAlive() && localSession != null;
+	}
+
+	/**
+	 * Checks if the client lost the connection and the server is waiting for it to reconnect.
+	 * @return `true` if the client of the game is gone without leaving it.
+	 */
+	public boolean isClientLost() {
+		return clientLost && !hasClient();
 	}
 
 	/**
@@ -102,12 +676,13 @@ public class Server extends MultiplayerBody {
 	}
 
 	/**
-	 * Stops the server, closes the client socket, deletes the `onIncomingCommunicationCallback`
+	 * Stops the server, closes every session, deletes the `onIncomingCommunicationCallback`
 	 * and drops all the communications currently waiting to be read in the buffer.
-	 * 
+	 * It returns once the thread of the server has stopped.
+	 *
 	 * The server has to be restarted (by calling `host()`) if it needs to be used again.
-	 * 
-	 * This method will inform all the listener of the server termination
+	 *
+	 * This method will inform all the clients of the server termination
 	 * by broadcasting a communication of type `MultiplayerCommand.SERVER_TERMINATION`.
 	 * @throws IOException
 	 */
@@ -117,122 +692,87 @@ public class Server extends MultiplayerBody {
 			return;
 		}
 		super.kill();
-		if (hasClient()) {
-			broadcast(
-				new MultiplayerCommunication(
-					MultiplayerCommand.SERVER_TERMINATION
-				)
-			);
-			clientSocket.close();
-			clientSocket = null;
-			clientHostname = null;
-		}
-		server.close();
 	}
 
 	/**
-	 * Checks if the server is running (the `ServerSocket` shouldn't be closed).
-	 * @return `true` if the server is running, `false` otherwise.
+	 * Kills every session and closes the server socket.
+	 * The thread of the server then writes what's pending and stops, and `kill()` waits for it.
 	 */
 	@Override
-	public boolean isAlive() {
-		// the server socket will never be null,
-		// unless `host` was never called.
-		return server != null && !server.isClosed(); // `server` can be null if the instance is created, but `host()` has never been called.
+	protected void close() throws IOException {
+		try {
+			if (!spectators.isEmpty()) {
+				spectatorFeed.add(new SpectatorFrame(new MultiplayerCommunication(MultiplayerCommand.SERVER_TERMINATION), false));
+			}
+			for (GameSession session : sessions.values()) {
+				session.kill();
+			}
+		} finally {
+			localSession = null;
+			clientLost = false;
+			clientHostname = null;
+			server.close();
+			selector.wakeup();
+		}
 	}
 
 	/**
-	 * Sends a message to a client using its output stream.
-	 * @param socket  The socket instance of the client.
-	 * @param message The message to send to the client.
-	 * @throws IOException If the output stream of the client socket led to an Exception.
+	 * Checks if the server is running (the server socket shouldn't be closed).
+	 * @return `true` if the server is running, `false` otherwise.
 	 */
-	private void writeToClient(Socket clientSocket, MultiplayerCommunication message) throws IOException {
-		MultiplayerUtils.getOutputFromSocket(clientSocket).println(message.toString());
+	@Override
+	public boolean isAlive() {
+		// `server` can be null if the instance is created, but `host()` has never been called.
+		return server != null && server.isOpen();
 	}
 
 	/**
 	 * Sends a welcome message to the client, confirming its successfull connection.
-	 * The server sends its name along with the message.
-	 * @param clientSocket The socket of the incoming client.
+	 * The server sends its name and its capabilities along with the message.
+	 * It's always sent as text, as the server doesn't know yet what the client can read.
+	 * @param session The session of the incoming client.
 	 * @throws IOException
 	 */
-	private void welcomeIncomingClient(Socket client) throws IOException {
-		writeToClient(client, new MultiplayerCommunication(MultiplayerCommand.HOST, MultiplayerUtils.getHostname()));
-		this.clientSocket = client;
+	private void welcomeIncomingClient(GameSession session) throws IOException {
+		session.broadcast(createAnnouncement(MultiplayerCommand.HOST));
 	}
 
 	/**
-	 * Sends a message to the user that's listening to this server.
-	 * @param message The message to broadcast.
+	 * Adds a message for the user that's playing against the host.
+	 * While the client is reconnecting, the message is dropped:
+	 * if it's a game communication, it's sent again once the client is back (see `DeltaLog`).
+	 * @param bytes The encoded message.
+	 * @throws IOException If there is no client.
 	 */
 	@Override
-	public void broadcast(MultiplayerCommunication message) throws IOException {
-		writeToClient(clientSocket, message);
+	protected void send(byte[] bytes) throws IOException {
+		GameSession session = localSession;
+		if (session == null) {
+			if (clientLost) {
+				return;
+			}
+			throw new IOException("The server has no client.");
+		}
+		session.send(bytes);
 	}
 
 	/**
-	 * Handles the communications of a client to the server.
-	 * This class should not be used in the main thread
-	 * because its `run` method is blocking.
+	 * Sends the messages added for the user that's playing against the host.
 	 */
-	private final class ClientHandler implements Runnable {
-		private Socket clientSocket;
-
-		public ClientHandler(Socket clientSocket) {
-			this.clientSocket = clientSocket;
+	@Override
+	protected void flush() {
+		GameSession session = localSession;
+		if (session != null) {
+			session.flush();
 		}
+	}
 
-		@Override
-		public void run() {
-			try (
-				PrintWriter out = MultiplayerUtils.getOutputFromSocket(clientSocket);
-				BufferedReader in = MultiplayerUtils.getInputFromSocket(clientSocket);
-			) {
-				String inputLine;
-				while (isAlive() && (inputLine = in.readLine()) != null) {
-					System.out.println("Server received: " + inputLine);
-					handle(inputLine);
-				}
-			} catch (SocketException e) {
-				System.err.println("SOCKET exception in Server ClientHandler (" + server + ")");
-				System.out.println(e.getMessage());
-			} catch (IOException e) {
-				System.err.println("Error handling client input");
-				e.printStackTrace();
-			}
-		}
-
-		/**
-		 * Handles an incoming transmission from a user to the server.
-		 * The transmission is a string that this method is going to parse
-		 * into an instance of `MultiplayerCommunication`.
-		 * 
-		 * The communication, if valid, is added to the `incomingBuffer`.
-		 * If defined, the `onIncomingCommunicationCallback` is runned.
-		 * 
-		 * If the communication command is `MultiplayerCommand.DISCONNECTION`,
-		 * then the clientSocket is removed by calling `removeClientSocket`.
-		 * 
-		 * An invalid communication is ignored.
-		 * @param input The line read from the input stream of the client socket.
-		 */
-		private void handle(String input) {
-			try {
-				MultiplayerCommunication incoming = new MultiplayerCommunication(input);
-				incomingBuffer.add(incoming);
-				if (onIncomingCommunicationCallback != null) {
-					onIncomingCommunicationCallback.run();
-				}
-				// The client socket was closed client-side,
-				// therefore the socket must be removed
-				if (incoming.isCommand(MultiplayerCommand.DISCONNECTION)) {
-					clientSocket = null;
-				}
-			} catch (InvalidCommunicationException e) {
-				// Invalid communications are ignored.
-				System.err.println("Server received invalid communication : " + input);
-			}
-		}
+	/**
+	 * Gets the counters of the connection with the user that's playing against the host.
+	 */
+	@Override
+	public ConnectionStatistics getStatistics() {
+		GameSession session = localSession;
+		return session != null ? session.getStatistics() : statistics;
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,153 @@
+package fr.univlille.multiplayer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A read-only connection watching the game of the `Server`:
+ * it receives the game communications of both players, but cannot send any.
+ * A client becomes a spectator by sending `MultiplayerCommand.SPECTATE` instead of `JOIN`.
+ *
+ * The server writes to the spectators from its own thread, without ever waiting for them.
+ * Each spectator has a bounded queue: if it doesn't read fast enough and the queue is full,
+ * what it hasn't received yet is dropped, and it receives the next snapshot of the game
+ * (see `Server.publishSnapshot()`) instead, from which it can follow the game again.
+ * This way, a slow spectator never slows down the players.
+ *
+ * Only the thread of the server uses it, except for the getters.
+ */
+public class Spectator {
+	/**
+	 * The maximum number of communications waiting to be written to a spectator.
+	 */
+	static final int QUEUE_CAPACITY = 256;
+
+	private final SocketChannel channel;
+	private final SelectionKey key;
+	private final String hostname;
+	private final boolean binaryProtocol;
+
+	/**
+	 * The views of the shared frames that haven't been written yet (see `SpectatorFrame`).
+	 * The first one may have been written partially.
+	 */
+	private final ArrayDeque<ByteBuffer> pending = new ArrayDeque<>();
+
+	/**
+	 * Did the spectator fall behind? If so, it ignores the game communications until the next snapshot.
+	 */
+	private boolean awaitingSnapshot = false;
+
+	private final AtomicLong dropped = new AtomicLong();
+
+	Spectator(SocketChannel channel, SelectionKey key, String hostname, boolean binaryProtocol) {
+		this.channel = channel;
+		this.key = key;
+		this.hostname = hostname;
+		this.binaryProtocol = binaryProtocol;
+	}
+
+	SocketChannel getChannel() {
+		return channel;
+	}
+
+	SelectionKey getKey() {
+		return key;
+	}
+
+	/**
+	 * Gets the name of the spectator, sent with `MultiplayerCommand.SPECTATE`.
+	 */
+	public String getHostname() {
+		return hostname;
+	}
+
+	/**
+	 * Gets the number of communications that weren't sent to this spectator because it fell behind.
+	 */
+	public long getDropped() {
+		return dropped.get();
+	}
+
+	/**
+	 * Queues a communication for this spectator.
+	 * If the queue is full, the pending communications are dropped until the next snapshot.
+	 * @param frame The communication shared by all the spectators.
+	 * @return `true` if something has to be written.
+	 */
+	boolean offer(SpectatorFrame frame) {
+		if (frame.isSnapshot()) {
+			if (!awaitingSnapshot) {
+				// the spectator already follows the game
+				return false;
+			}
+			awaitingSnapshot = false;
+		} else if (awaitingSnapshot) {
+			dropped.incrementAndGet();
+			return false;
+		} else if (isFull()) {
+			dropBacklog();
+			dropped.incrementAndGet();
+			return false;
+		}
+		pending.add(frame.view(binaryProtocol));
+		return true;
+	}
+
+	/**
+	 * Drops what hasn't been written, except the rest of a communication already partially written,
+	 * so that the spectator never receives a truncated communication.
+	 */
+	private void dropBacklog() {
+		ByteBuffer head = pending.peekFirst();
+		boolean started = head != null && head.position() > 0;
+		int count = pending.size() - (started ? 1 : 0);
+		dropped.addAndGet(count);
+		pending.clear();
+		if (started) {
+			pending.add(head);
+		}
+		awaitingSnapshot = true;
+	}
+
+	/**
+	 * Checks if the queue of the spectator is full: the next game communication would be dropped.
+	 */
+	boolean isFull() {
+		return pending.size() >= QUEUE_CAPACITY;
+	}
+
+	/**
+	 * Writes as much as the channel accepts, in a single gathering write.
+	 * @return `true` if everything was written, `false` if the channel is full.
+	 * @throws IOException If the channel cannot be written.
+	 */
+	boolean write() throws IOException {
+		if (pending.isEmpty()) {
+			return true;
+		}
+		ByteBuffer[] buffers = pending.toArray(new ByteBuffer[0]);
+		channel.write(buffers);
+		while (!pending.isEmpty() && !pending.peekFirst().hasRemaining()) {
+			pending.pollFirst();
+		}
+		return pending.isEmpty();
+	}
+
+	/**
+	 * Starts the spectator from a snapshot of the game (or from the next game communication if there is none).
+	 * @param snapshot The last snapshot of the game, or `null`.
+	 * @return `true` if something has to be written.
+	 */
+	boolean start(SpectatorFrame snapshot) {
+		if (snapshot == null) {
+			return false;
+		}
+		awaitingSnapshot = true;
+		return offer(snapshot);
+	}
+}
@@ -0,0 +1,60 @@
+package fr.univlille.multiplayer;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A communication sent to the spectators of a game (see `Spectator`).
+ * It's encoded once per format, into a direct buffer shared by all the spectators:
+ * each of them writes a view of it (`ByteBuffer.duplicate()`) to its channel, so the bytes are never copied.
+ * Only the thread of the server uses it.
+ *
+ * The communications of the host and of the client are numbered by each of them (see `DeltaLog`),
+ * so the same sequence number comes from both sides: a spectator would ignore the second one as already received.
+ * The spectators never resume the game from a sequence number (they start again from a snapshot),
+ * so the frames are sent without it.
+ */
+class SpectatorFrame {
+	private final MultiplayerCommunication communication;
+	private final boolean snapshot;
+	private ByteBuffer text;
+	private ByteBuffer binary;
+
+	/**
+	 * @param communication The communication to send to the spectators.
+	 * @param snapshot      `true` if it's the state of the whole game (`MultiplayerCommand.SNAPSHOT`),
+	 *                      which a spectator that fell behind can start from again.
+	 */
+	SpectatorFrame(MultiplayerCommunication communication, boolean snapshot) {
+		this.communication = communication.withoutSequence();
+		this.snapshot = snapshot;
+	}
+
+	boolean isSnapshot() {
+		return snapshot;
+	}
+
+	/**
+	 * Gets a view of the encoded communication, to be written by one spectator.
+	 * @param binaryProtocol Does the spectator read the binary format?
+	 * @return A read-only buffer with its own position, sharing the bytes of the other views.
+	 */
+	ByteBuffer view(boolean binaryProtocol) {
+		if (binaryProtocol) {
+			if (binary == null) {
+				binary = encode(true);
+			}
+			return binary.duplicate();
+		}
+		if (text == null) {
+			text = encode(false);
+		}
+		return text.duplicate();
+	}
+
+	private ByteBuffer encode(boolean binaryProtocol) {
+		byte[] bytes = MultiplayerCodec.encode(communication, binaryProtocol);
+		ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+		buffer.put(bytes).flip();
+		return buffer.asReadOnlyBuffer();
+	}
+}
@@ -0,0 +1,154 @@
+package fr.univlille.pathfinding;
+
+import java.util.Arrays;
+
+import fr.univlille.MazeGrid;
+
+/**
+ * The distance of every cell of the maze to a fixed target (the exit, most of the time).
+ * The maze and the exit never change during a game,
+ * so the field is computed once with a reverse BFS starting from the target,
+ * and every query afterwards is a simple lookup.
+ *
+ * The cells are stored in a flat array using their row-major index (`y * width + x`).
+ */
+public class DistanceField {
+    private final int width;
+    private final int height;
+    private final int targetX;
+    private final int targetY;
+
+    /**
+     * The number of moves needed to go from each cell to the target,
+     * or `Pathfinder.UNREACHABLE` for walls and isolated cells.
+     */
+    private final int[] distances;
+
+    /**
+     * Computes the distance of every cell to the given target.
+     * @param maze    The maze (see `GameModel.getGrid()`).
+     * @param targetX The X coordinate of the target.
+     * @param targetY The Y coordinate of the target.
+     */
+    public DistanceField(MazeGrid maze, int targetX, int targetY) {
+        this.height = maze.getHeight();
+        this.width = maze.getWidth();
+        this.targetX = targetX;
+        this.targetY = targetY;
+        this.distances = new int[width * height];
+        Arrays.fill(distances, Pathfinder.UNREACHABLE);
+        if (maze.isOpen(targetX, targetY)) {
+            fill(maze);
+        }
+    }
+
+    /**
+     * The reverse BFS. The moves are symmetric,
+     * so the distance from the target to a cell is the distance from this cell to the target.
+     */
+    private void fill(MazeGrid maze) {
+        int[] queue = new int[width * height];
+        int head = 0;
+        int tail = 0;
+        int target = targetY * width + targetX;
+        distances[target] = 0;
+        queue[tail++] = target;
+        while (head < tail) {
+            int current = queue[head++];
+            int x = current % width;
+            int y = current / width;
+            int next = distances[current] + 1;
+            if (y > 0 && !maze.isWall(x, y - 1) && distances[current - width] == Pathfinder.UNREACHABLE) {
+                distances[current - width] = next;
+                queue[tail++] = current - width;
+            }
+            if (x < width - 1 && !maze.isWall(x + 1, y) && distances[current + 1] == Pathfinder.UNREACHABLE) {
+                distances[current + 1] = next;
+                queue[tail++] = current + 1;
+            }
+            if (y < height - 1 && !maze.isWall(x, y + 1) && distances[current + width] == Pathfinder.UNREACHABLE) {
+                distances[current + width] = next;
+                queue[tail++] = current + width;
+            }
+            if (x > 0 && !maze.isWall(x - 1, y) && distances[current - 1] == Pathfinder.UNREACHABLE) {
+                distances[current - 1] = next;
+                queue[tail++] = current - 1;
+            }
+        }
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getTargetX() {
+        return targetX;
+    }
+
+    public int getTargetY() {
+        return targetY;
+    }
+
+    /**
+     * Gets the number of moves needed to reach the target from the given cell.
+     * @param x The X coordinate of the cell.
+     * @param y The Y coordinate of the cell.
+     * @return The distance to the target, or `Pathfinder.UNREACHABLE`
+     *         if the cell is a wall, is outside of the maze or cannot reach the target.
+     */
+    public int getDistance(int x, int y) {
+        if (x < 0 || x >= width || y < 0 || y >= height) {
+            return Pathfinder.UNREACHABLE;
+        }
+        return distances[y * width + x];
+    }
+
+    /**
+     * Checks if the target can be reached from the given cell.
+     * @return `true` if there is a path between the cell and the target.
+     */
+    public boolean isReachable(int x, int y) {
+        return getDistance(x, y) != Pathfinder.UNREACHABLE;
+    }
+
+    /**
+     * Gets the neighbour of the given cell that is the closest to the target.
+     * When several neighbours are equally close, the one with the smallest
+     * row-major index is chosen (top, left, right, then bottom).
+     *
+     * This tie-break isn't the one of `Pathfinder.nextStep()` (and of the former Dijkstra of `MonsterStrategy`),
+     * which rewinds the path from the target and so breaks the ties on the side of the target.
+     * Both give a shortest path, but when several exist, the first step may differ.
+     * Finding the same one would need a search from the cell at each move, which is what the field avoids.
+     * @param x The X coordinate of the cell.
+     * @param y The Y coordinate of the cell.
+     * @return The row-major index of the next cell to go to,
+     *         the index of the target if the cell is the target,
+     *         or `Pathfinder.UNREACHABLE` if the target cannot be reached from this cell.
+     */
+    public int nextStep(int x, int y) {
+        int distance = getDistance(x, y);
+        if (distance == Pathfinder.UNREACHABLE) {
+            return Pathfinder.UNREACHABLE;
+        }
+        int index = y * width + x;
+        if (distance == 0) {
+            return index;
+        }
+        int previous = distance - 1;
+        if (getDistance(x, y - 1) == previous) {
+            return index - width;
+        }
+        if (getDistance(x - 1, y) == previous) {
+            return index - 1;
+        }
+        if (getDistance(x + 1, y) == previous) {
+            return index + 1;
+        }
+        return index + width;
+    }
+}
@@ -0,0 +1,185 @@
+package fr.univlille.pathfinding;
+
+import java.util.Arrays;
+
+import fr.univlille.MazeGrid;
+
+/**
+ * Finds the shortest paths within a maze using a breadth-first search.
+ * As every move costs exactly one turn, a BFS gives the same distances as Dijkstra,
+ * but in linear time.
+ *
+ * The cells are stored in flat arrays using their row-major index (`y * width + x`).
+ * The buffers are allocated once, when the pathfinder is created,
+ * and reused for every search, so that a search doesn't allocate anything.
+ */
+public class Pathfinder {
+    /**
+     * The value returned when there is no path between two cells.
+     */
+    public static final int UNREACHABLE = -1;
+
+    private final MazeGrid maze;
+    private final int width;
+    private final int height;
+
+    /**
+     * The distance of each cell from the source of the last search.
+     * A distance is only meaningful if `stamps` holds the current `stamp` for this cell.
+     */
+    private final int[] distances;
+
+    /**
+     * Holds the search in which each cell was reached.
+     * Incrementing `stamp` before each search "forgets" the previous one
+     * without having to clear the whole array.
+     */
+    private final int[] stamps;
+    private int stamp;
+
+    /**
+     * The FIFO queue of the BFS. Each cell is enqueued at most once per search,
+     * so a simple array with a head and a tail is enough.
+     */
+    private final int[] queue;
+
+    /**
+     * @param maze The maze (see `GameModel.getGrid()`).
+     */
+    public Pathfinder(MazeGrid maze) {
+        this.maze = maze;
+        this.height = maze.getHeight();
+        this.width = maze.getWidth();
+        int size = width * height;
+        this.distances = new int[size];
+        this.stamps = new int[size];
+        this.queue = new int[size];
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Gets the row-major index of a cell.
+     * @param x The X coordinate of the cell.
+     * @param y The Y coordinate of the cell.
+     * @return The index of the cell in the flat arrays.
+     */
+    public int indexOf(int x, int y) {
+        return y * width + x;
+    }
+
+    /**
+     * Checks if a particular cell can be walked on.
+     * @param x The X coordinate of the cell.
+     * @param y The Y coordinate of the cell.
+     * @return `true` if the cell is within the maze and isn't a wall.
+     */
+    public boolean isOpen(int x, int y) {
+        return maze.isOpen(x, y);
+    }
+
+    /**
+     * Runs a BFS from the given source until the target is dequeued.
+     * @return `true` if the target was reached.
+     */
+    private boolean search(int source, int target) {
+        if (++stamp == 0) {
+            // the stamps overflowed, the old ones could be mistaken for the new ones
+            Arrays.fill(stamps, 0);
+            stamp = 1;
+        }
+        int head = 0;
+        int tail = 0;
+        stamps[source] = stamp;
+        distances[source] = 0;
+        queue[tail++] = source;
+        while (head < tail) {
+            int current = queue[head++];
+            if (current == target) {
+                return true;
+            }
+            int x = current % width;
+            int y = current / width;
+            int next = distances[current] + 1;
+            if (y > 0) tail = visit(x, y - 1, next, tail);
+            if (x < width - 1) tail = visit(x + 1, y, next, tail);
+            if (y < height - 1) tail = visit(x, y + 1, next, tail);
+            if (x > 0) tail = visit(x - 1, y, next, tail);
+        }
+        return false;
+    }
+
+    private int visit(int x, int y, int distance, int tail) {
+        int index = indexOf(x, y);
+        if (stamps[index] != stamp && !maze.isWall(x, y)) {
+            stamps[index] = stamp;
+            distances[index] = distance;
+            queue[tail++] = index;
+        }
+        return tail;
+    }
+
+    /**
+     * Checks if a cell was reached during the last search with the given distance.
+     */
+    private boolean isAt(int index, int distance) {
+        return stamps[index] == stamp && distances[index] == distance;
+    }
+
+    /**
+     * Gets the length of the shortest path between two cells.
+     * @return The number of moves needed, or `UNREACHABLE` if there is no path.
+     */
+    public int distance(int fromX, int fromY, int toX, int toY) {
+        if (!isOpen(fromX, fromY) || !isOpen(toX, toY)) {
+            return UNREACHABLE;
+        }
+        int target = indexOf(toX, toY);
+        return search(indexOf(fromX, fromY), target) ? distances[target] : UNREACHABLE;
+    }
+
+    /**
+     * Gets the first move of the shortest path between two cells.
+     *
+     * When several shortest paths exist, the one chosen is the same as the one
+     * the former Dijkstra implementation of `MonsterStrategy` would choose:
+     * going backwards from the target, each cell is reached from its neighbour
+     * of the previous layer with the smallest row-major index.
+     * @return The row-major index of the next cell to go to,
+     *         the index of the target if both cells are the same,
+     *         or `UNREACHABLE` if there is no path.
+     */
+    public int nextStep(int fromX, int fromY, int toX, int toY) {
+        if (!isOpen(fromX, fromY) || !isOpen(toX, toY)) {
+            return UNREACHABLE;
+        }
+        int source = indexOf(fromX, fromY);
+        int current = indexOf(toX, toY);
+        if (!search(source, current)) {
+            return UNREACHABLE;
+        }
+        // Rewinding the path from the target.
+        // The neighbours are checked by increasing index: top, left, right, bottom.
+        while (distances[current] > 1) {
+            int previous = distances[current] - 1;
+            int x = current % width;
+            int y = current / width;
+            if (y > 0 && isAt(current - width, previous)) {
+                current -= width;
+            } else if (x > 0 && isAt(current - 1, previous)) {
+                current -= 1;
+            } else if (x < width - 1 && isAt(current + 1, previous)) {
+                current += 1;
+            } else {
+                current += width;
+            }
+        }
+        return current;
+    }
+}
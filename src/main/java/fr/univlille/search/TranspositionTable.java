@@ -0,0 +1,145 @@
+package fr.univlille.search;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A cache of the moves chosen by the bots, by the hash of the state of the game (see `Zobrist`),
+ * so that a search isn't done again when the same state comes back, in the same game or in another one.
+ *
+ * Its size is fixed when it's created, from the memory it may use. Each entry takes 16 bytes:
+ * the data (the move and the quality of the search that chose it) and the hash XORed with the data.
+ * The entries are read and written without any lock by any number of threads:
+ * if two threads write the same entry at the same time, the hash and the data of a reader may not match anymore,
+ * and the entry is only seen as missing ("lockless hashing", by Hyatt and Mann).
+ *
+ * The entries are grouped by buckets of two. When a move is stored, it replaces the first entry of its bucket
+ * if it comes from a search at least as good (`quality`), and the second one otherwise,
+ * so that the costly searches are kept while the recent ones still find a place.
+ *
+ * The numbers of probes, hits, stores and replacements are counted, to know if the table is worth its memory.
+ */
+public final class TranspositionTable {
+    /**
+     * Returned by `probe()` when the state isn't in the table.
+     */
+    public static final int MISS = -1;
+
+    private static final int ENTRY_BYTES = 16;
+    private static final int MAX_BUCKET_BITS = 26;
+
+    /**
+     * Two longs per entry: the hash XORed with the data, then the data (`quality << 32 | move`).
+     * A bucket is 4 longs.
+     */
+    private final AtomicLongArray slots;
+    private final int bucketMask;
+
+    private final LongAdder probes = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder stores = new LongAdder();
+    private final LongAdder replacements = new LongAdder();
+
+    /**
+     * @param bytes The memory the table may use. The number of entries is the largest power of two that fits in it.
+     */
+    public TranspositionTable(long bytes) {
+        long buckets = Math.max(1, bytes / (2 * ENTRY_BYTES));
+        int bucketCount = 1 << Math.min(63 - Long.numberOfLeadingZeros(buckets), MAX_BUCKET_BITS);
+        this.slots = new AtomicLongArray(bucketCount * 4);
+        this.bucketMask = bucketCount - 1;
+    }
+
+    /**
+     * Gets the number of moves the table can hold.
+     */
+    public int getCapacity() {
+        return slots.length() / 2;
+    }
+
+    /**
+     * Looks for the move stored for a state.
+     * @param hash The hash of the state.
+     * @return The move, or `MISS`.
+     */
+    public int probe(long hash) {
+        probes.increment();
+        int bucket = bucketOf(hash);
+        for (int entry = bucket; entry < bucket + 4; entry += 2) {
+            long data = slots.get(entry + 1);
+            if ((slots.get(entry) ^ data) == hash && data != 0) {
+                hits.increment();
+                return (int) data;
+            }
+        }
+        return MISS;
+    }
+
+    /**
+     * Stores the move chosen for a state.
+     * @param hash    The hash of the state.
+     * @param move    The move, which isn't negative.
+     * @param quality How good the search that chose it was, for example its number of iterations.
+     */
+    public void store(long hash, int move, int quality) {
+        stores.increment();
+        // an empty entry is `0`, so a stored entry has a quality of at least 1, and is compared as such
+        quality = Math.max(quality, 1);
+        long data = (long) quality << 32 | (move & 0xFFFFFFFFL);
+        int bucket = bucketOf(hash);
+        long firstData = slots.get(bucket + 1);
+        boolean first = (slots.get(bucket) ^ firstData) == hash || (int) (firstData >>> 32) <= quality;
+        int entry = first ? bucket : bucket + 2;
+        if (slots.get(entry + 1) != 0 && (slots.get(entry) ^ slots.get(entry + 1)) != hash) {
+            replacements.increment();
+        }
+        slots.set(entry + 1, data);
+        slots.set(entry, hash ^ data);
+    }
+
+    private int bucketOf(long hash) {
+        return ((int) (hash ^ (hash >>> 32)) & bucketMask) << 2;
+    }
+
+    /**
+     * Forgets all the moves. The counters are kept.
+     */
+    public void clear() {
+        for (int i = 0; i < slots.length(); i++) {
+            slots.set(i, 0);
+        }
+    }
+
+    public long getProbes() {
+        return probes.sum();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getStores() {
+        return stores.sum();
+    }
+
+    /**
+     * Gets the number of moves that took the place of the move of another state.
+     */
+    public long getReplacements() {
+        return replacements.sum();
+    }
+
+    /**
+     * Gets the part of the probes that found a move, between `0` and `1`.
+     */
+    public double getHitRate() {
+        long probed = probes.sum();
+        return probed == 0 ? 0 : (double) hits.sum() / probed;
+    }
+
+    @Override
+    public String toString() {
+        return getCapacity() + " entrées, " + getProbes() + " recherches, " + getHits() + " trouvées ("
+            + String.format("%.1f%%", 100 * getHitRate()) + "), " + getStores() + " écritures, " + getReplacements() + " remplacements";
+    }
+}
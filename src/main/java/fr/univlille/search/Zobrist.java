@@ -0,0 +1,56 @@
+package fr.univlille.search;
+
+/**
+ * Zobrist hashing of the states of the game: each feature of a state (the monster on a cell, a wall on a cell...)
+ * has a 64-bit random key, and the hash of a state is the XOR of the keys of its features.
+ * Two different states have the same hash with a probability of about `2^-64`,
+ * and a feature can be added or removed from a hash by XORing its key again.
+ *
+ * The keys aren't stored in tables of random numbers: they are computed by mixing the feature and its value
+ * with the finalizer of SplitMix64, so they take no memory, don't depend on the size of the maze,
+ * and are the same in every game and every run, which lets a `TranspositionTable` be shared.
+ */
+public final class Zobrist {
+    public static final int MAZE_SIZE = 1;
+    public static final int WALL = 2;
+    public static final int EXIT = 3;
+    public static final int HUNTER_SHOTS = 4;
+    public static final int MONSTER = 5;
+    public static final int SUPER_JUMPS = 6;
+
+    /**
+     * The last cell where the hunter found the monster, and the number of turns since then.
+     */
+    public static final int SIGHTING = 7;
+    public static final int SIGHTING_AGE = 8;
+
+    /**
+     * The parameters of a search (its seed, its budget, its number of trees), which change its result as much as the state.
+     */
+    public static final int SEARCH_SEED = 9;
+    public static final int SEARCH_BUDGET = 10;
+    public static final int SEARCH_TREES = 11;
+
+    /**
+     * The cell of the monster `k` turns ago is the feature `TRAIL + k`, so the features from `TRAIL` are all taken.
+     */
+    public static final int TRAIL = 64;
+
+    private Zobrist() {}
+
+    /**
+     * Gets the key of a feature.
+     * @param feature One of the constants of this class.
+     * @param value   The value of the feature, for example the row-major index of a cell.
+     * @return The key.
+     */
+    public static long key(int feature, long value) {
+        return mix(value * 0x9E3779B97F4A7C15L ^ (feature + 1) * 0xC2B2AE3D27D4EB4FL);
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,225 @@
+package fr.univlille.tournament;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Function;
+
+import fr.univlille.BeliefHunterStrategy;
+import fr.univlille.GameMode;
+import fr.univlille.GameParameters;
+import fr.univlille.HeatmapHunterStrategy;
+import fr.univlille.HunterStrategy;
+import fr.univlille.MctsMonsterStrategy;
+import fr.univlille.MonsterStrategy;
+import fr.univlille.iutinfo.cam.player.hunter.IHunterStrategy;
+import fr.univlille.iutinfo.cam.player.monster.IMonsterStrategy;
+import fr.univlille.models.GameEngine;
+import fr.univlille.models.GameModel;
+import fr.univlille.search.TranspositionTable;
+
+/**
+ * Plays many games between two bots on all the cores of the computer,
+ * so as to compare strategies or to balance the parameters of the game.
+ *
+ * The games are split between the workers of a fork-join pool.
+ * Each game has its own `GameModel`, its own parameters and its own strategies,
+ * and each worker fills its own `TournamentResult`,
+ * so the workers never share anything mutable.
+ * Nothing here uses `App` or the multiplayer singletons.
+ *
+ * The game number `i` uses the seed `parameters.getSeed() + i`,
+ * so a tournament always gives the same results with the same parameters,
+ * whatever the number of cores.
+ */
+public class Tournament {
+    /**
+     * The turn after which a game is stopped if nobody won.
+     * It happens when the monster cannot reach the exit and the hunter never finds it.
+     */
+    public static final int DEFAULT_MAX_TURNS = 1000;
+
+    /**
+     * The number of iterations of `MctsMonsterStrategy` for each move, in `main()`.
+     */
+    private static final int MCTS_ITERATIONS = 2000;
+
+    /**
+     * The memory of the table shared by the games of `MctsMonsterStrategy`, in `main()`.
+     */
+    private static final long TABLE_BYTES = 16 << 20;
+
+    /**
+     * The number of games below which a batch isn't split anymore.
+     * A game on a small maze lasts less than a millisecond,
+     * so a batch must be large enough for the splitting not to cost more than the games.
+     */
+    private static final int BATCH_SIZE = 64;
+
+    /**
+     * Mixed into the seed of a game to get the seed of the strategies,
+     * so that they don't draw the same numbers as the maze generator.
+     */
+    private static final long STRATEGY_SEED_MASK = 0x5DEECE66DL;
+
+    private final GameParameters parameters;
+    private final Function<Random, IMonsterStrategy> monsterFactory;
+    private final Function<Random, IHunterStrategy> hunterFactory;
+    private int maxTurns = DEFAULT_MAX_TURNS;
+
+    /**
+     * @param parameters     The parameters of every game. They're copied for each game.
+     *                       Without a seed, the seeds start from 0.
+     * @param monsterFactory Creates the strategy of the monster for a game, given a seeded generator.
+     * @param hunterFactory  Creates the strategy of the hunter for a game, given a seeded generator.
+     */
+    public Tournament(GameParameters parameters, Function<Random, IMonsterStrategy> monsterFactory, Function<Random, IHunterStrategy> hunterFactory) {
+        this.parameters = parameters;
+        this.monsterFactory = monsterFactory;
+        this.hunterFactory = hunterFactory;
+    }
+
+    /**
+     * Creates a tournament between `MonsterStrategy` and `HunterStrategy`.
+     */
+    public Tournament(GameParameters parameters) {
+        this(parameters, random -> new MonsterStrategy(), HunterStrategy::new);
+    }
+
+    public int getMaxTurns() {
+        return maxTurns;
+    }
+
+    public void setMaxTurns(int maxTurns) {
+        this.maxTurns = maxTurns;
+    }
+
+    /**
+     * Plays the games on the common fork-join pool.
+     * @param games The number of games to play.
+     * @return The statistics of the games.
+     */
+    public TournamentResult run(int games) {
+        return run(games, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Plays the games on the given pool.
+     * @param games The number of games to play.
+     * @param pool  The pool whose workers play the games.
+     * @return The statistics of the games.
+     */
+    public TournamentResult run(int games, ForkJoinPool pool) {
+        return pool.invoke(new Batch(0, games));
+    }
+
+    /**
+     * Plays one game.
+     * @param index The number of the game, which gives its seed.
+     * @param result Where the result of the game is recorded.
+     */
+    private void play(int index, TournamentResult result) {
+        long seed = (parameters.hasDefinedSeed() ? parameters.getSeed() : 0) + index;
+        GameParameters gameParameters = parameters.copy();
+        gameParameters.setSeed(seed);
+        gameParameters.setGameMode(GameMode.BOT);
+
+        GameModel game = new GameModel();
+        game.setParameters(gameParameters);
+        game.generateMaze(gameParameters);
+
+        Random random = new Random(seed ^ STRATEGY_SEED_MASK);
+        GameEngine engine = new GameEngine(game);
+        engine.start();
+        engine.setMonsterStrategy(monsterFactory.apply(random));
+        engine.setHunterStrategy(hunterFactory.apply(random));
+
+        boolean ended = engine.run(maxTurns);
+        result.add(ended, ended && game.monsterWon(), game.getTurn());
+    }
+
+    /**
+     * A range of games, split in two until it's small enough to be played by a single worker.
+     */
+    private class Batch extends RecursiveTask<TournamentResult> {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+
+        Batch(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected TournamentResult compute() {
+            if (to - from <= BATCH_SIZE) {
+                TournamentResult result = new TournamentResult();
+                for (int i = from; i < to; i++) {
+                    play(i, result);
+                }
+                return result;
+            }
+            int middle = (from + to) >>> 1;
+            Batch left = new Batch(from, middle);
+            left.fork();
+            TournamentResult right = new Batch(middle, to).compute();
+            return left.join().merge(right);
+        }
+    }
+
+    /**
+     * Plays a tournament between `MonsterStrategy` and `HunterStrategy` from the command line.
+     * Arguments (all optional): the number of games, the width and the height of the mazes, the seed,
+     * `belief` or `heatmap` to play with `BeliefHunterStrategy` or `HeatmapHunterStrategy` instead of `HunterStrategy`,
+     * and `mcts` to play with `MctsMonsterStrategy` instead of `MonsterStrategy`.
+     */
+    public static void main(String[] args) {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+        GameParameters parameters = new GameParameters();
+        parameters.setMazeWidth(args.length > 1 ? Integer.parseInt(args[1]) : 7);
+        parameters.setMazeHeight(args.length > 2 ? Integer.parseInt(args[2]) : 7);
+        parameters.setSeed(args.length > 3 ? Long.parseLong(args[3]) : 0);
+        parameters.setHunterShoots(1);
+        parameters.setHunterGrenades(1);
+        parameters.setWallsPercentage(1.0);
+
+        long start = System.nanoTime();
+        String hunter = args.length > 4 ? args[4] : "random";
+        Function<Random, IHunterStrategy> hunterFactory;
+        if (hunter.equals("belief")) {
+            hunterFactory = BeliefHunterStrategy::new;
+        } else if (hunter.equals("heatmap")) {
+            hunterFactory = HeatmapHunterStrategy::new;
+        } else {
+            hunterFactory = HunterStrategy::new;
+        }
+        String monster = args.length > 5 ? args[5] : "shortest";
+        Function<Random, IMonsterStrategy> monsterFactory;
+        // a state that comes back within a game isn't searched again;
+        // two games never share a state, as each one has its own maze and its own seed for the strategies (part of the hash)
+        TranspositionTable table = monster.equals("mcts") ? new TranspositionTable(TABLE_BYTES) : null;
+        if (table != null) {
+            monsterFactory = random -> {
+                // the games are already played in parallel,
+                // and a number of iterations instead of a time gives the same results on any computer
+                MctsMonsterStrategy strategy = new MctsMonsterStrategy(random, null, 1);
+                strategy.setTimeBudget(0);
+                strategy.setIterationBudget(MCTS_ITERATIONS);
+                strategy.setTranspositionTable(table);
+                return strategy;
+            };
+        } else {
+            monsterFactory = random -> new MonsterStrategy();
+        }
+        Tournament tournament = new Tournament(parameters, monsterFactory, hunterFactory);
+        TournamentResult result = tournament.run(games);
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        System.out.println(result);
+        if (table != null) {
+            System.out.println("table : " + table);
+        }
+        System.out.println("en " + millis + " ms sur " + ForkJoinPool.commonPool().getParallelism() + " threads");
+    }
+}
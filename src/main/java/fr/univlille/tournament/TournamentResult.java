@@ -0,0 +1,131 @@
+package fr.univlille.tournament;
+
+import java.util.Arrays;
+
+/**
+ * The statistics of a set of games played between two bots (see `Tournament`).
+ * Each worker fills its own instance, and the instances are merged at the end,
+ * so that the workers never share anything while playing.
+ */
+public class TournamentResult {
+    private int games;
+    private int monsterWins;
+    private int hunterWins;
+    private long totalTurns;
+
+    /**
+     * The turn at which the hunter captured the monster, for each game won by the hunter.
+     * Only the first `hunterWins` values are meaningful.
+     */
+    private int[] captureTurns = new int[16];
+
+    /**
+     * Are the `captureTurns` sorted?
+     * They are sorted once, the first time a percentile is asked.
+     */
+    private boolean sorted = true;
+
+    /**
+     * Records the result of a game.
+     * @param ended      `true` if someone won the game.
+     * @param monsterWon `true` if the monster reached the exit.
+     * @param turns      The turn at which the game stopped.
+     */
+    void add(boolean ended, boolean monsterWon, int turns) {
+        games++;
+        totalTurns += turns;
+        if (!ended) {
+            return;
+        }
+        if (monsterWon) {
+            monsterWins++;
+        } else {
+            if (hunterWins == captureTurns.length) {
+                captureTurns = Arrays.copyOf(captureTurns, hunterWins * 2);
+            }
+            captureTurns[hunterWins++] = turns;
+            sorted = false;
+        }
+    }
+
+    /**
+     * Adds the games of another result to this one.
+     * @param other The result of another worker.
+     * @return This instance.
+     */
+    TournamentResult merge(TournamentResult other) {
+        games += other.games;
+        monsterWins += other.monsterWins;
+        totalTurns += other.totalTurns;
+        if (other.hunterWins > 0) {
+            if (hunterWins + other.hunterWins > captureTurns.length) {
+                captureTurns = Arrays.copyOf(captureTurns, hunterWins + other.hunterWins);
+            }
+            System.arraycopy(other.captureTurns, 0, captureTurns, hunterWins, other.hunterWins);
+            hunterWins += other.hunterWins;
+            sorted = false;
+        }
+        return this;
+    }
+
+    public int getGames() {
+        return games;
+    }
+
+    public int getMonsterWins() {
+        return monsterWins;
+    }
+
+    public int getHunterWins() {
+        return hunterWins;
+    }
+
+    /**
+     * Gets the number of games that were stopped because nobody won before the maximum amount of turns.
+     */
+    public int getDraws() {
+        return games - monsterWins - hunterWins;
+    }
+
+    public double getMonsterWinRate() {
+        return games == 0 ? 0 : (double) monsterWins / games;
+    }
+
+    public double getHunterWinRate() {
+        return games == 0 ? 0 : (double) hunterWins / games;
+    }
+
+    /**
+     * Gets the average turn at which the games stopped, whoever won.
+     */
+    public double getAverageTurns() {
+        return games == 0 ? 0 : (double) totalTurns / games;
+    }
+
+    /**
+     * Gets a percentile of the turns needed by the hunter to capture the monster,
+     * using the nearest-rank method.
+     * @param percentile A value between 0 and 100 (50 for the median).
+     * @return The turn, or `-1` if the hunter never won.
+     */
+    public int getCaptureTurnsPercentile(double percentile) {
+        if (hunterWins == 0) {
+            return -1;
+        }
+        if (!sorted) {
+            Arrays.sort(captureTurns, 0, hunterWins);
+            sorted = true;
+        }
+        int rank = (int) Math.ceil(percentile / 100.0 * hunterWins);
+        return captureTurns[Math.max(0, Math.min(hunterWins, rank) - 1)];
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+            "%d parties : monstre %.1f%%, chasseur %.1f%%, nulles %d, %.2f tours en moyenne, capture p50=%d p90=%d p99=%d",
+            games, getMonsterWinRate() * 100, getHunterWinRate() * 100, getDraws(), getAverageTurns(),
+            getCaptureTurnsPercentile(50), getCaptureTurnsPercentile(90), getCaptureTurnsPercentile(99)
+        );
+    }
+}
@@ -0,0 +1,77 @@
+package fr.univlille.utils;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The threads shared by the whole application for what runs in the background:
+ * - a pool for the tasks that spend their time blocked (the loops reading a socket),
+ *   whose idle threads are reused by the next connection instead of being recreated,
+ * - a single thread for the delayed tasks (the countdown of the game), instead of a sleeping thread per delay.
+ *
+ * The threads are daemons, so they never prevent the application from exiting.
+ */
+public final class BackgroundTasks {
+    private static final ExecutorService BLOCKING = Executors.newCachedThreadPool(daemonThreads("background-io"));
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(daemonThreads("background-scheduler"));
+
+    private BackgroundTasks() {}
+
+    private static ThreadFactory daemonThreads(String name) {
+        AtomicInteger count = new AtomicInteger();
+        return task -> {
+            Thread thread = new Thread(task, name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Runs a task that may block for a long time, such as reading a socket.
+     * @param task The task to run.
+     * @return The future of the task, to wait for it or to cancel it.
+     */
+    public static Future<?> submit(Runnable task) {
+        return BLOCKING.submit(task);
+    }
+
+    /**
+     * Runs a task after a delay, on the thread of the scheduler.
+     * The task must be short: use `Platform.runLater()` to update the interface.
+     * @param millis The delay, in milliseconds.
+     * @param task   The task to run.
+     * @return The future of the task, to cancel it.
+     */
+    public static ScheduledFuture<?> schedule(long millis, Runnable task) {
+        return SCHEDULER.schedule(task, millis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Waits for a task to finish, then cancels it if it's still running after the timeout.
+     * @param task   The future returned by `submit()`.
+     * @param millis The maximum time to wait, in milliseconds.
+     * @return `true` if the task finished by itself.
+     */
+    public static boolean await(Future<?> task, long millis) {
+        try {
+            task.get(millis, TimeUnit.MILLISECONDS);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            // The task failed or took too long.
+            // In both cases, it's over or about to be.
+            if (task.isDone()) {
+                return true;
+            }
+        }
+        task.cancel(true);
+        return false;
+    }
+}
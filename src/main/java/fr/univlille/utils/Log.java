@@ -0,0 +1,100 @@
+package fr.univlille.utils;
+
+import java.io.PrintStream;
+
+/**
+ * A leveled log, for the messages printed by the multiplayer mode.
+ *
+ * The level is read from the system property `cam.log` (`ERROR`, `WARN`, `INFO` or `DEBUG`, `INFO` by default),
+ * and can be changed with `setLevel()`.
+ * The messages are printed as they are given: the methods taking a detail print it after the message
+ * without building a new string, and nothing at all is done when the level is disabled,
+ * so the messages printed for every communication (`debug()`) cost nothing by default.
+ */
+public final class Log {
+    public enum Level { ERROR, WARN, INFO, DEBUG }
+
+    private static volatile Level level = parseLevel(System.getProperty("cam.log"));
+
+    private Log() {}
+
+    private static Level parseLevel(String name) {
+        if (name != null) {
+            for (Level candidate : Level.values()) {
+                if (candidate.name().equalsIgnoreCase(name)) {
+                    return candidate;
+                }
+            }
+        }
+        return Level.INFO;
+    }
+
+    public static Level getLevel() {
+        return level;
+    }
+
+    public static void setLevel(Level newLevel) {
+        level = newLevel;
+    }
+
+    /**
+     * Checks if the messages of the given level are printed.
+     * Use it before building a message that's expensive to create.
+     */
+    public static boolean isEnabled(Level messageLevel) {
+        return messageLevel.ordinal() <= level.ordinal();
+    }
+
+    public static void error(String message) {
+        log(Level.ERROR, message, null);
+    }
+
+    public static void error(String message, Object detail) {
+        log(Level.ERROR, message, detail);
+    }
+
+    public static void warn(String message) {
+        log(Level.WARN, message, null);
+    }
+
+    public static void warn(String message, Object detail) {
+        log(Level.WARN, message, detail);
+    }
+
+    public static void info(String message) {
+        log(Level.INFO, message, null);
+    }
+
+    public static void info(String message, Object detail) {
+        log(Level.INFO, message, detail);
+    }
+
+    public static void debug(String message) {
+        log(Level.DEBUG, message, null);
+    }
+
+    public static void debug(String message, Object detail) {
+        log(Level.DEBUG, message, detail);
+    }
+
+    /**
+     * Prints a message, followed by its detail if there is one.
+     * The errors and the warnings go to the standard error.
+     */
+    private static void log(Level messageLevel, String message, Object detail) {
+        if (!isEnabled(messageLevel)) {
+            return;
+        }
+        PrintStream out = messageLevel.ordinal() <= Level.WARN.ordinal() ? System.err : System.out;
+        synchronized (out) {
+            out.print('[');
+            out.print(messageLevel.name());
+            out.print("] ");
+            out.print(message);
+            if (detail != null) {
+                out.print(detail);
+            }
+            out.println();
+        }
+    }
+}
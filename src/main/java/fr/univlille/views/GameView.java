@@ -6,14 +6,25 @@ import fr.univlille.Coordinate;
 import fr.univlille.iutinfo.cam.player.perception.ICellEvent;
 import fr.univlille.iutinfo.cam.player.perception.ICoordinate;
 import fr.univlille.iutinfo.cam.player.perception.ICellEvent.CellInfo;
+import fr.univlille.models.GameEngine;
 import fr.univlille.models.GameModel;
 import fr.univlille.utils.Observer;
 import fr.univlille.utils.Subject;
+import javafx.scene.Group;
 import javafx.scene.canvas.Canvas;
 import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.image.Image;
-
-public class GameView extends Canvas implements Observer {
+import javafx.scene.image.WritableImage;
+
+/**
+ * The game is drawn on three canvases stacked on top of each other:
+ * - the board (the checkerboard, the trees and the decorations), which never changes during a game,
+ * - the state (the fog, the shots, the exit and the monster), which changes when a player acts,
+ * - the overlay (the cursor and the selected move), which changes when the mouse moves.
+ * 
+ * This way, moving the mouse doesn't repaint the whole maze.
+ */
+public class GameView extends Group implements Observer {
     /**
      * A tile is one image from the tileset (spritesheet).
      * Each tile is 32 pixels wide.
@@ -35,9 +46,50 @@ public class GameView extends Canvas implements Observer {
     private final GameModel model;
 
     /**
-     * The context that allows us to draw stuff into.
+     * Applies the rules of the game when the player acts.
+     */
+    private final GameEngine engine;
+
+    private final Canvas boardLayer;
+    private final Canvas stateLayer;
+    private final Canvas overlayLayer;
+
+    /**
+     * The boards of the hunter and of the monster,
+     * drawn once per game and per theme, then copied onto `boardLayer`.
+     * `null` when they have to be drawn again (see `setTheme()`).
      */
-    private final GraphicsContext gc;
+    private WritableImage hunterBoard;
+    private WritableImage monsterBoard;
+
+    /**
+     * The board currently copied onto `boardLayer`,
+     * so that it's copied again only when the role or the theme changes.
+     */
+    private WritableImage displayedBoard;
+
+    /**
+     * The tiles of the state layer that have to be repainted on the next `draw()`
+     * (row-major indexes). `dirtyMarks` prevents a tile from being added twice.
+     */
+    private final int[] dirtyTiles;
+    private final boolean[] dirtyMarks;
+    private int dirtyCount;
+
+    /**
+     * `true` when the whole state layer has to be repainted
+     * (first frame, change of role or of theme).
+     */
+    private boolean stateInvalidated = true;
+
+    /**
+     * What was painted during the last frame,
+     * so as to find out which tiles have changed since.
+     */
+    private boolean paintedHunterTurn;
+    private ICoordinate paintedMonster;
+    private ICoordinate paintedCursor;
+    private ICoordinate paintedMove;
 
     /**
      * In a multiplayer game,
@@ -47,11 +99,6 @@ public class GameView extends Canvas implements Observer {
      */
     private boolean disabledView = false;
 
-    /**
-     * Is the turn of the hunter?
-     */
-    private boolean hunterTurn;
-
     /**
      * The current position of the cursor
      * represented as an instance of `Coordinate`.
@@ -79,11 +126,7 @@ public class GameView extends Canvas implements Observer {
         if (model.isMultiplayer()) {
             return model.isMultiplayerBodyPlayingHunter();
         }
-        return hunterTurn;
-    }
-
-    public void setHunterTurn(boolean hunterTurn) {
-        this.hunterTurn = hunterTurn;
+        return engine.isHunterTurn();
     }
 
     public void setMainPage(GameController mainPage) {
@@ -118,17 +161,23 @@ public class GameView extends Canvas implements Observer {
         return this.disabledView;
     }
 
-    public GameView(GameModel model) {
-        this.model = model;
+    public GameView(GameEngine engine) {
+        this.engine = engine;
+        this.model = engine.getModel();
 
-        this.gc = getGraphicsContext2D();
+        dirtyTiles = new int[model.getWidth() * model.getHeight()];
+        dirtyMarks = new boolean[dirtyTiles.length];
 
-        hunterView = new HunterView(gc, this, model);
-        monsterView = new MonsterView(gc, this, model);
+        hunterView = new HunterView(this, model);
+        monsterView = new MonsterView(this, model);
 
         ICoordinate mazeDimensions = model.getMazeDimensions();
-        setWidth((double) TILE_SIZE * mazeDimensions.getCol());
-        setHeight((double) TILE_SIZE * mazeDimensions.getRow());
+        double width = (double) TILE_SIZE * mazeDimensions.getCol();
+        double height = (double) TILE_SIZE * mazeDimensions.getRow();
+        boardLayer = new Canvas(width, height);
+        stateLayer = new Canvas(width, height);
+        overlayLayer = new Canvas(width, height);
+        getChildren().addAll(boardLayer, stateLayer, overlayLayer);
 
         cursorPosition = new Coordinate(0, 0);
         movePosition = new Coordinate(-1, -1);
@@ -137,13 +186,17 @@ public class GameView extends Canvas implements Observer {
                     && model.getHunter().getGrenadesLeft() <= 0)) {
                 return;
             }
-            Coordinate relativeMousePosition = new Coordinate(
-                    (int) (e.getSceneX() - getLayoutX() - (TILE_SIZE * 0.5)),
-                    (int) (e.getSceneY() - getLayoutY() - (TILE_SIZE * 0.5)));
-            cursorPosition = new Coordinate(
-                    (double) relativeMousePosition.getCol() / TILE_SIZE,
-                    (double) relativeMousePosition.getRow() / TILE_SIZE);
-            draw();
+            int relativeMouseX = (int) (e.getSceneX() - getLayoutX() - (TILE_SIZE * 0.5));
+            int relativeMouseY = (int) (e.getSceneY() - getLayoutY() - (TILE_SIZE * 0.5));
+            // the coordinates of the cells are shared, so a mouse move doesn't allocate anything
+            Coordinate hoveredTile = model.getCoordinate(
+                    (int) ((double) relativeMouseX / TILE_SIZE),
+                    (int) ((double) relativeMouseY / TILE_SIZE));
+            if (hoveredTile.equals(cursorPosition)) {
+                return; // still on the same tile, nothing to repaint
+            }
+            cursorPosition = hoveredTile;
+            drawOverlay();
 
         });
 
@@ -213,25 +266,166 @@ public class GameView extends Canvas implements Observer {
 
     /**
      * Cette fonction affiche sur le Canvas les informations nécessaires. Elle est
-     * appellée à chaque mouvement de souris ou à chaque action.
+     * appellée à chaque action. Le plateau n'est redessiné que si le rôle ou le thème a changé.
      */
     public void draw() {
+        drawBoard();
+        drawState();
+        drawOverlay();
+    }
+
+    /**
+     * Copies the board of the current player onto the board layer.
+     * The board is drawn only the first time it's needed,
+     * and the copy is skipped if it's already the one displayed.
+     */
+    private void drawBoard() {
+        WritableImage board;
+        if (isHunterTurn()) {
+            if (hunterBoard == null) {
+                hunterBoard = renderBoard(true);
+            }
+            board = hunterBoard;
+        } else {
+            if (monsterBoard == null) {
+                monsterBoard = renderBoard(false);
+            }
+            board = monsterBoard;
+        }
+        if (board != displayedBoard) {
+            boardLayer.getGraphicsContext2D().drawImage(board, 0, 0);
+            displayedBoard = board;
+        }
+    }
+
+    /**
+     * Draws the board of a player on a canvas that isn't displayed,
+     * and takes a snapshot of it.
+     * @param hunter `true` to draw the board of the hunter, `false` for the one of the monster.
+     * @return The image of the board.
+     */
+    private WritableImage renderBoard(boolean hunter) {
+        Canvas canvas = new Canvas(boardLayer.getWidth(), boardLayer.getHeight());
+        if (hunter) {
+            hunterView.drawBoard(canvas.getGraphicsContext2D());
+        } else {
+            monsterView.drawBoard(canvas.getGraphicsContext2D());
+        }
+        return canvas.snapshot(null, null);
+    }
+
+    /**
+     * Marks a tile of the state layer as changed,
+     * so that it gets repainted on the next `draw()`.
+     * @param x The X coordinate of the tile.
+     * @param y The Y coordinate of the tile.
+     */
+    public void invalidateTile(int x, int y) {
+        if (!model.getGrid().isInBounds(x, y)) {
+            return;
+        }
+        int index = model.cellIndex(x, y);
+        if (!dirtyMarks[index]) {
+            dirtyMarks[index] = true;
+            dirtyTiles[dirtyCount++] = index;
+        }
+    }
+
+    /**
+     * Repaints the whole state layer at the next `draw()`,
+     * when the model was replaced as a whole (see `GameSnapshot`).
+     */
+    public void invalidate() {
+        stateInvalidated = true;
+    }
+
+    /**
+     * Draws the fog, the shots and the entities.
+     * Only the tiles that changed since the last frame are repainted,
+     * unless the role or the theme has changed.
+     */
+    private void drawState() {
+        boolean hunterTurn = isHunterTurn();
+        if (hunterTurn != paintedHunterTurn) {
+            stateInvalidated = true;
+        }
+        ICoordinate monsterPosition = model.getMonster().getPosition();
+        if (paintedMonster != null && !paintedMonster.equals(monsterPosition)) {
+            invalidateTile(paintedMonster.getCol(), paintedMonster.getRow());
+            invalidateTile(monsterPosition.getCol(), monsterPosition.getRow());
+        }
+
+        GraphicsContext gc = stateLayer.getGraphicsContext2D();
+        if (stateInvalidated) {
+            gc.clearRect(0, 0, stateLayer.getWidth(), stateLayer.getHeight());
+            if (hunterTurn) {
+                hunterView.drawState(gc);
+            } else {
+                monsterView.drawState(gc);
+            }
+        } else {
+            int width = model.getWidth();
+            for (int i = 0; i < dirtyCount; i++) {
+                int x = dirtyTiles[i] % width;
+                int y = dirtyTiles[i] / width;
+                gc.save();
+                gc.beginPath();
+                gc.rect((double) x * TILE_SIZE, (double) y * TILE_SIZE, TILE_SIZE, TILE_SIZE);
+                gc.clip();
+                clearTile(gc, x, y);
+                if (hunterTurn) {
+                    hunterView.drawStateTile(gc, x, y);
+                } else {
+                    monsterView.drawStateTile(gc, x, y);
+                }
+                gc.restore();
+            }
+        }
+
+        for (int i = 0; i < dirtyCount; i++) {
+            dirtyMarks[dirtyTiles[i]] = false;
+        }
+        dirtyCount = 0;
+        stateInvalidated = false;
+        paintedHunterTurn = hunterTurn;
+        paintedMonster = monsterPosition;
+    }
+
+    /**
+     * Draws the cursor and the selected move.
+     * It's the only layer repainted when the mouse moves,
+     * and only the tiles painted during the last frame are cleared.
+     */
+    public void drawOverlay() {
+        GraphicsContext gc = overlayLayer.getGraphicsContext2D();
+        if (paintedCursor != null) {
+            clearTile(gc, paintedCursor.getCol(), paintedCursor.getRow());
+        }
+        if (paintedMove != null) {
+            clearTile(gc, paintedMove.getCol(), paintedMove.getRow());
+        }
         if (isHunterTurn()) {
-            hunterView.draw();
+            hunterView.drawOverlay(gc);
         } else {
-            monsterView.draw();
+            monsterView.drawOverlay(gc);
         }
+        paintedCursor = cursorPosition;
+        paintedMove = movePosition;
+    }
+
+    private void clearTile(GraphicsContext gc, int x, int y) {
+        gc.clearRect((double) x * TILE_SIZE, (double) y * TILE_SIZE, TILE_SIZE, TILE_SIZE);
     }
 
     public void play() {
         if (isHunterTurn()) {
             if (model.getHunter().isGrenadeMode()) {
-                model.getHunter().playHunterGrenade(cursorPosition);
+                engine.playHunterGrenade(cursorPosition);
             } else {
-                model.getHunter().playHunterMove(cursorPosition);
+                engine.playHunterShot(cursorPosition);
             }
         } else {
-            model.getMonster().play(movePosition);
+            engine.playMonster(movePosition);
         }
         cursorPosition = new Coordinate(-1, -1);
         movePosition = new Coordinate(-1, -1);
@@ -254,6 +448,10 @@ public class GameView extends Canvas implements Observer {
             default:
                 return;
         }
+        hunterBoard = null;
+        monsterBoard = null;
+        displayedBoard = null;
+        stateInvalidated = true;
         draw();
     }
 
@@ -266,6 +464,7 @@ public class GameView extends Canvas implements Observer {
     @Override
     public void update(Subject subj, Object data) {
         ICellEvent cellEvent = (ICellEvent) data;
+        invalidateTile(cellEvent.getCoord().getCol(), cellEvent.getCoord().getRow());
         updateHunterErrorLabel(cellEvent);
     }   
 
@@ -290,9 +489,8 @@ public class GameView extends Canvas implements Observer {
     }
 
     private void monsterCell(ICellEvent cellEvent) {
-        if (cellEvent.getTurn() == model.getTurn()) { // Si le monstre est sur cette case à ce tour-ci
-            model.setGameEnded(true);
-        } else {
+        // Si le monstre est sur cette case à ce tour-ci, c'est `GameEngine` qui termine la partie
+        if (cellEvent.getTurn() != model.getTurn()) {
             mainPage.errorLabel.setText("Le monstre est passé ici au tour n° " + cellEvent.getTurn() + ".");
         }
     }
@@ -14,22 +14,21 @@ import javafx.scene.text.TextAlignment;
 
 public class HunterView {
 
-    private GraphicsContext gc;
     public GameModel gameModel;
     public GameView gameView;
     public HunterModel model;
 
-    public HunterView(GraphicsContext gc, GameView gameView, GameModel gameModel) {
-        this.gc = gc;
+    public HunterView(GameView gameView, GameModel gameModel) {
         this.gameView = gameView;
         this.gameModel = gameModel;
         this.model = gameModel.getHunter();
     }
     
-    public void draw() {
-        graphicStyle();
-        drawBoard();
-        
+    /**
+     * Draws the cursor and the selected move.
+     * @param gc The context of the overlay layer (see `GameView`).
+     */
+    public void drawOverlay(GraphicsContext gc) {
         if (!model.isHunterShootValid(gameView.getCursorPosition())) {
             ViewUtils.drawSimpleTexture(gc, new Coordinate(128, 256), gameView.getCursorPosition()); // Position souris
                                                                                                      // (si mouvement
@@ -42,7 +41,12 @@ public class HunterView {
         ViewUtils.drawSimpleTexture(gc, new Coordinate(64, 256), gameView.getMovePosition()); // Le mouvement
     }
 
-    private void drawCheckboard() {
+    /**
+     * Draws the checkerboard.
+     * It never changes during a game, so `GameView` draws it only once per theme.
+     * @param gc The context in which the board is drawn.
+     */
+    public void drawBoard(GraphicsContext gc) {
         ICoordinate dimensions = gameModel.getMazeDimensions();
         gc.drawImage(
             GameView.spritesheet, 192, 192, 64, 64, 0, 0,
@@ -58,32 +62,52 @@ public class HunterView {
         }
     }
 
-    private void drawBoard() {
-        drawCheckboard();
+    /**
+     * Draws the result of each shot.
+     * @param gc The context of the state layer (see `GameView`).
+     */
+    public void drawState(GraphicsContext gc) {
+        graphicStyle(gc);
         for (ICellEvent cellEvent : gameModel.getHunter().getShootsHistory()) {
-            Coordinate coord = (Coordinate) cellEvent.getCoord();
-            if (cellEvent.getState() == CellInfo.WALL) {
-                ViewUtils.drawSimpleTexture(gc, 0, 64, coord.getCol(), coord.getRow());
-            }
-            if (cellEvent.getState() == CellInfo.EMPTY) {
-                ViewUtils.drawSimpleTexture(gc, 192, 256, coord.getCol(), coord.getRow());
-            }
-            if (cellEvent.getState() == CellInfo.MONSTER) {
-                if (cellEvent.getTurn() == gameModel.getTurn()) { // Si le monstre est actuellement sur la case (en gros
-                                                                  // il est mort)
-                    ViewUtils.drawSimpleTexture(gc, 64, 0, coord.getCol(), coord.getRow()); // Tombe
-                } else {
-                    if (cellEvent.getState() == CellInfo.MONSTER) {
-                        gc.fillText(String.valueOf(cellEvent.getTurn()),
-                                coord.getCol() * GameView.TILE_SIZE + GameView.TILE_SIZE / 2.0,
-                                coord.getRow() * GameView.TILE_SIZE + GameView.TILE_SIZE / 2.0);
-                    }
-                }
+            drawShoot(gc, cellEvent);
+        }
+    }
+
+    /**
+     * Draws what the state layer contains on a single tile.
+     * @param gc The context of the state layer (see `GameView`).
+     * @param x  The X coordinate of the tile.
+     * @param y  The Y coordinate of the tile.
+     */
+    public void drawStateTile(GraphicsContext gc, int x, int y) {
+        ICellEvent cellEvent = model.getShootAt(x, y);
+        if (cellEvent != null) {
+            graphicStyle(gc);
+            drawShoot(gc, cellEvent);
+        }
+    }
+
+    private void drawShoot(GraphicsContext gc, ICellEvent cellEvent) {
+        Coordinate coord = (Coordinate) cellEvent.getCoord();
+        if (cellEvent.getState() == CellInfo.WALL) {
+            ViewUtils.drawSimpleTexture(gc, 0, 64, coord.getCol(), coord.getRow());
+        }
+        if (cellEvent.getState() == CellInfo.EMPTY) {
+            ViewUtils.drawSimpleTexture(gc, 192, 256, coord.getCol(), coord.getRow());
+        }
+        if (cellEvent.getState() == CellInfo.MONSTER) {
+            if (cellEvent.getTurn() == gameModel.getTurn()) { // Si le monstre est actuellement sur la case (en gros
+                                                              // il est mort)
+                ViewUtils.drawSimpleTexture(gc, 64, 0, coord.getCol(), coord.getRow()); // Tombe
+            } else {
+                gc.fillText(String.valueOf(cellEvent.getTurn()),
+                        coord.getCol() * GameView.TILE_SIZE + GameView.TILE_SIZE / 2.0,
+                        coord.getRow() * GameView.TILE_SIZE + GameView.TILE_SIZE / 2.0);
             }
         }
     }
 
-    private void graphicStyle() {
+    private void graphicStyle(GraphicsContext gc) {
         gc.setFill(Color.BLACK);
         gc.setTextAlign(TextAlignment.CENTER);
         gc.setTextBaseline(VPos.CENTER);
@@ -1,11 +1,11 @@
 package fr.univlille.views;
 
-import java.util.List;
 import java.util.Random;
 
 import fr.univlille.Coordinate;
 import fr.univlille.iutinfo.cam.player.perception.ICellEvent;
 import fr.univlille.iutinfo.cam.player.perception.ICoordinate;
+import fr.univlille.models.FogOfWar;
 import fr.univlille.models.GameModel;
 import fr.univlille.models.MonsterModel;
 import javafx.geometry.VPos;
@@ -17,13 +17,9 @@ import javafx.scene.text.TextAlignment;
 public class MonsterView {
 
     private GameView gameView;
-    private GraphicsContext gc;
     private GameModel gameModel;
     private MonsterModel model;
 
-    private boolean fogEnabled;
-    private int fogRadius;
-
     /**
      * This array contains the index of decorations within the spritesheet.
      * It has the same dimensions of the maze, and the first element in this
@@ -34,26 +30,28 @@ public class MonsterView {
      */
     private int[][] decorations;
 
-    public MonsterView(GraphicsContext gc, GameView gameView, GameModel gameModel) {
-        this.gc = gc;
+    public MonsterView(GameView gameView, GameModel gameModel) {
         this.gameView = gameView;
         this.gameModel = gameModel;
         this.model = gameModel.getMonster();
         ICoordinate mazeDimensions = gameModel.getMazeDimensions();
 
-        fogEnabled = gameModel.getParameters().isFogOfWar();
-        fogRadius = gameModel.getParameters().getFogOfWarRadius();
-
         addDecorations(mazeDimensions);
-        if (fogEnabled) {
-            model.setFogOfWar(new boolean[mazeDimensions.getRow()][mazeDimensions.getCol()]);
-            updateFog(this.gameModel.getMonster().getPosition());
+        // the whole state layer is drawn at first, with the fog as it is now
+        FogOfWar fog = model.getFogOfWar();
+        if (fog != null) {
+            fog.drainNewlyRevealed(cell -> {});
         }
     }
 
+    /**
+     * Repaints the cells the monster has seen since the last turn (see `FogOfWar`).
+     */
     public void turnStarted() {
-        if (fogEnabled) {
-            updateFog(gameModel.getMonster().getPosition());
+        FogOfWar fog = model.getFogOfWar();
+        if (fog != null) {
+            int width = gameModel.getWidth();
+            fog.drainNewlyRevealed(cell -> gameView.invalidateTile(cell % width, cell / width));
         }
     }
 
@@ -79,61 +77,101 @@ public class MonsterView {
         }
     }
 
-    private void graphicStyle() {
+    private void graphicStyle(GraphicsContext gc) {
         gc.setFill(Color.RED);
         gc.setTextAlign(TextAlignment.CENTER);
         gc.setTextBaseline(VPos.CENTER);
         gc.setFont(new Font("Comic Sans MS", 16));
     }
 
-    public void draw() {
-        graphicStyle();
-        drawBoard();
-        drawEntities();
+    /**
+     * Draws the fog, the exit, the shots of the hunter and the monster.
+     * @param gc The context of the state layer (see `GameView`).
+     */
+    public void drawState(GraphicsContext gc) {
+        graphicStyle(gc);
+        drawFog(gc);
+        drawExit(gc);
+        for (ICellEvent shoot : gameModel.getHunter().getShootsHistory()) {
+            drawHunterShoot(gc, shoot);
+        }
+        ViewUtils.drawSimpleTexture(gc, 0, 0, gameModel.getMonster().getPosition()); // Joueur
     }
 
-    private void drawEntities() {
+    /**
+     * Draws what the state layer contains on a single tile, in the same order as `drawState()`.
+     * The exit is two tiles high, so the context should be clipped to the tile beforehand.
+     * @param gc The context of the state layer (see `GameView`).
+     * @param x  The X coordinate of the tile.
+     * @param y  The Y coordinate of the tile.
+     */
+    public void drawStateTile(GraphicsContext gc, int x, int y) {
+        graphicStyle(gc);
+        FogOfWar fog = model.getFogOfWar();
+        if (fog != null && !fog.isRevealed(x, y)) {
+            ViewUtils.drawSimpleTexture(gc, 256, 0, x, y);
+        }
         ICoordinate exitPosition = gameModel.getExit();
-        gc.drawImage(
-                GameView.spritesheet, 128, 0, 64, 128,
-                (double) exitPosition.getCol() * GameView.TILE_SIZE,
-                (double) exitPosition.getRow() * GameView.TILE_SIZE - GameView.TILE_SIZE,
-                GameView.TILE_SIZE, GameView.TILE_SIZE * 2.0); // La sortie
-        
-        if (gameModel.getMonster().shouldUseSuperJump()) {
-            if (!model.isMonsterMovementValid(gameView.getCursorPosition())) { // Position souris (si mouvement impossible)
-                ViewUtils.drawSimpleTexture(gc, 128, 192, gameView.getCursorPosition());
-            } else { // Position souris (si mouvement possible)
-                ViewUtils.drawSimpleTexture(gc, 0, 192, gameView.getCursorPosition());
-            }
-        } else if (!model.isMonsterMovementValid(gameView.getCursorPosition())) { // Position souris (si mouvement impossible)
+        if (exitPosition.getCol() == x && (exitPosition.getRow() == y || exitPosition.getRow() - 1 == y)) {
+            drawExit(gc);
+        }
+        ICellEvent shoot = gameModel.getHunter().getShootAt(x, y);
+        if (shoot != null) {
+            drawHunterShoot(gc, shoot);
+        }
+        ICoordinate position = gameModel.getMonster().getPosition();
+        if (position.getCol() == x && position.getRow() == y) {
+            ViewUtils.drawSimpleTexture(gc, 0, 0, x, y); // Joueur
+        }
+    }
+
+    /**
+     * Draws the cursor and the selected move.
+     * @param gc The context of the overlay layer (see `GameView`).
+     */
+    public void drawOverlay(GraphicsContext gc) {
+        if (!model.isMonsterMovementValid(gameView.getCursorPosition())) { // Position souris (si mouvement impossible)
             ViewUtils.drawSimpleTexture(gc, 128, 192, gameView.getCursorPosition());
         } else { // Position souris (si mouvement possible)
             ViewUtils.drawSimpleTexture(gc, 0, 192, gameView.getCursorPosition());
         }
 
         ViewUtils.drawSimpleTexture(gc, 64, 192, gameView.getMovePosition()); // Le mouvement
+    }
 
-        drawHunterShoots();
+    private void drawExit(GraphicsContext gc) {
+        ICoordinate exitPosition = gameModel.getExit();
+        gc.drawImage(
+                GameView.spritesheet, 128, 0, 64, 128,
+                (double) exitPosition.getCol() * GameView.TILE_SIZE,
+                (double) exitPosition.getRow() * GameView.TILE_SIZE - GameView.TILE_SIZE,
+                GameView.TILE_SIZE, GameView.TILE_SIZE * 2.0); // La sortie
+    }
 
-        ViewUtils.drawSimpleTexture(gc, 0, 0, gameModel.getMonster().getPosition()); // Joueur
+    private void drawHunterShoot(GraphicsContext gc, ICellEvent shoot) {
+        Coordinate coord = (Coordinate) shoot.getCoord();
+        ViewUtils.drawSimpleTexture(gc, 64, 256, coord);
+        gc.fillText(String.valueOf(
+                shoot.getTurn() - 1),
+                coord.getCol() * GameView.TILE_SIZE + GameView.TILE_SIZE / 2.0,
+                coord.getRow() * GameView.TILE_SIZE + GameView.TILE_SIZE / 2.0);
     }
 
-    private void drawHunterShoots() {
-        List<ICellEvent> shoots = gameModel.getHunter().getShootsHistory();
-        if (!shoots.isEmpty()) {
-            for (int i = 0; i < shoots.size(); i++) {
-                Coordinate coord = (Coordinate) shoots.get(i).getCoord();
-                ViewUtils.drawSimpleTexture(gc, 64, 256, coord);
-                gc.fillText(String.valueOf(
-                        shoots.get(i).getTurn() - 1),
-                        coord.getCol() * GameView.TILE_SIZE + GameView.TILE_SIZE / 2.0,
-                        coord.getRow() * GameView.TILE_SIZE + GameView.TILE_SIZE / 2.0);
+    private void drawFog(GraphicsContext gc) {
+        FogOfWar fog = model.getFogOfWar();
+        if (fog == null) {
+            return;
+        }
+        for (int y = 0; y < fog.getHeight(); y++) {
+            for (int x = 0; x < fog.getWidth(); x++) {
+                if (!fog.isRevealed(x, y)) {
+                    ViewUtils.drawSimpleTexture(gc, 256, 0, x, y);
+                }
             }
         }
     }
 
-    private void drawCheckboard() {
+    private void drawCheckboard(GraphicsContext gc) {
         ICoordinate dimensions = gameModel.getMazeDimensions();
         gc.drawImage(
             GameView.spritesheet, 192, 64, 64, 64, 0, 0,
@@ -149,9 +187,14 @@ public class MonsterView {
         }
     }
 
-    private void drawBoard() {
+    /**
+     * Draws the checkerboard, the trees and the decorations.
+     * They never change during a game, so `GameView` draws them only once per theme.
+     * @param gc The context in which the board is drawn.
+     */
+    public void drawBoard(GraphicsContext gc) {
         ICoordinate dimensions = gameModel.getMazeDimensions();
-        drawCheckboard();
+        drawCheckboard(gc);
         for (int x = 0; x < dimensions.getCol(); x++) {
             for (int y = 0; y < dimensions.getRow(); y++) {
                 if (gameModel.isWallAt(x, y)) {
@@ -172,24 +215,6 @@ public class MonsterView {
                             break;
                     }
                 }
-                if (fogEnabled && !model.getFogOfWar()[y][x]) {
-                    ViewUtils.drawSimpleTexture(gc, 256, 0, x, y);
-                }
-            }
-        }
-    }
-
-    private void updateFog(ICoordinate coordinate) {
-        ICoordinate mazeDimensions = gameModel.getMazeDimensions();
-        for (int y = -fogRadius; y < fogRadius + 1; y++) {
-            for (int x = -fogRadius; x < fogRadius + 1; x++) {
-                if (x * x + y * y <= Math.pow(3, 2)) {
-                    int posX = coordinate.getCol() + x;
-                    int posY = coordinate.getRow() + y;
-                    if (posX >= 0 && posX < mazeDimensions.getCol() && posY >= 0 && posY < mazeDimensions.getRow()) {
-                        model.getFogOfWar()[posY][posX] = true;
-                    }
-                }
             }
         }
     }
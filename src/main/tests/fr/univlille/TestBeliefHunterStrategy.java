@@ -0,0 +1,68 @@
+package fr.univlille;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import fr.univlille.iutinfo.cam.player.perception.ICellEvent.CellInfo;
+import fr.univlille.models.GameEngine;
+import fr.univlille.models.GameModel;
+
+public class TestBeliefHunterStrategy {
+
+    @Test
+    public void testSightingAndMoves() {
+        BeliefHunterStrategy hunter = new BeliefHunterStrategy(new Random(0));
+        hunter.initialize(100, 3);
+        assertEquals(300, hunter.getPossibleCount());
+
+        // the monster is seen at the current turn, then moves twice
+        hunter.update(new CellEvent(new Coordinate(63, 1), CellInfo.MONSTER, 5));
+        assertEquals(1, hunter.getPossibleCount());
+        hunter.update(new CellEvent(new Coordinate(62, 0), CellInfo.WALL, 5));
+        hunter.turnBegin(7);
+        assertTrue(hunter.isPossible(65, 1));
+        assertTrue(hunter.isPossible(64, 0));
+        assertFalse(hunter.isPossible(62, 0));
+        assertFalse(hunter.isPossible(66, 1));
+        assertEquals(10, hunter.getPossibleCount());
+
+        hunter.update(new CellEvent(new Coordinate(64, 0), CellInfo.EMPTY, 7));
+        assertFalse(hunter.isPossible(64, 0));
+        assertEquals(9, hunter.getPossibleCount());
+    }
+
+    @Test
+    public void testMonsterIsAlwaysAPossiblePosition() {
+        for (int seed = 0; seed < 50; seed++) {
+            GameParameters parameters = new GameParameters();
+            parameters.setMazeWidth(21 + seed);
+            parameters.setMazeHeight(11);
+            parameters.setSeed(seed);
+            parameters.setHunterShoots(3);
+            parameters.setHunterGrenades(0);
+            parameters.setWallsPercentage(1.0);
+            parameters.setGameMode(GameMode.BOT);
+            GameModel game = new GameModel();
+            game.setParameters(parameters);
+            game.generateMaze(parameters);
+
+            GameEngine engine = new GameEngine(game);
+            engine.start();
+            engine.setMonsterStrategy(new MonsterStrategy());
+            BeliefHunterStrategy hunter = new BeliefHunterStrategy(new Random(seed));
+            engine.setHunterStrategy(hunter);
+            while (!game.isGameEnded() && game.getTurn() < 200) {
+                engine.playBotTurn();
+                if (engine.isHunterTurn()) {
+                    assertTrue(hunter.isPossible(game.getMonster().getPosition().getCol(), game.getMonster().getPosition().getRow()));
+                }
+                engine.endTurn();
+            }
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package fr.univlille;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import fr.univlille.multiplayer.CommunicationQueue;
+import fr.univlille.multiplayer.MultiplayerCommand;
+import fr.univlille.multiplayer.MultiplayerCommunication;
+
+public class TestCommunicationQueue {
+  private static MultiplayerCommunication move(int x, int y) {
+    return new MultiplayerCommunication(MultiplayerCommand.MONSTER_PLAYED, x, y, false);
+  }
+
+  @Test
+  public void bounded_and_ordered() {
+    CommunicationQueue queue = new CommunicationQueue(4);
+    for (int i = 0; i < 4; i++) {
+      assertTrue(queue.offer(move(i, 0)));
+    }
+    assertFalse(queue.offer(move(4, 0)));
+    assertEquals(1, queue.getRejected());
+    assertEquals(4, queue.size());
+    assertEquals(0, queue.poll().getMoveX());
+    assertTrue(queue.offer(move(4, 0)));
+    for (int i = 1; i <= 4; i++) {
+      assertEquals(i, queue.poll().getMoveX());
+    }
+    assertNull(queue.poll());
+    assertTrue(queue.isEmpty());
+    assertEquals(5, queue.getEnqueued());
+    assertEquals(5, queue.getDequeued());
+    assertEquals(4, queue.getMaxDepth());
+  }
+
+  @Test
+  public void concurrent_producers_lose_nothing() throws InterruptedException {
+    final int producers = 4;
+    final int perProducer = 2000;
+    CommunicationQueue queue = new CommunicationQueue(64);
+    Thread[] threads = new Thread[producers];
+    for (int p = 0; p < producers; p++) {
+      final int producer = p;
+      threads[p] = new Thread(() -> {
+        for (int i = 0; i < perProducer; i++) {
+          while (!queue.offer(move(producer, i))) {
+            // yields rather than spinning, so that the consumer runs even on a single core
+            Thread.yield();
+          }
+        }
+      });
+      threads[p].start();
+    }
+    int[] next = new int[producers];
+    int received = 0;
+    while (received < producers * perProducer) {
+      MultiplayerCommunication c = queue.poll();
+      if (c != null) {
+        // each producer's communications arrive in order, exactly once
+        assertEquals(next[c.getMoveX()]++, c.getMoveY());
+        received++;
+      } else {
+        Thread.yield();
+      }
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertTrue(queue.isEmpty());
+    assertEquals(producers * perProducer, queue.getDequeued());
+  }
+}
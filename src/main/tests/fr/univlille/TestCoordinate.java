@@ -0,0 +1,50 @@
+package fr.univlille;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class TestCoordinate {
+
+    @Test
+    public void testPack() {
+        int packed = PackedCoordinate.pack(300, 7);
+        assertEquals(300, PackedCoordinate.x(packed));
+        assertEquals(7, PackedCoordinate.y(packed));
+        int outside = PackedCoordinate.pack(-1, -1);
+        assertEquals(-1, PackedCoordinate.x(outside));
+        assertEquals(-1, PackedCoordinate.y(outside));
+    }
+
+    @Test
+    public void testDistances() {
+        int a = PackedCoordinate.pack(1, 2);
+        int b = PackedCoordinate.pack(4, 6);
+        assertEquals(7, PackedCoordinate.manhattan(a, b));
+        assertEquals(25, PackedCoordinate.squaredDistance(a, b));
+        assertEquals(5.0, Coordinate.distance(new Coordinate(1, 2), new Coordinate(4, 6)), 0.0);
+    }
+
+    @Test
+    public void testNeighbours() {
+        int center = PackedCoordinate.pack(0, 0);
+        assertEquals(PackedCoordinate.pack(0, -1), PackedCoordinate.neighbour(center, PackedCoordinate.UP));
+        assertEquals(PackedCoordinate.pack(1, 0), PackedCoordinate.neighbour(center, PackedCoordinate.RIGHT));
+        assertEquals(PackedCoordinate.pack(0, 1), PackedCoordinate.neighbour(center, PackedCoordinate.DOWN));
+        assertEquals(PackedCoordinate.pack(-1, 0), PackedCoordinate.neighbour(center, PackedCoordinate.LEFT));
+        assertEquals(7 * 10 + 3, PackedCoordinate.toIndex(PackedCoordinate.pack(3, 7), 10));
+        assertEquals(PackedCoordinate.pack(3, 7), PackedCoordinate.fromIndex(7 * 10 + 3, 10));
+    }
+
+    @Test
+    public void testCoordinateTable() {
+        CoordinateTable table = new CoordinateTable(5, 5);
+        assertTrue(table.get(2, 3) == table.get(2, 3));
+        assertEquals(new Coordinate(2, 3), table.get(2, 3));
+        assertEquals(new Coordinate(2, 3).hashCode(), table.get(2, 3).hashCode());
+        assertEquals(new Coordinate(-1, 0), table.get(-1, 0));
+        assertThrows(UnsupportedOperationException.class, () -> table.get(2, 3).setCol(0));
+    }
+}
@@ -0,0 +1,65 @@
+package fr.univlille;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import fr.univlille.models.FogOfWar;
+
+public class TestFogOfWar {
+
+    @Test
+    public void testRadius() {
+        FogOfWar fog = new FogOfWar(new MazeGrid(9, 9), 3);
+        fog.reveal(4, 4);
+        // the cells of the disk: x² + y² <= 9
+        assertEquals(29, fog.getRevealedCount());
+        assertTrue(fog.isRevealed(7, 4));
+        assertTrue(fog.isRevealed(6, 6));
+        assertFalse(fog.isRevealed(7, 5));
+        assertFalse(fog.isRevealed(8, 4));
+
+        fog = new FogOfWar(new MazeGrid(9, 9), 1);
+        fog.reveal(4, 4);
+        assertEquals(5, fog.getRevealedCount());
+    }
+
+    @Test
+    public void testWallsHideTheCellsBehindThem() {
+        MazeGrid maze = new MazeGrid(9, 9);
+        maze.setWall(5, 4, true);
+        FogOfWar fog = new FogOfWar(maze, 4);
+        fog.reveal(4, 4);
+        assertTrue(fog.isRevealed(5, 4));
+        assertFalse(fog.isRevealed(6, 4));
+        assertFalse(fog.isRevealed(7, 4));
+        assertTrue(fog.isRevealed(6, 2));
+        assertTrue(fog.isRevealed(3, 4));
+    }
+
+    @Test
+    public void testOnlyTheNewCellsAreReported() {
+        FogOfWar fog = new FogOfWar(new MazeGrid(20, 5), 2);
+        fog.reveal(5, 2);
+        List<Integer> cells = new ArrayList<>();
+        fog.drainNewlyRevealed(cells::add);
+        assertEquals(fog.getRevealedCount(), cells.size());
+        assertTrue(cells.contains(2 * 20 + 7));
+
+        cells.clear();
+        fog.reveal(5, 2);
+        fog.drainNewlyRevealed(cells::add);
+        assertTrue(cells.isEmpty());
+
+        // a step to the right only shows the cells of the right edge
+        fog.reveal(6, 2);
+        fog.drainNewlyRevealed(cells::add);
+        assertEquals(5, cells.size());
+        assertTrue(cells.contains(2 * 20 + 8));
+    }
+}
@@ -0,0 +1,124 @@
+package fr.univlille;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import fr.univlille.iutinfo.cam.player.hunter.IHunterStrategy;
+import fr.univlille.iutinfo.cam.player.perception.ICellEvent;
+import fr.univlille.iutinfo.cam.player.perception.ICoordinate;
+import fr.univlille.models.GameEngine;
+import fr.univlille.models.GameModel;
+import fr.univlille.pathfinding.DistanceField;
+
+public class TestGameEngine {
+
+    GameModel game;
+    GameEngine engine;
+
+    @Before
+    public void initialize() {
+        GameParameters parameters = new GameParameters();
+        parameters.setMazeWidth(9);
+        parameters.setMazeHeight(7);
+        parameters.setHunterShoots(2);
+        parameters.setHunterGrenades(0);
+        parameters.setWallsPercentage(0.0);
+        parameters.setSeed(1234);
+        game = new GameModel();
+        game.setParameters(parameters);
+        game.generateMaze(parameters);
+        engine = new GameEngine(game);
+        engine.start();
+    }
+
+    /**
+     * A hunter that always shoots the exit, where the monster cannot be without having won.
+     */
+    private class ExitHunter implements IHunterStrategy {
+        int shots;
+
+        @Override
+        public ICoordinate play() {
+            shots++;
+            return game.getExit();
+        }
+
+        @Override
+        public void update(ICellEvent event) {}
+
+        @Override
+        public void initialize(int width, int height) {}
+    }
+
+    @Test
+    public void testTurnsAlternate() {
+        engine.setMonsterStrategy(new MonsterStrategy());
+        ExitHunter hunter = new ExitHunter();
+        engine.setHunterStrategy(hunter);
+
+        // the monster starts, and its first position is in the history
+        assertFalse(engine.isHunterTurn());
+        assertEquals(1, game.getTurn());
+        assertEquals(1, game.getHistory().size());
+
+        engine.step();
+        assertTrue(engine.isHunterTurn());
+        assertEquals(2, game.getTurn());
+        assertEquals(2, game.getHistory().size());
+        assertEquals(2, game.getHunter().getShootsLeft());
+        assertEquals(0, hunter.shots);
+
+        // the hunter uses all of its shots, and the turn only changes with the moves of the monster
+        engine.step();
+        assertFalse(engine.isHunterTurn());
+        assertEquals(2, game.getTurn());
+        assertEquals(2, hunter.shots);
+        assertEquals(0, game.getHunter().getShootsLeft());
+
+        engine.step();
+        assertTrue(engine.isHunterTurn());
+        assertEquals(3, game.getTurn());
+        assertEquals(2, game.getHunter().getShootsLeft());
+        assertFalse(game.isGameEnded());
+    }
+
+    @Test
+    public void testMonsterWinsAtTheExit() {
+        DistanceField distances = game.getExitDistances();
+        ICoordinate exit = game.getExit();
+        int width = game.getWidth();
+        while (!game.isGameEnded()) {
+            ICoordinate position = game.getMonster().getPosition();
+            assertFalse(position.equals(exit));
+            int next = distances.nextStep(position.getCol(), position.getRow());
+            engine.playMonster(game.getCoordinate(next % width, next / width));
+            engine.endTurn();
+            engine.endTurn();
+        }
+        assertTrue(game.monsterWon());
+        assertEquals(exit, game.getMonster().getPosition());
+    }
+
+    @Test
+    public void testHunterWinsByShootingTheMonster() {
+        ICoordinate start = game.getMonster().getPosition();
+        int next = game.getExitDistances().nextStep(start.getCol(), start.getRow());
+        engine.playMonster(game.getCoordinate(next % game.getWidth(), next / game.getWidth()));
+        engine.endTurn();
+
+        // the monster was there at the previous turn, it's not captured
+        assertTrue(engine.playHunterShot(start));
+        assertFalse(game.isGameEnded());
+
+        assertTrue(engine.playHunterShot(game.getMonster().getPosition()));
+        assertTrue(game.isGameEnded());
+        assertFalse(game.monsterWon());
+
+        // no shot is left
+        assertFalse(engine.playHunterShot(start));
+    }
+}
@@ -0,0 +1,113 @@
+package fr.univlille;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import fr.univlille.iutinfo.cam.player.perception.ICellEvent;
+import fr.univlille.iutinfo.cam.player.perception.ICellEvent.CellInfo;
+import fr.univlille.iutinfo.cam.player.perception.ICoordinate;
+import fr.univlille.models.GameModel;
+import fr.univlille.models.HunterModel;
+
+public class TestGameModel {
+
+    GameParameters parameters;
+    GameModel game;
+
+    @Before
+    public void initialize() {
+        parameters = new GameParameters();
+        parameters.setMazeWidth(9);
+        parameters.setMazeHeight(7);
+        parameters.setHunterShoots(1);
+        parameters.setHunterGrenades(0);
+        parameters.setWallsPercentage(0.0);
+        parameters.setSeed(1234);
+        game = new GameModel();
+        game.setParameters(parameters);
+        game.generateMaze(parameters);
+    }
+
+    private static List<String> describe(Iterable<ICellEvent> events) {
+        List<String> described = new ArrayList<>();
+        for (ICellEvent event : events) {
+            described.add(event.getCoord().getCol() + "," + event.getCoord().getRow() + ":" + event.getState() + "@" + event.getTurn());
+        }
+        return described;
+    }
+
+    @Test
+    public void testLastVisitOfARevisitedCell() {
+        game.addToHistory(new CellEvent(new Coordinate(1, 1), CellInfo.MONSTER, 1));
+        game.addToHistory(new CellEvent(new Coordinate(2, 1), CellInfo.MONSTER, 2));
+        game.addToHistory(new CellEvent(new Coordinate(1, 1), CellInfo.MONSTER, 3));
+
+        assertEquals(3, game.getLastVisit(1, 1).getTurn());
+        assertEquals(3, game.getLastVisitTurn(1, 1));
+        assertEquals(2, game.getLastVisitTurn(2, 1));
+        assertEquals(3, game.getHistory().size());
+    }
+
+    @Test
+    public void testLastVisitOfACellNeverVisited() {
+        game.addToHistory(new CellEvent(new Coordinate(1, 1), CellInfo.MONSTER, 1));
+
+        assertNull(game.getLastVisit(1, 2));
+        assertEquals(-1, game.getLastVisitTurn(1, 2));
+        // outside of the maze
+        assertNull(game.getLastVisit(-1, 0));
+        assertNull(game.getLastVisit(9, 0));
+        assertEquals(-1, game.getLastVisitTurn(0, 7));
+    }
+
+    @Test
+    public void testRepeatedShotsOnTheSameCell() {
+        HunterModel hunter = game.getHunter();
+        game.addToHistory(new CellEvent(new Coordinate(4, 4), CellInfo.MONSTER, 1));
+
+        hunter.shoot(game.getCoordinate(2, 3));
+        hunter.shoot(game.getCoordinate(4, 4));
+        hunter.shoot(game.getCoordinate(2, 3));
+        hunter.shoot(game.getCoordinate(2, 3));
+
+        // a cell is only kept once, at the place of its last shot
+        assertEquals(List.of("4,4:MONSTER@1", "2,3:EMPTY@1"), describe(hunter.getShootsHistory()));
+        assertEquals(CellInfo.EMPTY, hunter.getShootAt(2, 3).getState());
+        assertEquals(1, hunter.getShootAt(4, 4).getTurn());
+        assertNull(hunter.getShootAt(0, 0));
+        assertNull(hunter.getShootAt(-1, 0));
+    }
+
+    /**
+     * Generates a game with the legacy placement and describes where the monster and the exit are.
+     */
+    private static String legacyPlacement(int width, int height, int seed, double walls) {
+        GameParameters legacy = new GameParameters();
+        legacy.setMazeWidth(width);
+        legacy.setMazeHeight(height);
+        legacy.setSeed(seed);
+        legacy.setWallsPercentage(walls);
+        legacy.setLegacyPlacement(true);
+        GameModel generated = new GameModel();
+        generated.setParameters(legacy);
+        generated.generateMaze(legacy);
+        ICoordinate monster = generated.getMonster().getPosition();
+        ICoordinate exit = generated.getExit();
+        return monster.getCol() + "," + monster.getRow() + " -> " + exit.getCol() + "," + exit.getRow();
+    }
+
+    @Test
+    public void testLegacyPlacementMatchesTheFormerVersion() {
+        // the positions given by the former implementation with the same parameters,
+        // which an older instance of the game expects in a multiplayer game
+        assertEquals("3,8 -> 2,2", legacyPlacement(11, 9, 42, 0.9));
+        assertEquals("11,10 -> 2,0", legacyPlacement(15, 11, 7, 1.0));
+        assertEquals("20,10 -> 6,2", legacyPlacement(21, 13, 2024, 0.8));
+    }
+}
@@ -0,0 +1,89 @@
+package fr.univlille;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import fr.univlille.iutinfo.cam.player.perception.ICellEvent;
+import fr.univlille.models.FogOfWar;
+import fr.univlille.models.GameModel;
+import fr.univlille.models.GameSnapshot;
+
+public class TestGameSnapshot {
+
+    GameParameters parameters;
+
+    @Before
+    public void initialize() {
+        parameters = new GameParameters();
+        parameters.setMazeWidth(9);
+        parameters.setMazeHeight(7);
+        parameters.setHunterShoots(1);
+        parameters.setHunterGrenades(2);
+        parameters.setWallsPercentage(0.0);
+        parameters.setSeed(1234);
+    }
+
+    private GameModel createGame() {
+        GameModel game = new GameModel();
+        game.setParameters(parameters);
+        game.generateMaze(parameters);
+        return game;
+    }
+
+    private static List<String> describe(Iterable<ICellEvent> events) {
+        List<String> described = new ArrayList<>();
+        for (ICellEvent event : events) {
+            described.add(event.getCoord().getCol() + "," + event.getCoord().getRow() + ":" + event.getState() + "@" + event.getTurn());
+        }
+        return described;
+    }
+
+    @Test
+    public void testRestoreGivesTheSameGame() {
+        GameModel played = createGame();
+        for (int turn = 0; turn < 3; turn++) {
+            Coordinate position = played.getMonster().getPosition();
+            played.getMonster().play(played.getCoordinate(position.getCol(), position.getRow()));
+            played.getHunter().playHunterMove(played.getCoordinate(turn, turn));
+            played.getHunter().turnBegin();
+        }
+        played.getHunter().shoot(played.getCoordinate(-1, -1));
+        played.getHunter().setGrenadesLeft(1);
+        played.getMonster().setFogOfWar(new FogOfWar(played.getGrid(), 3));
+        played.getMonster().getFogOfWar().setRevealed(5, 2);
+
+        GameSnapshot snapshot = GameSnapshot.fromBase64(GameSnapshot.capture(played, true).toBase64());
+        GameModel restored = createGame();
+        assertTrue(snapshot.restore(restored));
+
+        assertEquals(played.getTurn(), snapshot.getTurn());
+        assertEquals(played.getTurn(), restored.getTurn());
+        assertEquals(played.getMonster().getPosition(), restored.getMonster().getPosition());
+        assertEquals(1, restored.getHunter().getGrenadesLeft());
+        assertEquals(describe(played.getHistory()), describe(restored.getHistory()));
+        assertEquals(describe(played.getHunter().getShootsHistory()), describe(restored.getHunter().getShootsHistory()));
+        assertEquals(played.getLastVisitTurn(1, 1), restored.getLastVisitTurn(1, 1));
+        assertTrue(restored.getMonster().getFogOfWar().isRevealed(5, 2));
+        assertFalse(restored.getMonster().getFogOfWar().isRevealed(2, 5));
+    }
+
+    @Test
+    public void testTruncatedSnapshotIsRefused() {
+        GameModel game = createGame();
+        int turn = game.getTurn();
+        byte[] bytes = GameSnapshot.capture(game, false).getBytes();
+        String truncated = Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(bytes, bytes.length - 1));
+        assertThrows(IllegalArgumentException.class, () -> GameSnapshot.fromBase64(truncated).restore(game));
+        assertEquals(turn, game.getTurn());
+    }
+}
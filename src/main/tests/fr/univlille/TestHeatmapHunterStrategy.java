@@ -0,0 +1,77 @@
+package fr.univlille;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+import fr.univlille.iutinfo.cam.player.perception.ICellEvent.CellInfo;
+import fr.univlille.iutinfo.cam.player.perception.ICoordinate;
+
+public class TestHeatmapHunterStrategy {
+
+    private static double sum(HeatmapHunterStrategy hunter, int width, int height) {
+        double sum = 0;
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                sum += hunter.getProbability(x, y);
+            }
+        }
+        return sum;
+    }
+
+    @Test
+    public void testBayesianUpdates() {
+        HeatmapHunterStrategy hunter = new HeatmapHunterStrategy(new Random(0), null);
+        hunter.initialize(10, 10);
+        assertEquals(0.01f, hunter.getProbability(3, 4), 1e-6f);
+
+        hunter.update(new CellEvent(new Coordinate(0, 0), CellInfo.WALL, 0));
+        assertEquals(0f, hunter.getProbability(0, 0), 0f);
+        assertEquals(1f / 99, hunter.getProbability(3, 4), 1e-6f);
+
+        // the monster is seen, then moves twice: it cannot be further than two cells away
+        hunter.update(new CellEvent(new Coordinate(5, 5), CellInfo.MONSTER, 3));
+        assertEquals(1f, hunter.getProbability(5, 5), 0f);
+        hunter.turnBegin(5);
+        assertEquals(1, sum(hunter, 10, 10), 1e-4);
+        assertEquals(0f, hunter.getProbability(8, 5), 0f);
+        assertTrue(hunter.getProbability(7, 5) > 0f);
+        assertTrue(hunter.getProbability(6, 6) > hunter.getProbability(7, 5));
+
+        ICoordinate target = hunter.play();
+        hunter.update(new CellEvent(target, CellInfo.EMPTY, 5));
+        assertEquals(0f, hunter.getProbability(target.getCol(), target.getRow()), 0f);
+        assertEquals(1, sum(hunter, 10, 10), 1e-4);
+    }
+
+    @Test
+    public void testParallelDiffusionGivesTheSameProbabilities() {
+        int width = 300;
+        int height = 250;
+        HeatmapHunterStrategy sequential = new HeatmapHunterStrategy(new Random(1), null);
+        HeatmapHunterStrategy parallel = new HeatmapHunterStrategy(new Random(1), new ForkJoinPool(4));
+        sequential.initialize(width, height);
+        parallel.initialize(width, height);
+        Random random = new Random(2);
+        for (int i = 0; i < 5000; i++) {
+            Coordinate wall = new Coordinate(random.nextInt(width), random.nextInt(height));
+            sequential.update(new CellEvent(wall, CellInfo.WALL, 0));
+            parallel.update(new CellEvent(wall, CellInfo.WALL, 0));
+        }
+        CellEvent sighting = new CellEvent(new Coordinate(150, 120), CellInfo.MONSTER, 1);
+        sequential.update(sighting);
+        parallel.update(sighting);
+        sequential.turnBegin(40);
+        parallel.turnBegin(40);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                assertEquals(sequential.getProbability(x, y), parallel.getProbability(x, y), 0f);
+            }
+        }
+        assertEquals(1, sum(parallel, width, height), 1e-3);
+    }
+}
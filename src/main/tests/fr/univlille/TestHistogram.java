@@ -0,0 +1,46 @@
+package fr.univlille;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import fr.univlille.metrics.Histogram;
+
+public class TestHistogram {
+  @Test
+  public void small_values_are_exact() {
+    Histogram histogram = new Histogram();
+    for (int i = 1; i <= 100; i++) {
+      histogram.record(i);
+    }
+    assertEquals(100, histogram.getCount());
+    assertEquals(50, histogram.getPercentile(50));
+    assertEquals(99, histogram.getPercentile(99));
+    assertEquals(100, histogram.getMax());
+    assertEquals(50.5, histogram.getMean(), 0.001);
+  }
+
+  @Test
+  public void large_values_are_precise() {
+    Histogram histogram = new Histogram();
+    for (long i = 1; i <= 100_000; i++) {
+      histogram.record(i * 1000);
+    }
+    long median = histogram.getPercentile(50);
+    long p99 = histogram.getPercentile(99);
+    assertTrue(Math.abs(median - 50_000_000L) <= 50_000_000L / 50);
+    assertTrue(Math.abs(p99 - 99_000_000L) <= 99_000_000L / 50);
+    assertEquals(100_000_000L, histogram.getMax());
+    assertEquals(100_000_000L, histogram.getPercentile(100));
+  }
+
+  @Test
+  public void empty_and_negative() {
+    Histogram histogram = new Histogram();
+    assertEquals(0, histogram.getPercentile(50));
+    histogram.record(-5);
+    assertEquals(1, histogram.getCount());
+    assertEquals(0, histogram.getMax());
+  }
+}
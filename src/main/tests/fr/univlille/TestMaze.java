@@ -2,6 +2,7 @@ package fr.univlille;
 
 import org.junit.Test;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
@@ -35,4 +36,63 @@ public class TestMaze {
         assertTrue(maze.getMaze()[3][1]);
         assertFalse(maze.getMaze()[0][4]);
     }
+
+    @Test
+    public void testCreateMazeIsDeterministic() {
+        MazeGrid first = new Maze(31, 17).createMaze(0.9, new Random(42));
+        MazeGrid second = new Maze(31, 17).createMaze(0.9, new Random(42));
+        assertEquals(first, second);
+    }
+
+    /**
+     * Mazes generated by the former recursive version, `#` being a wall.
+     * The host and the client of a multiplayer game must get the same maze from the same seed,
+     * whatever the version of the game they run.
+     */
+    private static final String[] MAZE_11_7_SEED_42 = {
+        "...#.......",
+        ".#######.#.",
+        ".#.......#.",
+        ".###.#.#.#.",
+        ".....#.#.#.",
+        "##.#.#.##..",
+        "...........",
+    };
+
+    private static final String[] MAZE_9_9_SEED_7 = {
+        ".........",
+        ".#.#####.",
+        "...#.#...",
+        "####.#.##",
+        ".....#...",
+        ".###.###.",
+        ".#.#...#.",
+        ".#.###.#.",
+        ".....#...",
+    };
+
+    private static MazeGrid parse(String[] rows) {
+        boolean[][] walls = new boolean[rows.length][];
+        for (int y = 0; y < rows.length; y++) {
+            walls[y] = new boolean[rows[y].length()];
+            for (int x = 0; x < rows[y].length(); x++) {
+                walls[y][x] = rows[y].charAt(x) == '#';
+            }
+        }
+        return MazeGrid.fromArray(walls);
+    }
+
+    @Test
+    public void testCreateMazeMatchesTheRecursiveVersion() {
+        assertEquals(parse(MAZE_11_7_SEED_42), new Maze(11, 7).createMaze(0.9, new Random(42)));
+        assertEquals(parse(MAZE_9_9_SEED_7), new Maze(9, 9).createMaze(1.0, new Random(7)));
+    }
+
+    @Test
+    public void testCreateVeryLargeMaze() {
+        // the recursive version used to throw a StackOverflowError with such dimensions
+        MazeGrid tiles = new Maze(1000, 1000).createMaze(1.0, new Random(0));
+        assertFalse(tiles.isWall(0, 0));
+        assertFalse(tiles.isWall(998, 998));
+    }
 }
@@ -0,0 +1,63 @@
+package fr.univlille;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class TestMazeGrid {
+
+    @Test
+    public void testSetWall() {
+        MazeGrid grid = new MazeGrid(70, 3);
+        assertFalse(grid.isWall(69, 2));
+        grid.setWall(69, 2, true);
+        grid.setWall(64, 1, true);
+        assertTrue(grid.isWall(69, 2));
+        assertTrue(grid.isWall(64, 1));
+        assertFalse(grid.isWall(5, 2));
+        grid.setWall(69, 2, false);
+        assertFalse(grid.isWall(69, 2));
+        assertEquals(70 * 3 - 1, grid.countOpen());
+    }
+
+    @Test
+    public void testOutOfBoundsIsWall() {
+        MazeGrid grid = new MazeGrid(4, 4);
+        assertTrue(grid.isWall(-1, 0));
+        assertTrue(grid.isWall(4, 0));
+        assertTrue(grid.isWall(0, 4));
+        assertFalse(grid.isOpen(0, -1));
+    }
+
+    @Test
+    public void testFill() {
+        MazeGrid grid = new MazeGrid(65, 2);
+        grid.fill(true);
+        assertEquals(0, grid.countOpen());
+        assertEquals(1L, grid.getWord(1, 1)); // the bits after the end of the row stay empty
+        grid.fill(false);
+        assertEquals(65 * 2, grid.countOpen());
+    }
+
+    @Test
+    public void testArrayConversion() {
+        boolean[][] maze = new Maze(37, 21).createMaze(0.8, new Random(3)).toArray();
+        assertTrue(Arrays.deepEquals(maze, MazeGrid.fromArray(maze).toArray()));
+    }
+
+    @Test
+    public void testOpenNeighbours() {
+        MazeGrid grid = MazeGrid.fromArray(new boolean[][] {
+            { false, true, false },
+            { false, false, false },
+            { true, false, false },
+        });
+        assertEquals(MazeGrid.RIGHT | MazeGrid.DOWN | MazeGrid.LEFT, grid.openNeighbours(1, 1));
+        assertEquals(MazeGrid.DOWN, grid.openNeighbours(0, 0));
+    }
+}
@@ -0,0 +1,61 @@
+package fr.univlille;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import fr.univlille.mcts.PlayoutState;
+import fr.univlille.mcts.SearchTree;
+import fr.univlille.mcts.SimulatedGame;
+import fr.univlille.pathfinding.DistanceField;
+
+public class TestMctsMonsterStrategy {
+
+    /**
+     * The monster is on the top left corner and the exit is behind the wall:
+     * 6 steps around it, or a single super jump over it.
+     */
+    private static final boolean[][] MAZE = {
+        {false, true, false, false, false},
+        {false, true, false, false, false},
+        {false, false, false, false, false},
+    };
+
+    private static SimulatedGame game() {
+        MazeGrid maze = MazeGrid.fromArray(MAZE);
+        return new SimulatedGame(maze, new DistanceField(maze, 2, 0), 1);
+    }
+
+    @Test
+    public void testLegalActions() {
+        SimulatedGame game = game();
+        PlayoutState state = new PlayoutState();
+        state.reset(0, 0, 1);
+        // down, a super jump to the right (over the wall), and a super jump down
+        assertEquals((1 << 2) | (1 << 5) | (1 << 6), game.legalActions(state));
+        assertEquals(2, game.target(0, 5));
+        assertEquals(-1, game.target(0, 1));
+
+        state.reset(0, 0, 0);
+        assertEquals(1 << 2, game.legalActions(state));
+    }
+
+    @Test
+    public void testSearchFindsTheSuperJumpOverAWall() {
+        SimulatedGame game = game();
+        PlayoutState root = new PlayoutState();
+        root.reset(0, 0, 1);
+        // the hunter saw the monster on its cell just before
+        root.reveal(0, 0);
+
+        SearchTree tree = new SearchTree(1024);
+        tree.search(game, root, 0, 500, 0);
+        assertEquals(500, tree.getIterations());
+        assertTrue(tree.getVisits(5) > tree.getVisits(2));
+        assertTrue(tree.getVisits(5) > tree.getVisits(6));
+        // the search doesn't modify the root
+        assertEquals(0, root.getMonster());
+        assertEquals(1, root.getSuperJumpsLeft());
+    }
+}
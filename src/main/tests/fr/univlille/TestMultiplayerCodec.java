@@ -0,0 +1,94 @@
+package fr.univlille;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+import org.junit.Test;
+
+import fr.univlille.multiplayer.InvalidCommunicationException;
+import fr.univlille.multiplayer.MultiplayerCodec;
+import fr.univlille.multiplayer.MultiplayerCommand;
+import fr.univlille.multiplayer.MultiplayerCommunication;
+
+public class TestMultiplayerCodec {
+  private static MultiplayerCommunication roundTrip(MultiplayerCommunication comm, boolean binary) throws IOException, InvalidCommunicationException {
+    return MultiplayerCodec.read(new ByteArrayInputStream(MultiplayerCodec.encode(comm, binary)));
+  }
+
+  @Test
+  public void move_round_trip() throws IOException, InvalidCommunicationException {
+    for (boolean binary : new boolean[] { true, false }) {
+      MultiplayerCommunication comm = roundTrip(new MultiplayerCommunication(MultiplayerCommand.HUNTER_PLAYED, 300, -1, true), binary);
+      assertEquals(MultiplayerCommand.HUNTER_PLAYED, comm.getCommand());
+      assertEquals(300, comm.getMoveX());
+      assertEquals(-1, comm.getMoveY());
+      assertTrue(comm.isPowerupUsed());
+    }
+  }
+
+  @Test
+  public void parameters_round_trip() throws IOException, InvalidCommunicationException {
+    for (boolean binary : new boolean[] { true, false }) {
+      MultiplayerCommunication comm = roundTrip(new MultiplayerCommunication(MultiplayerCommand.JOIN, "hôte;" + MultiplayerCodec.CAPABILITY), binary);
+      assertEquals(MultiplayerCommand.JOIN, comm.getCommand());
+      assertEquals("hôte", comm.getParameter(0));
+      assertEquals(MultiplayerCodec.CAPABILITY, comm.getParameter(1));
+      assertFalse(roundTrip(new MultiplayerCommunication(MultiplayerCommand.DISCONNECTION), binary).hasParameters());
+    }
+  }
+
+  @Test
+  public void binary_move_is_smaller_than_text() {
+    MultiplayerCommunication comm = new MultiplayerCommunication(MultiplayerCommand.MONSTER_PLAYED, 12, 34, false);
+    assertTrue(MultiplayerCodec.encode(comm, true).length < MultiplayerCodec.encode(comm, false).length);
+  }
+
+  @Test
+  public void read_mixed_formats() throws IOException, InvalidCommunicationException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    out.write("command=1;client;binary1\r\n".getBytes());
+    out.write(MultiplayerCodec.encode(new MultiplayerCommunication(MultiplayerCommand.MONSTER_PLAYED, 3, 4, false), true));
+    out.write(MultiplayerCodec.encode(new MultiplayerCommunication(MultiplayerCommand.HUNTER_PLAYED, 5, 6, true), false));
+    InputStream in = new ByteArrayInputStream(out.toByteArray());
+    assertEquals("client", MultiplayerCodec.read(in).getParameter(0));
+    assertEquals(4, MultiplayerCodec.read(in).getMoveY());
+    assertEquals("5-6", MultiplayerCodec.read(in).getParameter(0));
+    assertNull(MultiplayerCodec.read(in));
+  }
+
+  @Test
+  public void decode_partial_buffer() throws IOException, InvalidCommunicationException {
+    byte[] frame = MultiplayerCodec.encode(new MultiplayerCommunication(MultiplayerCommand.MONSTER_PLAYED, 7, 8, true), true);
+    byte[] line = "command=2\n".getBytes();
+    ByteBuffer buffer = ByteBuffer.allocate(64);
+    buffer.put(frame, 0, frame.length - 1).flip();
+    assertNull(MultiplayerCodec.decode(buffer));
+    assertEquals(0, buffer.position());
+    buffer.compact().put(frame[frame.length - 1]).put(line, 0, 4).flip();
+    assertEquals(8, MultiplayerCodec.decode(buffer).getMoveY());
+    assertNull(MultiplayerCodec.decode(buffer));
+    buffer.compact().put(line, 4, line.length - 4).flip();
+    assertEquals(MultiplayerCommand.DISCONNECTION, MultiplayerCodec.decode(buffer).getCommand());
+    assertFalse(buffer.hasRemaining());
+  }
+
+  @Test
+  public void malformed_parameter_count() {
+    // a JOIN frame announcing -1 parameters, then 0x7FFFFFFF parameters, with nothing after
+    byte[] negative = { 0, 6, 1, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x0F };
+    byte[] huge = { 0, 6, 1, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07 };
+    for (byte[] frame : new byte[][] { negative, huge }) {
+      assertThrows(InvalidCommunicationException.class, () -> MultiplayerCodec.read(new ByteArrayInputStream(frame)));
+      assertThrows(InvalidCommunicationException.class, () -> MultiplayerCodec.decode(ByteBuffer.wrap(frame)));
+    }
+  }
+}
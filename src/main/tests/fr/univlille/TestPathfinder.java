@@ -0,0 +1,87 @@
+package fr.univlille;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import fr.univlille.pathfinding.DistanceField;
+import fr.univlille.pathfinding.Pathfinder;
+
+public class TestPathfinder {
+
+    MazeGrid maze;
+    Pathfinder pathfinder;
+
+    @Before
+    public void initialize() {
+        // . . . #
+        // # # . #
+        // . . . .
+        maze = MazeGrid.fromArray(new boolean[][] {
+            { false, false, false, true },
+            { true, true, false, true },
+            { false, false, false, false },
+        });
+        pathfinder = new Pathfinder(maze);
+    }
+
+    @Test
+    public void testDistance() {
+        assertEquals(0, pathfinder.distance(0, 0, 0, 0));
+        assertEquals(4, pathfinder.distance(0, 0, 2, 2));
+        assertEquals(6, pathfinder.distance(0, 0, 0, 2));
+        assertEquals(Pathfinder.UNREACHABLE, pathfinder.distance(0, 0, 3, 0));
+        assertEquals(Pathfinder.UNREACHABLE, pathfinder.distance(0, 0, -1, 0));
+    }
+
+    @Test
+    public void testNextStep() {
+        assertEquals(pathfinder.indexOf(1, 0), pathfinder.nextStep(0, 0, 3, 2));
+        assertEquals(pathfinder.indexOf(2, 1), pathfinder.nextStep(2, 0, 2, 2));
+        assertEquals(Pathfinder.UNREACHABLE, pathfinder.nextStep(1, 1, 2, 2));
+        assertEquals(Pathfinder.UNREACHABLE, pathfinder.nextStep(0, 0, 3, 0));
+    }
+
+    @Test
+    public void testNextStepPrefersSmallestIndex() {
+        // Two shortest paths lead from (0, 0) to (1, 1),
+        // the cell reached first is the one with the smallest row-major index.
+        Pathfinder open = new Pathfinder(new MazeGrid(2, 2));
+        assertEquals(open.indexOf(1, 0), open.nextStep(0, 0, 1, 1));
+    }
+
+    @Test
+    public void testDistanceField() {
+        DistanceField field = new DistanceField(maze, 0, 2);
+        assertEquals(0, field.getDistance(0, 2));
+        assertEquals(6, field.getDistance(0, 0));
+        assertEquals(Pathfinder.UNREACHABLE, field.getDistance(3, 0));
+        assertEquals(Pathfinder.UNREACHABLE, field.getDistance(1, 1));
+        assertEquals(pathfinder.indexOf(2, 1), field.nextStep(2, 0));
+        assertEquals(pathfinder.indexOf(0, 2), field.nextStep(0, 2));
+        assertEquals(Pathfinder.UNREACHABLE, field.nextStep(3, 0));
+    }
+
+    @Test
+    public void testDistanceFieldTieBreak() {
+        // # . .
+        // . . .
+        // . # .
+        // . . .
+        // Two shortest paths lead from (1, 3) to the exit (1, 0), around the wall on the left or on the right.
+        MazeGrid tie = MazeGrid.fromArray(new boolean[][] {
+            { true, false, false },
+            { false, false, false },
+            { false, true, false },
+            { false, false, false },
+        });
+        DistanceField field = new DistanceField(tie, 1, 0);
+        Pathfinder search = new Pathfinder(tie);
+        // the field takes the neighbour with the smallest index
+        assertEquals(search.indexOf(0, 3), field.nextStep(1, 3));
+        // the search rewinds the path from the exit, through (2, 0), like the former Dijkstra
+        assertEquals(search.indexOf(2, 3), search.nextStep(1, 3, 1, 0));
+        assertEquals(field.getDistance(0, 3), field.getDistance(2, 3));
+    }
+}
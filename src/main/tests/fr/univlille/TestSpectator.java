@@ -0,0 +1,79 @@
+package fr.univlille;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+import fr.univlille.multiplayer.Client;
+import fr.univlille.multiplayer.InvalidCommunicationException;
+import fr.univlille.multiplayer.MultiplayerBody;
+import fr.univlille.multiplayer.MultiplayerCodec;
+import fr.univlille.multiplayer.MultiplayerCommand;
+import fr.univlille.multiplayer.MultiplayerCommunication;
+import fr.univlille.multiplayer.Server;
+
+public class TestSpectator {
+  private static final int PORT = 47933;
+  private static final long TIMEOUT = 5000;
+
+  /**
+   * Reads the communications sent to the spectator until the next move.
+   */
+  private static MultiplayerCommunication nextMove(InputStream in) throws IOException, InvalidCommunicationException {
+    MultiplayerCommunication communication;
+    do {
+      communication = MultiplayerCodec.read(in);
+    } while (communication != null && !communication.isMove());
+    return communication;
+  }
+
+  private static void play(MultiplayerBody player, MultiplayerCommand command, int x, InputStream spectator) throws Exception {
+    player.broadcast(new MultiplayerCommunication(command, x, 0, false));
+    MultiplayerCommunication move = nextMove(spectator);
+    assertEquals(command, move.getCommand());
+    assertEquals(x, move.getMoveX());
+    // each player numbers its own moves, so the spectator cannot tell them apart with these numbers
+    assertEquals(0, move.getSequence());
+  }
+
+  @Test
+  public void spectator_receives_the_moves_of_both_players() throws Exception {
+    Server server = Server.getInstance();
+    Client client = Client.getInstance();
+    server.setIncomingCommunicationCallback(() -> server.drainCommunications(c -> {}));
+    client.setIncomingCommunicationCallback(() -> client.drainCommunications(c -> {}));
+    server.host(PORT);
+    try (Socket spectator = new Socket()) {
+      client.connect("localhost", PORT);
+      spectator.connect(new InetSocketAddress("localhost", PORT));
+      spectator.setSoTimeout((int) TIMEOUT);
+      OutputStream out = spectator.getOutputStream();
+      out.write(("command=" + MultiplayerCommand.SPECTATE.ordinal() + ";spectator;" + MultiplayerCodec.CAPABILITY + "\n").getBytes(StandardCharsets.UTF_8));
+      out.flush();
+      long deadline = System.currentTimeMillis() + TIMEOUT;
+      while ((server.getSpectators().isEmpty() || !client.usesBinaryProtocol()) && System.currentTimeMillis() < deadline) {
+        Thread.sleep(10);
+      }
+      assertEquals(1, server.getSpectators().size());
+
+      InputStream in = new BufferedInputStream(spectator.getInputStream());
+      for (int turn = 1; turn <= 3; turn++) {
+        play(server, MultiplayerCommand.MONSTER_PLAYED, 2 * turn, in);
+        play(client, MultiplayerCommand.HUNTER_PLAYED, 2 * turn + 1, in);
+      }
+      assertEquals(3, server.getLastSentSequence());
+      assertEquals(3, client.getLastSentSequence());
+    } finally {
+      client.kill();
+      server.kill();
+    }
+  }
+}
@@ -0,0 +1,54 @@
+package fr.univlille;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import fr.univlille.tournament.Tournament;
+import fr.univlille.tournament.TournamentResult;
+
+public class TestTournament {
+
+    GameParameters parameters;
+
+    @Before
+    public void initialize() {
+        parameters = new GameParameters();
+        parameters.setMazeWidth(9);
+        parameters.setMazeHeight(7);
+        parameters.setHunterShoots(1);
+        parameters.setHunterGrenades(0);
+        parameters.setWallsPercentage(1.0);
+        parameters.setSeed(1234);
+    }
+
+    @Test
+    public void testEveryGameIsCounted() {
+        TournamentResult result = new Tournament(parameters).run(500);
+        assertEquals(500, result.getGames());
+        assertEquals(500, result.getMonsterWins() + result.getHunterWins() + result.getDraws());
+        assertTrue(result.getAverageTurns() >= 1);
+    }
+
+    @Test
+    public void testResultsDontDependOnTheNumberOfWorkers() {
+        TournamentResult single = new Tournament(parameters).run(500, new ForkJoinPool(1));
+        TournamentResult several = new Tournament(parameters).run(500, new ForkJoinPool(4));
+        assertEquals(single.getMonsterWins(), several.getMonsterWins());
+        assertEquals(single.getHunterWins(), several.getHunterWins());
+        assertEquals(single.getAverageTurns(), several.getAverageTurns(), 0);
+        assertEquals(single.getCaptureTurnsPercentile(50), several.getCaptureTurnsPercentile(50));
+    }
+
+    @Test
+    public void testCaptureTurnsPercentiles() {
+        TournamentResult result = new Tournament(parameters).run(500);
+        assertTrue(result.getHunterWins() > 0);
+        assertTrue(result.getCaptureTurnsPercentile(0) <= result.getCaptureTurnsPercentile(50));
+        assertTrue(result.getCaptureTurnsPercentile(50) <= result.getCaptureTurnsPercentile(100));
+    }
+}
@@ -0,0 +1,75 @@
+package fr.univlille;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import fr.univlille.mcts.PlayoutState;
+import fr.univlille.search.TranspositionTable;
+
+public class TestTranspositionTable {
+
+    @Test
+    public void testProbeAndReplacement() {
+        // 4 entries, so 2 buckets
+        TranspositionTable table = new TranspositionTable(64);
+        assertEquals(4, table.getCapacity());
+        assertEquals(TranspositionTable.MISS, table.probe(42));
+
+        table.store(42, 3, 100);
+        assertEquals(3, table.probe(42));
+        assertEquals(0.5, table.getHitRate(), 0);
+
+        // the same bucket: a worse search doesn't replace the first entry, it takes the second one
+        long sameBucket = 42 + (1L << 33);
+        table.store(sameBucket, 1, 10);
+        assertEquals(3, table.probe(42));
+        assertEquals(1, table.probe(sameBucket));
+
+        // and a third state replaces the second entry
+        long third = 42 + (2L << 33);
+        table.store(third, 0, 5);
+        assertEquals(0, table.probe(third));
+        assertEquals(TranspositionTable.MISS, table.probe(sameBucket));
+        assertEquals(3, table.probe(42));
+        assertEquals(1, table.getReplacements());
+
+        table.clear();
+        assertEquals(TranspositionTable.MISS, table.probe(42));
+    }
+
+    @Test
+    public void testSearchWithoutIterations() {
+        // a single bucket
+        TranspositionTable table = new TranspositionTable(32);
+        table.store(42, 3, 0);
+        assertEquals(3, table.probe(42));
+
+        // it's as good as a search of one iteration, so another one replaces it like any search at least as good
+        long sameBucket = 42 + (1L << 33);
+        table.store(sameBucket, 1, 0);
+        assertEquals(1, table.probe(sameBucket));
+        assertEquals(TranspositionTable.MISS, table.probe(42));
+        assertEquals(1, table.getReplacements());
+    }
+
+    @Test
+    public void testSameStateAtAnotherTurnHasTheSameHash() {
+        PlayoutState state = new PlayoutState();
+        state.reset(12, 5, 1);
+        state.visit(11, 4);
+        state.reveal(11, 4);
+
+        PlayoutState later = new PlayoutState();
+        later.reset(12, 25, 1);
+        later.visit(11, 24);
+        later.reveal(11, 24);
+        assertEquals(state.hash(), later.hash());
+
+        later.reset(12, 25, 0);
+        later.visit(11, 24);
+        later.reveal(11, 24);
+        assertTrue(state.hash() != later.hash());
+    }
+}